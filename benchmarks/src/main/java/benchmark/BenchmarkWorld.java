@@ -0,0 +1,126 @@
+package benchmark;
+
+import ai.PathFinder;
+import entity.Entity;
+import main.GamePanel;
+import tile.Map;
+import tile.TileChunkCache;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// BenchmarkWorld builds a headless GamePanel in the play state and can replace its current map with a synthetic one
+// of any size, so the benchmarks can measure how the engine scales well past the 50x50 maps shipped with the game.
+// Everything is seeded, so every run and every fork benchmarks the same world.
+public class BenchmarkWorld {
+
+    public final GamePanel gp;     // Game under benchmark
+    public final Random random;    // Seeded generator for positions and layouts
+
+    // Constructor creates the game with its real assets and puts it in the play state on the world map.
+    public BenchmarkWorld(long seed) {
+        System.setProperty("java.awt.headless", "true");
+
+        gp = new GamePanel();
+        gp.setupGame();
+        gp.gameState = gp.playState;
+        random = new Random(seed);
+    }
+
+    // Replaces every map with a size x size synthetic map where a share of the tiles (obstacleDensity) is solid,
+    // keeping a clear border row so the player always has somewhere to stand. The current map becomes map 0.
+    public void useSyntheticMap(int size, double obstacleDensity) {
+        gp.maxWorldCol = size;
+        gp.maxWorldRow = size;
+        gp.currentMap = 0;
+
+        int grass = findTile(false);
+        int wall = findTile(true);
+
+        int words = (size * size + 63) >>> 6;
+        gp.tileM.mapTileNum = new int[gp.maxMap][size][size];
+        gp.tileM.collisionLayer = new long[gp.maxMap][words];
+        gp.tileM.interactiveLayer = new long[gp.maxMap][words];
+
+        for (int col = 0; col < size; col++) {
+            for (int row = 0; row < size; row++) {
+                boolean border = col == 0 || row == 0 || col == size - 1 || row == size - 1;
+                gp.tileM.mapTileNum[0][col][row] = !border && random.nextDouble() < obstacleDensity ? wall : grass;
+            }
+        }
+
+        // Remove the real map's entities, which may stand anywhere on the new layout.
+        for (Entity[][] entities : new Entity[][][]{gp.obj, gp.npc, gp.monster, gp.iTile, gp.projectile}) {
+            for (Entity[] map : entities) {
+                Arrays.fill(map, null);
+            }
+        }
+
+        gp.tileM.buildCollisionLayer(0);
+        gp.tileM.rebuildInteractiveLayer(0);
+        gp.tileM.chunkCache = new TileChunkCache(gp, gp.tileM, 16, 12);
+        gp.tileM.mapVersion[0]++;
+        gp.map = new Map(gp);
+        gp.pFinder = new PathFinder(gp);
+
+        movePlayerTo(size / 2, size / 2);
+    }
+
+    // Puts the player on the walkable tile nearest to a position (scanning forward), clearing it if none is found.
+    public void movePlayerTo(int col, int row) {
+        int[] tile = findWalkable(col, row);
+        gp.player.worldX = tile[0] * gp.tileSize;
+        gp.player.worldY = tile[1] * gp.tileSize;
+    }
+
+    // Returns a walkable tile at or after (col, row) in row-major order, wrapping around the map.
+    public int[] findWalkable(int col, int row) {
+        int size = gp.maxWorldCol * gp.maxWorldRow;
+        int start = row * gp.maxWorldCol + col;
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % size;
+            int c = index % gp.maxWorldCol;
+            int r = index / gp.maxWorldCol;
+            if (!gp.tileM.isBlocked(gp.currentMap, c, r)) {
+                return new int[]{c, r};
+            }
+        }
+        return new int[]{col, row};
+    }
+
+    // Returns a random walkable tile.
+    public int[] randomWalkable() {
+        return findWalkable(random.nextInt(gp.maxWorldCol), random.nextInt(gp.maxWorldRow));
+    }
+
+    // Creates count plain entities with a monster-sized solid area on random walkable tiles of the current map.
+    public Entity[] createEntities(int count) {
+        Entity[] entities = new Entity[count];
+        for (int i = 0; i < count; i++) {
+            Entity entity = new Entity(gp);
+            entity.solidArea.x = 3;
+            entity.solidArea.y = 18;
+            entity.solidArea.width = 42;
+            entity.solidArea.height = 30;
+            entity.solidAreaDefaultX = entity.solidArea.x;
+            entity.solidAreaDefaultY = entity.solidArea.y;
+            entity.speed = 1;
+
+            int[] tile = randomWalkable();
+            entity.worldX = tile[0] * gp.tileSize + random.nextInt(gp.tileSize / 2);
+            entity.worldY = tile[1] * gp.tileSize + random.nextInt(gp.tileSize / 2);
+            entities[i] = entity;
+        }
+        return entities;
+    }
+
+    // Returns the index of the first tile with the requested collision, used to lay out synthetic maps.
+    private int findTile(boolean collision) {
+        for (int i = 0; i < gp.tileM.tiles.length; i++) {
+            if (gp.tileM.tiles[i] != null && gp.tileM.tiles[i].image != null && gp.tileM.tiles[i].collision == collision) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No tile with collision " + collision);
+    }
+}
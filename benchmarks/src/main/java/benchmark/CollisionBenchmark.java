@@ -0,0 +1,59 @@
+package benchmark;
+
+import entity.Direction;
+import entity.Entity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks CollisionChecker.checkTile and checkEntity for the player on a synthetic map
+// crowded with up to thousands of monsters, with and without the spatial grid.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class CollisionBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    public int entityCount;   // Monsters on the map
+
+    @Param({"true", "false"})
+    public boolean useSpatialGrid; // Spatial grid or linear scan of the entity array
+
+    BenchmarkWorld world;
+    final Direction[] directions = Direction.values();
+    int next;                 // Direction of the next check
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(42);
+        world.useSyntheticMap(Math.max(50, (int) Math.sqrt(entityCount) * 8), 0.15);
+
+        // Spread the monsters over the map, with a few of them right around the player.
+        world.gp.monster = new Entity[world.gp.maxMap][entityCount];
+        world.gp.monster[0] = world.createEntities(entityCount);
+        for (int i = 0; i < Math.min(8, entityCount); i++) {
+            world.gp.monster[0][i].worldX = world.gp.player.worldX + (i % 3 - 1) * world.gp.tileSize;
+            world.gp.monster[0][i].worldY = world.gp.player.worldY + (i / 3 - 1) * world.gp.tileSize;
+        }
+
+        world.gp.cChecker.useSpatialGrid = useSpatialGrid;
+        world.gp.cChecker.updateSpatialGrids();
+    }
+
+    @Benchmark
+    public boolean checkTile() {
+        world.gp.player.direction = directions[next++ & 3];
+        world.gp.player.collisionOn = false;
+        world.gp.cChecker.checkTile(world.gp.player);
+        return world.gp.player.collisionOn;
+    }
+
+    @Benchmark
+    public int checkEntity() {
+        world.gp.player.direction = directions[next++ & 3];
+        return world.gp.cChecker.checkEntity(world.gp.player, world.gp.monster);
+    }
+}
@@ -0,0 +1,35 @@
+package benchmark;
+
+import entity.Entity;
+import main.EntityGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks creating entities the way the game does at run time: monsters dropping loot and SaveLoad.load
+// recreating every object through the EntityGenerator. Each creation loads the entity's sprites through Entity.setup.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class EntityCreateBenchmark {
+
+    @Param({"Coin", "Woodcutter's Axe", "Chest"})
+    public String objectName;  // Object created, by its name in the save file
+
+    BenchmarkWorld world;
+    EntityGenerator generator;
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(42);
+        generator = new EntityGenerator(world.gp);
+    }
+
+    @Benchmark
+    public Entity create() {
+        return generator.getObject(objectName);
+    }
+}
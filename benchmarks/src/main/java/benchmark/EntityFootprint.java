@@ -0,0 +1,76 @@
+package benchmark;
+
+import entity.Entity;
+import entity.NPC_Merchant;
+import entity.NPC_OldMan;
+import main.GamePanel;
+import main.SpriteCache;
+import monster.MON_GreenSlime;
+import monster.MON_Orc;
+import object.*;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+import tile_interactive.IT_DryTree;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// EntityFootprint prints how much memory each kind of entity takes, with JOL: the shallow size of the instance and
+// the size it retains, i.e. the objects only this entity references (rectangles, dialogue arrays, inventory...).
+// The game panel and the sprites of the SpriteCache are shared by every entity and don't count.
+// Run with: gradle :benchmarks:footprint
+public class EntityFootprint {
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        GamePanel gp = new BenchmarkWorld(42).gp;
+
+        Map<String, Function<GamePanel, Entity>> entities = new LinkedHashMap<>();
+        entities.put("Coin", OBJ_CoinBronze::new);
+        entities.put("Heart", OBJ_Heart::new);
+        entities.put("Fireball", OBJ_Fireball::new);
+        entities.put("Rock", OBJ_Rock::new);
+        entities.put("Key", OBJ_Key::new);
+        entities.put("Sword", OBJ_Sword_Normal::new);
+        entities.put("Chest", OBJ_Chest::new);
+        entities.put("Dry tree", g -> new IT_DryTree(g, 0, 0));
+        entities.put("Green slime", MON_GreenSlime::new);
+        entities.put("Orc", MON_Orc::new);
+        entities.put("Old man", NPC_OldMan::new);
+        entities.put("Merchant", NPC_Merchant::new);
+
+        // Create every entity first, so the sprites they load are in the cache when the shared objects are walked.
+        Map<String, Entity> created = new LinkedHashMap<>();
+        entities.forEach((name, constructor) -> created.put(name, constructor.apply(gp)));
+
+        List<Object> shared = sharedRoots(gp);
+        // The first walk leaves objects behind in the shared graph (e.g., JOL's own caches), so walk it twice.
+        GraphLayout.parseInstance(shared.toArray());
+        long sharedSize = GraphLayout.parseInstance(shared.toArray()).totalSize();
+
+        System.out.printf("%-12s %10s %10s %s%n", "Entity", "Shallow", "Retained", "Class");
+        for (Map.Entry<String, Entity> entry : created.entrySet()) {
+            Entity entity = entry.getValue();
+            List<Object> roots = new ArrayList<>(shared);
+            roots.add(entity);
+            long retained = GraphLayout.parseInstance(roots.toArray()).totalSize() - sharedSize;
+            long shallow = ClassLayout.parseInstance(entity).instanceSize();
+            System.out.printf("%-12s %10d %10d %s%n", entry.getKey(), shallow, retained, entity.getClass().getName());
+        }
+    }
+
+    // Objects every entity can reach without owning them: the game panel and the cached sprites.
+    static List<Object> sharedRoots(GamePanel gp) throws ReflectiveOperationException {
+        List<Object> roots = new ArrayList<>();
+        roots.add(gp);
+        for (String name : new String[]{"sprites", "originals"}) {
+            Field field = SpriteCache.class.getDeclaredField(name);
+            field.setAccessible(true);
+            roots.add(field.get(null));
+        }
+        return roots;
+    }
+}
@@ -0,0 +1,66 @@
+package benchmark;
+
+import entity.Entity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks the draw order sort of GamePanel.drawToTempScreen. Like the game, every invocation rebuilds the entity list
+// in slot order (which is unrelated to worldY) before sorting it by worldY, either with a comparator as the game used to
+// or through packed worldY and index keys as GamePanel.sortEntities does.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class EntitySortBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int entityCount;   // Entities drawn in a frame
+
+    BenchmarkWorld world;
+    Entity[] entities;        // Entities in slot order
+    final ArrayList<Entity> entityList = new ArrayList<>();
+    Entity[] drawList;        // Entities in draw order
+    long[] drawKeys;          // Sort keys of drawList
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(42);
+        world.useSyntheticMap(Math.max(50, (int) Math.sqrt(entityCount) * 8), 0);
+        entities = world.createEntities(entityCount);
+        drawList = new Entity[entityCount];
+        drawKeys = new long[entityCount];
+    }
+
+    @Benchmark
+    public ArrayList<Entity> sort() {
+        entityList.clear();
+        for (Entity entity : entities) {
+            entityList.add(entity);
+        }
+        entityList.sort(Comparator.comparingInt(e -> e.worldY));
+        return entityList;
+    }
+
+    @Benchmark
+    public Entity[] sortByKeys() {
+        entityList.clear();
+        for (Entity entity : entities) {
+            entityList.add(entity);
+        }
+        int count = entityList.size();
+        for (int i = 0; i < count; i++) {
+            drawKeys[i] = (long) entityList.get(i).worldY << 32 | i;
+        }
+        Arrays.sort(drawKeys, 0, count);
+        for (int i = 0; i < count; i++) {
+            drawList[i] = entityList.get((int) drawKeys[i]);
+        }
+        return drawList;
+    }
+}
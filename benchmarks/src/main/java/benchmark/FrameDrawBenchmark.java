@@ -0,0 +1,71 @@
+package benchmark;
+
+import entity.Entity;
+import monster.MON_GreenSlime;
+import monster.MON_Orc;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks GamePanel.drawToTempScreen, a whole frame, with a crowd of monsters on screen showing their HP bars
+// and some of them blinking (invincible or dying), which is the stress scene of the render resource cache.
+// Besides the time, every trial checks the frame's steady state allocation rate and fails above allocationBudget,
+// so a new per-frame Color, composite or font shows up as a failed run. Run with -prof gc for the detailed rate.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class FrameDrawBenchmark {
+
+    // Bytes a frame may allocate once warmed up. Java2D allocates a little inside drawString and drawImage.
+    static final long allocationBudget = 512;
+
+    @Param({"300"})
+    public int monsterCount;  // Monsters on screen
+
+    BenchmarkWorld world;
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(42);
+        var gp = world.gp;
+
+        // Spread the monsters over the screen around the player.
+        gp.monster = new Entity[gp.maxMap][monsterCount];
+        for (int i = 0; i < monsterCount; i++) {
+            Entity monster = i % 4 == 3 ? new MON_Orc(gp) : new MON_GreenSlime(gp);
+            monster.worldX = gp.player.worldX + world.random.nextInt(gp.screenWidth) - gp.screenWidth / 2;
+            monster.worldY = gp.player.worldY + world.random.nextInt(gp.screenHeight) - gp.screenHeight / 2;
+            monster.invincible = i % 2 == 0; // Blinks, and turns its HP bar on from the second frame.
+            gp.monster[gp.currentMap][i] = monster;
+        }
+    }
+
+    @Benchmark
+    public void frame() {
+        world.gp.drawToTempScreen();
+    }
+
+    // Draws frames after the measurement and fails the trial if they allocate more than the budget.
+    @TearDown(Level.Trial)
+    public void checkAllocationRate() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int frames = 1000;
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < frames; i++) {
+            world.gp.drawToTempScreen();
+        }
+        long perFrame = (threads.getThreadAllocatedBytes(threadId) - before) / frames;
+
+        System.out.println("Steady state allocation: " + perFrame + " bytes/frame");
+        if (perFrame > allocationBudget) {
+            throw new IllegalStateException("A frame allocates " + perFrame + " bytes, over the budget of "
+                    + allocationBudget + " bytes");
+        }
+    }
+}
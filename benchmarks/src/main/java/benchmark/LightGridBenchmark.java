@@ -0,0 +1,66 @@
+package benchmark;
+
+import entity.Entity;
+import environment.LightGrid;
+import object.OBJ_Lantern;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks LightGrid.update in a dungeon frame where every light moved one tile, on a synthetic 50x50 map with
+// walls. Unbudgeted, every moved light is spread again; budgeted, the update stops at the budget and the rest of the
+// lights follow in the next frames, so the score stays near the budget however many lights there are.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class LightGridBenchmark {
+
+    @Param({"60"})
+    public int lights;         // Lanterns lying on the map
+
+    @Param({"0", "500000"})
+    public long budgetNanos;   // Time budget of an update, 0 for none
+
+    BenchmarkWorld world;
+    LightGrid grid;
+    int step = 1;              // Columns the lights move by next, alternating between 1 and -1
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(42);
+        world.useSyntheticMap(50, 0.2);
+        var gp = world.gp;
+        gp.currentArea = gp.dungeon;
+
+        // Lanterns on open tiles that have an open tile to their right, so they can move back and forth.
+        gp.obj = new Entity[gp.maxMap][lights];
+        for (int i = 0; i < lights; i++) {
+            int[] tile = world.randomWalkable();
+            while (tile[0] + 1 >= gp.maxWorldCol || gp.tileM.isCollision(0, tile[0] + 1, tile[1])) {
+                tile = world.randomWalkable();
+            }
+            Entity light = new OBJ_Lantern(gp);
+            light.worldX = tile[0] * gp.tileSize;
+            light.worldY = tile[1] * gp.tileSize;
+            gp.obj[0][i] = light;
+        }
+
+        grid = new LightGrid(gp);
+        grid.budgetNanos = Long.MAX_VALUE;
+        grid.update();
+        grid.budgetNanos = budgetNanos == 0 ? Long.MAX_VALUE : budgetNanos;
+    }
+
+    @Benchmark
+    public LightGrid moveLights() {
+        for (Entity light : world.gp.obj[0]) {
+            light.worldX += step * world.gp.tileSize;
+        }
+        step = -step;
+        grid.update();
+        return grid;
+    }
+}
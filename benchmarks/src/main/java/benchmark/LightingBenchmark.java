@@ -0,0 +1,74 @@
+package benchmark;
+
+import entity.Entity;
+import environment.Lighting;
+import object.OBJ_Lantern;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks Lighting.setLightSource, which composes the darkness filter from the lights on the screen, and
+// Lighting.draw, the per-frame lighting pass, with lanterns lying on the screen as extra lights. Outside the lights
+// are radial sprites, in a dungeon they spread over the tiles of the light grid.
+// draw only composes the filter again when a light moved, which never happens here.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class LightingBenchmark {
+
+    @Param({"true", "false"})
+    public boolean lantern;   // Radial gradient around an equipped lantern, or uniform darkness
+
+    @Param({"0", "8"})
+    public int lights;        // Lanterns lying on the screen around the player
+
+    @Param({"outside", "dungeon"})
+    public String area;       // Area the player is in
+
+    BenchmarkWorld world;
+    Lighting lighting;
+    Graphics2D g2;
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(42);
+        var gp = world.gp;
+        gp.player.currentLight = lantern ? new OBJ_Lantern(gp) : null;
+
+        gp.obj = new Entity[gp.maxMap][lights];
+        for (int i = 0; i < lights; i++) {
+            Entity light = new OBJ_Lantern(gp);
+            light.worldX = gp.player.worldX + world.random.nextInt(gp.screenWidth) - gp.screenWidth / 2;
+            light.worldY = gp.player.worldY + world.random.nextInt(gp.screenHeight) - gp.screenHeight / 2;
+            gp.obj[gp.currentMap][i] = light;
+        }
+
+        gp.currentArea = area.equals("dungeon") ? gp.dungeon : gp.outside;
+        lighting = new Lighting(gp);
+        lighting.filterAlpha = 1f; // At night, so the filter is drawn outside too.
+
+        BufferedImage screen = new BufferedImage(gp.screenWidth, gp.screenHeight, BufferedImage.TYPE_INT_ARGB);
+        g2 = screen.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2.dispose();
+    }
+
+    @Benchmark
+    public Lighting setLightSource() {
+        lighting.setLightSource();
+        return lighting;
+    }
+
+    @Benchmark
+    public void draw() {
+        lighting.draw(g2);
+    }
+}
@@ -0,0 +1,31 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks TileManager.loadMap on each of the maps shipped with the game, collision layer and chunk invalidation included.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class MapLoadBenchmark {
+
+    @Param({"/maps/worldmap.txt", "/maps/indoor01.txt", "/maps/dungeon01.txt", "/maps/dungeon02.txt"})
+    public String mapFile;    // Map layout to load
+
+    BenchmarkWorld world;
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(42);
+    }
+
+    @Benchmark
+    public int[][] loadMap() {
+        world.gp.tileM.loadMap(mapFile, 0);
+        return world.gp.tileM.mapTileNum[0];
+    }
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import tile.Map;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks drawing the minimap and the full map screen on a fully explored world map, with the map's monsters
+// and NPCs as markers. Both views are a blit of an image rendered at their display size plus the markers.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class MiniMapBenchmark {
+
+    BenchmarkWorld world;
+    Graphics2D g2;
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(42);
+        Map map = world.gp.map;
+        for (long[] words : map.explored) {
+            Arrays.fill(words, -1L);
+        }
+        map.miniMapOn = true;
+
+        BufferedImage screen = new BufferedImage(world.gp.screenWidth, world.gp.screenHeight, BufferedImage.TYPE_INT_ARGB);
+        g2 = screen.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2.dispose();
+    }
+
+    @Benchmark
+    public void drawMiniMap() {
+        world.gp.map.drawMiniMap(g2);
+    }
+
+    @Benchmark
+    public void drawFullMapScreen() {
+        world.gp.map.drawFullMapScreen(g2);
+    }
+}
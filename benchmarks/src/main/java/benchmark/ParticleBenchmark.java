@@ -0,0 +1,76 @@
+package benchmark;
+
+import entity.Entity;
+import entity.ParticleSystem;
+import object.OBJ_Rock;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks the particle pool in a steady state: every tick, the particles whose life ran out are replaced by
+// bursts of four around the player, like hits spawn them. tick is the update and the new bursts, draw draws
+// every particle on the screen. A 60 FPS frame has about 16600 us for both.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ParticleBenchmark {
+
+    @Param({"1000", "20000"})
+    public int particleCount;  // Particles kept alive
+
+    BenchmarkWorld world;
+    ParticleSystem particles;
+    Entity source;             // Entity the bursts are spawned on, moved around the player
+    Color[] colors;
+    Graphics2D g2;
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(42);
+        var gp = world.gp;
+        particles = new ParticleSystem(gp, particleCount);
+        source = new OBJ_Rock(gp);
+        colors = new Color[]{new Color(40, 50, 0), new Color(240, 50, 0), new Color(65, 50, 30)};
+
+        // Reach the steady state, where the lives of the particles are spread out.
+        for (int i = 0; i < 60; i++) {
+            tick();
+        }
+
+        BufferedImage screen = new BufferedImage(gp.screenWidth, gp.screenHeight, BufferedImage.TYPE_INT_ARGB);
+        g2 = screen.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2.dispose();
+    }
+
+    @Benchmark
+    public int tick() {
+        particles.update();
+
+        // Spawn bursts until the pool is full again, at most a twentieth of the pool per tick so lives spread out.
+        var gp = world.gp;
+        for (int burst = 0; burst < particleCount / 80 && particles.count + 4 <= particleCount; burst++) {
+            source.worldX = gp.player.worldX + world.random.nextInt(gp.screenWidth) - gp.screenWidth / 2;
+            source.worldY = gp.player.worldY + world.random.nextInt(gp.screenHeight) - gp.screenHeight / 2;
+            Color color = colors[burst % colors.length];
+            particles.spawn(source, color, 6, 1, 20, -2, -1);
+            particles.spawn(source, color, 6, 1, 20, 2, -1);
+            particles.spawn(source, color, 6, 1, 20, -2, 1);
+            particles.spawn(source, color, 6, 1, 20, 2, 1);
+        }
+        return particles.count;
+    }
+
+    @Benchmark
+    public void draw() {
+        particles.draw(g2);
+    }
+}
@@ -0,0 +1,48 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks PathFinder.search between random walkable tiles of synthetic maps of growing size.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PathFinderBenchmark {
+
+    @Param({"50", "200", "1000"})
+    public int mapSize;        // Width and height of the map in tiles
+
+    @Param({"0.1", "0.3"})
+    public double obstacleDensity; // Share of solid tiles
+
+    BenchmarkWorld world;
+    int[][] queries;           // Start and goal tiles (startCol, startRow, goalCol, goalRow), searched in turn
+    int next;                  // Next query
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(42);
+        world.useSyntheticMap(mapSize, obstacleDensity);
+
+        // Goals stay within the range chasing monsters search in game (onPath ends at about 20 tiles).
+        queries = new int[256][];
+        for (int i = 0; i < queries.length; i++) {
+            int[] start = world.randomWalkable();
+            int[] goal = world.findWalkable(
+                    Math.max(0, Math.min(mapSize - 1, start[0] + world.random.nextInt(41) - 20)),
+                    Math.max(0, Math.min(mapSize - 1, start[1] + world.random.nextInt(41) - 20)));
+            queries[i] = new int[]{start[0], start[1], goal[0], goal[1]};
+        }
+    }
+
+    @Benchmark
+    public boolean search() {
+        int[] q = queries[next++ & (queries.length - 1)];
+        world.gp.pFinder.setNodes(q[0], q[1], q[2], q[3]);
+        return world.gp.pFinder.search();
+    }
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import data.SaveLoad;
+import entity.Entity;
+import object.OBJ_Chest;
+import object.OBJ_Key;
+import object.OBJ_Potion_Red;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks SaveLoad.save and SaveLoad.load with every map holding objectsPerMap objects.
+// SaveLoad writes save.dat in the working directory, which the jmh task sets to the build directory.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class SaveLoadBenchmark {
+
+    @Param({"20", "100", "500"})
+    public int objectsPerMap;  // Objects saved for each of the maps
+
+    BenchmarkWorld world;
+    SaveLoad saveLoad;
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(42);
+        var gp = world.gp;
+
+        // A few object instances shared by every slot, saving only reads their name, position and loot.
+        OBJ_Chest chest = new OBJ_Chest(gp);
+        chest.setLoot(new OBJ_Key(gp));
+        Entity[] samples = {new OBJ_Key(gp), new OBJ_Potion_Red(gp), chest};
+
+        gp.obj = new Entity[gp.maxMap][objectsPerMap];
+        for (int map = 0; map < gp.maxMap; map++) {
+            for (int i = 0; i < objectsPerMap; i++) {
+                gp.obj[map][i] = samples[i % samples.length];
+            }
+        }
+
+        saveLoad = new SaveLoad(gp);
+        saveLoad.save(); // load() needs a save file.
+    }
+
+    @Benchmark
+    public void save() {
+        saveLoad.save();
+    }
+
+    @Benchmark
+    public Entity[][] load() {
+        saveLoad.load();
+        return world.gp.obj;
+    }
+}
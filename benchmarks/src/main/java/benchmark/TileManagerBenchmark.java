@@ -0,0 +1,79 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks TileManager.draw into an offscreen Graphics2D on synthetic maps of growing size, comparing the chunk cache,
+// the clipped per-tile loop and the original loop that walked every cell of the map. The camera stays still,
+// so the chunk cache figures are its steady state once the visible chunks are built.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class TileManagerBenchmark {
+
+    @Param({"50", "250", "1000"})
+    public int mapSize;       // Width and height of the map in tiles
+
+    @Param({"chunkCache", "clipped", "fullScan"})
+    public String drawMode;   // Ground rendering strategy
+
+    BenchmarkWorld world;
+    BufferedImage screen;     // Offscreen frame, in the format the game renders to
+    Graphics2D g2;
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(42);
+        world.useSyntheticMap(mapSize, 0.2);
+        world.gp.tileM.useChunkCache = drawMode.equals("chunkCache");
+
+        screen = new BufferedImage(world.gp.screenWidth, world.gp.screenHeight, BufferedImage.TYPE_INT_ARGB_PRE);
+        g2 = screen.createGraphics();
+    }
+
+    @Benchmark
+    public BufferedImage draw() {
+        if (drawMode.equals("fullScan")) {
+            drawFullScan();
+        } else {
+            world.gp.tileM.draw(g2);
+        }
+        return screen;
+    }
+
+    // The loop TileManager.draw used before it was clipped to the visible window: every cell of the map
+    // is visited and bounds tested against the screen, so its cost grows with the map's area.
+    private void drawFullScan() {
+        var gp = world.gp;
+        int worldCol = 0;
+        int worldRow = 0;
+
+        while (worldCol < gp.maxWorldCol && worldRow < gp.maxWorldRow) {
+            int tileNum = gp.tileM.mapTileNum[gp.currentMap][worldCol][worldRow];
+
+            int worldX = worldCol * gp.tileSize;
+            int worldY = worldRow * gp.tileSize;
+            int screenX = worldX - gp.player.worldX + gp.player.screenX;
+            int screenY = worldY - gp.player.worldY + gp.player.screenY;
+
+            if (worldX + gp.tileSize > gp.player.worldX - gp.player.screenX &&
+                    worldX - gp.tileSize < gp.player.worldX + gp.player.screenX &&
+                    worldY + gp.tileSize > gp.player.worldY - gp.player.screenY &&
+                    worldY - gp.tileSize < gp.player.worldY + gp.player.screenY) {
+                g2.drawImage(gp.tileM.tiles[tileNum].image, screenX, screenY, null);
+            }
+
+            worldCol++;
+            if (worldCol == gp.maxWorldCol) {
+                worldCol = 0;
+                worldRow++;
+            }
+        }
+    }
+}
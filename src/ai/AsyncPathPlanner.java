@@ -0,0 +1,103 @@
+package ai;
+
+import main.GamePanel;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// AsyncPathPlanner runs A* searches on a pool of background threads so heavy AI load doesn't eat into the frame budget.
+// Every worker owns its own PathFinder as scratch state and searches an immutable CollisionSnapshot of the map,
+// so searches share nothing mutable with the game thread. Results are picked up by the caller on a later tick.
+public class AsyncPathPlanner {
+
+    GamePanel gp; // Reference to the GamePanel for accessing game data
+
+    final ExecutorService workers; // Pool running the searches
+    final ThreadLocal<PathFinder> finders = new ThreadLocal<>(); // Scratch PathFinder of each worker
+    CollisionSnapshot snapshot; // Latest snapshot of the current map, only touched by the game thread
+
+    // Counters
+    public final AtomicInteger submitted = new AtomicInteger(); // Searches handed to the workers
+    public final AtomicInteger completed = new AtomicInteger(); // Searches finished by the workers
+
+    // Result of a background search. Immutable once published by the worker.
+    public static class PathResult {
+        final int map;              // Map the path was searched on
+        final int startCol, startRow; // Tile the path starts from
+        final int goalCol, goalRow; // Goal tile of the path
+        final int[] cols, rows;     // Path steps, the start tile excluded
+        final int length;           // Number of steps, 0 if no path was found
+
+        PathResult(int map, int startCol, int startRow, int goalCol, int goalRow, int[] cols, int[] rows, int length) {
+            this.map = map;
+            this.startCol = startCol;
+            this.startRow = startRow;
+            this.goalCol = goalCol;
+            this.goalRow = goalRow;
+            this.cols = cols;
+            this.rows = rows;
+            this.length = length;
+        }
+    }
+
+    // Constructor starts the worker pool. Workers are daemon threads so they never keep the game from exiting.
+    public AsyncPathPlanner(GamePanel gp, int threads) {
+        this.gp = gp;
+
+        AtomicInteger count = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "path-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Submits a search on the current map. Must be called on the game thread.
+    public Future<PathResult> submit(int startCol, int startRow, int goalCol, int goalRow) {
+        CollisionSnapshot snap = currentSnapshot();
+        submitted.incrementAndGet();
+        return workers.submit(() -> search(snap, startCol, startRow, goalCol, goalRow));
+    }
+
+    // Returns a snapshot of the current map, taking a new one only if the map or its collision layers changed.
+    private CollisionSnapshot currentSnapshot() {
+        if (snapshot == null || snapshot.map != gp.currentMap || snapshot.version != gp.tileM.layerVersion) {
+            snapshot = CollisionSnapshot.of(gp.tileM, gp.currentMap, gp.maxWorldCol, gp.maxWorldRow);
+        }
+        return snapshot;
+    }
+
+    // Runs a search on a worker thread with the worker's own PathFinder.
+    private PathResult search(CollisionSnapshot snap, int startCol, int startRow, int goalCol, int goalRow) {
+        PathFinder finder = finders.get();
+        if (finder == null || finder.maxCol != snap.maxCol || finder.maxRow != snap.maxRow) {
+            finder = new PathFinder(snap.maxCol, snap.maxRow);
+            finders.set(finder);
+        }
+
+        finder.snapshot = snap;
+        finder.setNodes(startCol, startRow, goalCol, goalRow);
+
+        int[] cols = new int[0];
+        int[] rows = new int[0];
+        if (finder.search()) {
+            int size = finder.pathList.size();
+            cols = new int[size];
+            rows = new int[size];
+            for (int i = 0; i < size; i++) {
+                cols[i] = finder.pathList.get(i).col;
+                rows[i] = finder.pathList.get(i).row;
+            }
+        }
+
+        completed.incrementAndGet();
+        return new PathResult(snap.map, startCol, startRow, goalCol, goalRow, cols, rows, cols.length);
+    }
+
+    // Stops the worker threads.
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,46 @@
+package ai;
+
+import tile.TileManager;
+
+// CollisionSnapshot is an immutable copy of the walkable tiles of one map at a given collision layer version.
+// Background path searches read it instead of the live TileManager, so they never race with the game thread.
+public class CollisionSnapshot {
+
+    final int map;          // Map the snapshot was taken from
+    final int version;      // TileManager layer version the snapshot was taken at
+    final int maxCol;       // Width of the map in tiles
+    final int maxRow;       // Height of the map in tiles
+    private final long[] blocked; // One bit per tile (row * maxCol + col), set for tiles that can't be walked through
+
+    // Constructor is private, snapshots are taken with of().
+    private CollisionSnapshot(int map, int version, int maxCol, int maxRow, long[] blocked) {
+        this.map = map;
+        this.version = version;
+        this.maxCol = maxCol;
+        this.maxRow = maxRow;
+        this.blocked = blocked;
+    }
+
+    // Takes a snapshot of the collision and interactive layers of a map. Must be called on the game thread.
+    public static CollisionSnapshot of(TileManager tileM, int map, int maxCol, int maxRow) {
+        long[] collision = tileM.collisionLayer[map];
+        long[] interactive = tileM.interactiveLayer[map];
+
+        long[] blocked = new long[collision.length];
+        for (int i = 0; i < blocked.length; i++) {
+            blocked[i] = collision[i] | interactive[i];
+        }
+
+        return new CollisionSnapshot(map, tileM.layerVersion, maxCol, maxRow, blocked);
+    }
+
+    // Returns true if the tile can't be walked through. Positions outside the map count as blocked.
+    public boolean isBlocked(int col, int row) {
+        if (col < 0 || row < 0 || col >= maxCol || row >= maxRow) {
+            return true;
+        }
+
+        int bit = row * maxCol + col;
+        return (blocked[bit >>> 6] & (1L << bit)) != 0;
+    }
+}
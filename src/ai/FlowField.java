@@ -0,0 +1,118 @@
+package ai;
+
+import main.GamePanel;
+
+import java.util.Arrays;
+
+// FlowField is a Dijkstra map toward a single goal tile, built with one breadth-first search over the map's collision layer.
+// Every entity chasing the same goal reads its next step from the field in constant time instead of running its own A* search.
+// The field is only rebuilt when the goal tile, the map or the collision layer changes.
+public class FlowField {
+
+    // Column and row offsets of the four neighbours, in the order the A* search opens them (up, left, down, right).
+    private static final int[][] NEIGHBOURS = {{0, -1}, {-1, 0}, {0, 1}, {1, 0}};
+
+    GamePanel gp; // Reference to the GamePanel for accessing game data
+
+    int[] distance;     // Distance in steps from each tile to the goal, -1 if the goal can't be reached
+    int[] queue;        // Reusable queue for the breadth-first search
+    int map = -1;       // Map the field was built on
+    int goalCol = -1;   // Goal tile the field leads to
+    int goalRow = -1;
+    int layerVersion = -1; // Version of the collision layers the field was built from
+    public int builds;  // Number of times the field was rebuilt
+
+    // Constructor to initialize the field with a reference to the game panel
+    public FlowField(GamePanel gp) {
+        this.gp = gp;
+        distance = new int[gp.maxWorldCol * gp.maxWorldRow];
+        queue = new int[gp.maxWorldCol * gp.maxWorldRow];
+    }
+
+    // Rebuilds the field if it doesn't lead to the given goal on the current map and collision layers.
+    public void update(int goalCol, int goalRow) {
+        if (map != gp.currentMap || this.goalCol != goalCol || this.goalRow != goalRow
+                || layerVersion != gp.tileM.layerVersion) {
+            build(goalCol, goalRow);
+        }
+    }
+
+    // Runs a breadth-first search from the goal over the walkable tiles.
+    private void build(int goalCol, int goalRow) {
+        map = gp.currentMap;
+        this.goalCol = goalCol;
+        this.goalRow = goalRow;
+        layerVersion = gp.tileM.layerVersion;
+        builds++;
+
+        Arrays.fill(distance, -1);
+
+        if (goalCol < 0 || goalRow < 0 || goalCol >= gp.maxWorldCol || goalRow >= gp.maxWorldRow) {
+            return;
+        }
+
+        int cols = gp.maxWorldCol;
+        int head = 0;
+        int tail = 0;
+
+        int goal = goalRow * cols + goalCol;
+        distance[goal] = 0;
+        queue[tail++] = goal;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int col = cell % cols;
+            int row = cell / cols;
+            int next = distance[cell] + 1;
+
+            // Expand to the four neighbours that are walkable and not reached yet.
+            if (row - 1 >= 0) tail = visit(col, row - 1, next, tail);
+            if (col - 1 >= 0) tail = visit(col - 1, row, next, tail);
+            if (row + 1 < gp.maxWorldRow) tail = visit(col, row + 1, next, tail);
+            if (col + 1 < cols) tail = visit(col + 1, row, next, tail);
+        }
+    }
+
+    // Sets the distance of a tile and queues it if it's walkable and wasn't reached before. Returns the new queue tail.
+    private int visit(int col, int row, int dist, int tail) {
+        int cell = row * gp.maxWorldCol + col;
+        if (distance[cell] == -1 && !gp.tileM.isBlocked(map, col, row)) {
+            distance[cell] = dist;
+            queue[tail++] = cell;
+        }
+        return tail;
+    }
+
+    // Returns the neighbouring tile that gets closest to the goal, or null if the goal can't be reached from the tile.
+    // Neighbours are tried in the same order as the A* search (up, left, down, right).
+    public Node getNextStep(int col, int row) {
+        if (col < 0 || row < 0 || col >= gp.maxWorldCol || row >= gp.maxWorldRow) {
+            return null;
+        }
+
+        int best = distance[row * gp.maxWorldCol + col];
+        int bestCol = -1;
+        int bestRow = -1;
+
+        // Tiles that aren't reached by the field (e.g., the entity stands on a solid tile) may still border it.
+        if (best == -1) {
+            best = Integer.MAX_VALUE;
+        }
+
+        for (int[] offset : NEIGHBOURS) {
+            int c = col + offset[0];
+            int r = row + offset[1];
+            if (c < 0 || r < 0 || c >= gp.maxWorldCol || r >= gp.maxWorldRow) {
+                continue;
+            }
+            int d = distance[r * gp.maxWorldCol + c];
+            if (d != -1 && d < best) {
+                best = d;
+                bestCol = c;
+                bestRow = r;
+            }
+        }
+
+        return bestCol == -1 ? null : gp.pFinder.node[bestCol][bestRow];
+    }
+}
@@ -14,6 +14,8 @@ public class Node {
     boolean solid;  // Indicates if the node is a solid (non-traversable) tile
     boolean open;  // Indicates if the node is currently in the open list
     boolean checked;  // Indicates if the node has already been processed
+    int generation = -1;  // Search generation the state above belongs to; older values are treated as reset
+    int heapIndex = -1;  // Position of the node in the open list heap, or -1 if it is not in the heap
 
     // Constructor to initialize a node with its column and row position.
     public Node(int col, int row) {
@@ -0,0 +1,125 @@
+package ai;
+
+// Indexed binary min-heap of nodes used as the open list of the A* search.
+// Nodes are ordered by fCost, with ties broken by the lower gCost.
+// Each node stores its own position in the heap, so contains and decreaseKey run without searching.
+public class NodeHeap {
+
+    Node[] heap; // Heap array, the best node is at index 0.
+    int size;    // Number of nodes currently in the heap.
+
+    // Constructor creates a heap able to hold the given number of nodes without growing.
+    public NodeHeap(int capacity) {
+        heap = new Node[Math.max(1, capacity)];
+    }
+
+    // Returns true if the heap has no nodes.
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Returns the number of nodes in the heap.
+    public int size() {
+        return size;
+    }
+
+    // Removes every node from the heap.
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i].heapIndex = -1;
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    // Adds a node to the heap.
+    public void add(Node node) {
+        if (size == heap.length) {
+            Node[] grown = new Node[heap.length * 2];
+            System.arraycopy(heap, 0, grown, 0, size);
+            heap = grown;
+        }
+
+        heap[size] = node;
+        node.heapIndex = size;
+        size++;
+        siftUp(node.heapIndex);
+    }
+
+    // Removes and returns the node with the lowest cost, or null if the heap is empty.
+    public Node poll() {
+        if (size == 0) {
+            return null;
+        }
+
+        Node best = heap[0];
+        size--;
+
+        // Move the last node to the root and restore the heap order.
+        if (size > 0) {
+            heap[0] = heap[size];
+            heap[0].heapIndex = 0;
+            siftDown(0);
+        }
+        heap[size] = null;
+
+        best.heapIndex = -1;
+        return best;
+    }
+
+    // Restores the heap order after the cost of a node already in the heap was lowered.
+    public void decreaseKey(Node node) {
+        siftUp(node.heapIndex);
+    }
+
+    // Returns true if a should be explored before b.
+    private boolean less(Node a, Node b) {
+        if (a.fCost != b.fCost) {
+            return a.fCost < b.fCost;
+        }
+        return a.gCost < b.gCost;
+    }
+
+    // Moves the node at index i up until its parent is not worse.
+    private void siftUp(int i) {
+        Node node = heap[i];
+
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(node, heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            heap[i].heapIndex = i;
+            i = parent;
+        }
+
+        heap[i] = node;
+        node.heapIndex = i;
+    }
+
+    // Moves the node at index i down until none of its children is better.
+    private void siftDown(int i) {
+        Node node = heap[i];
+
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            // Pick the better of the two children.
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], node)) {
+                break;
+            }
+            heap[i] = heap[child];
+            heap[i].heapIndex = i;
+            i = child;
+        }
+
+        heap[i] = node;
+        node.heapIndex = i;
+    }
+}
@@ -3,67 +3,64 @@ package ai;
 import main.GamePanel;
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 // PathFinder class for A* pathfinding in a 2D grid-based game
 // Handles node initialization, cost calculation, and pathfinding logic
 public class PathFinder {
 
-    GamePanel gp; // Reference to the GamePanel for accessing game data
+    GamePanel gp; // Reference to the GamePanel for accessing game data, null for worker-owned finders
+    CollisionSnapshot snapshot; // Collision layer to search on instead of the live map, used by background workers
+    int maxCol, maxRow; // Size of the grid in tiles
     Node[][] node; // 2D array representing the grid of nodes
-    ArrayList<Node> openList = new ArrayList<>(); // List of nodes to explore
+    NodeHeap openList; // Binary heap of nodes to explore, ordered by F cost then G cost
     public ArrayList<Node> pathList = new ArrayList<>(); // Final path from start to goal
     Node startNode, goalNode, currentNode; // Start, goal, and current nodes
     boolean goalReached = false; // Flag indicating if the goal has been reached
     int step = 0; // Step counter to limit iterations
+    int generation = 0; // Current search generation, nodes stamped with an older generation are considered reset
 
     // Constructor to initialize the PathFinder with a reference to the game panel
     public PathFinder(GamePanel gp) {
         this.gp = gp;
+        this.maxCol = gp.maxWorldCol;
+        this.maxRow = gp.maxWorldRow;
+        initNodes(); // Initialize all nodes in the grid
+    }
+
+    // Constructor for a PathFinder that searches collision snapshots only, so it can be owned by a background thread
+    public PathFinder(int maxCol, int maxRow) {
+        this.maxCol = maxCol;
+        this.maxRow = maxRow;
         initNodes(); // Initialize all nodes in the grid
     }
 
     // Initialize the nodes in the grid
     public void initNodes() {
-        node = new Node[gp.maxWorldCol][gp.maxWorldRow];
+        node = new Node[maxCol][maxRow];
+        openList = new NodeHeap(maxCol * maxRow);
 
         int col = 0;
         int row = 0;
 
         // Loop through the grid to create nodes
-        while (col < gp.maxWorldRow && row < gp.maxWorldRow) {
+        while (col < maxCol && row < maxRow) {
             node[col][row] = new Node(col, row);
 
             col++;
 
             // Move to the next row when the current column reaches the limit
-            if (col == gp.maxWorldCol) {
+            if (col == maxCol) {
                 col = 0;
                 row++;
             }
         }
     }
 
-    // Reset the state of all nodes in the grid
+    // Reset the state of the search.
+    // Nodes are not swept: bumping the generation invalidates the state of every node touched by the previous search.
     public void resetNodes() {
-        int col = 0;
-        int row = 0;
-
-        // Loop through all nodes to reset their properties
-        while (col < gp.maxWorldRow && row < gp.maxWorldRow) {
-
-            // Reset open, checked, and solid states
-            node[col][row].open = false;
-            node[col][row].checked = false;
-            node[col][row].solid = false;
-
-            col++;
-
-            // Move to the next row when the current column reaches the limit
-            if (col == gp.maxWorldCol) {
-                col = 0;
-                row++;
-            }
-        }
+        generation++;
 
         // Clear the open list, path list, and reset flags
         openList.clear();
@@ -72,10 +69,26 @@ public class PathFinder {
         step = 0;
     }
 
+    // Brings a node into the current search generation, resetting the state left by older searches.
+    private void touch(Node node) {
+        if (node.generation != generation) {
+            node.generation = generation;
+            node.open = false;
+            node.checked = false;
+            node.parent = null;
+            node.heapIndex = -1;
+
+            // Mark solid nodes based on the snapshot, or the cached collision and interactive tile layers of the current map
+            node.solid = snapshot != null
+                    ? snapshot.isBlocked(node.col, node.row)
+                    : gp.tileM.isBlocked(gp.currentMap, node.col, node.row);
+        }
+    }
+
     // Set the start and goal nodes, and configure the grid for pathfinding
     public void setNodes(int startCol, int starRow, int goalCol, int goalRow) {
 
-        resetNodes(); // Reset the grid before setting new nodes
+        resetNodes(); // Reset the search before setting new nodes
 
         // Define the start and goal nodes
         startNode = node[startCol][starRow];
@@ -83,53 +96,19 @@ public class PathFinder {
         goalNode = node[goalCol][goalRow];
 
         // Add the starting node to the open list
-        openList.add(currentNode);
-
-        int col = 0;
-        int row = 0;
-
-        // Loop through all nodes to configure their properties
-        while (col < gp.maxWorldRow && row < gp.maxWorldRow) {
-
-            // Mark solid nodes based on tile collision data
-            int tileNum = gp.tileM.mapTileNum[gp.currentMap][col][row];
-            if (gp.tileM.tiles[tileNum].collision) {
-                node[col][row].solid = true;
-            }
-
-            // Mark interactive tiles as solid
-            for (int i = 0; i < gp.iTile[1].length; i++) {
-                if (gp.iTile[gp.currentMap][i] != null && gp.iTile[gp.currentMap][i].destructible) {
-                    int itCol = gp.iTile[gp.currentMap][i].worldX / gp.tileSize;
-                    int itRow = gp.iTile[gp.currentMap][i].worldY / gp.tileSize;
-                    node[itCol][itRow].solid = true;
-                }
-            }
-
-            // Calculate the cost values for the node
-            getCost(node[col][row]);
-
-            col++;
-
-            // Move to the next row when the current column reaches the limit
-            if (col == gp.maxWorldCol) {
-                col = 0;
-                row++;
-            }
-        }
+        touch(startNode);
+        startNode.gCost = 0;
+        getCost(startNode);
+        startNode.open = true;
+        openList.add(startNode);
     }
 
-    // Calculate the cost values (G, H, and F) for a node
+    // Calculate the cost values (H and F) for a node whose G cost is already known
     public void getCost(Node node) {
 
-        // Calculate G cost (distance from start)
-        int xDistance = Math.abs(node.col - startNode.col);
-        int yDistance = Math.abs(node.row - startNode.row);
-        node.gCost = xDistance + yDistance;
-
         // Calculate H cost (distance to goal)
-        xDistance = Math.abs(node.col - goalNode.col);
-        yDistance = Math.abs(node.row - goalNode.row);
+        int xDistance = Math.abs(node.col - goalNode.col);
+        int yDistance = Math.abs(node.row - goalNode.row);
         node.hCost = xDistance + yDistance;
 
         // Calculate F cost (G + H)
@@ -138,66 +117,68 @@ public class PathFinder {
 
     // Perform the A* search algorithm to find a path
     public boolean search() {
+        // Nothing to search if the entity is already on the goal
+        if (startNode == goalNode) {
+            return false;
+        }
+
         // Continue searching until the goal is reached or step limit is exceeded
         while (!goalReached && step < 500) {
-            int col = currentNode.col;
-            int row = currentNode.row;
-
-            // Mark the current node as checked
-            currentNode.checked = true;
-            openList.remove(currentNode);
-
-            // Open neighboring nodes
-            if (row - 1 >= 0) openNode(node[col][row - 1]); // Up
-            if (col - 1 >= 0) openNode(node[col - 1][row]); // Left
-            if (row + 1 < gp.maxWorldRow) openNode(node[col][row + 1]); // Down
-            if (col + 1 < gp.maxWorldCol) openNode(node[col + 1][row]); // Right
-
-            // Find the best node to continue
-            int bestNodeIndex = 0;
-            int bestNodefCost = 999;
-
-            for (int i = 0; i < openList.size(); i++) {
-
-                // Check if this node's F cost is better
-                if (openList.get(i).fCost < bestNodefCost) {
-                    bestNodeIndex = i;
-                    bestNodefCost = openList.get(i).fCost;
-                }
-                // If F costs are equal, prioritize lower G cost
-                else if (openList.get(i).fCost == bestNodefCost) {
-                    if (openList.get(i).gCost < openList.get(bestNodeIndex).gCost) {
-                        bestNodeIndex = i;
-                    }
-                }
-            }
 
-            // If there are no more nodes to explore, end the search
-            if (openList.isEmpty()) {
+            // Take the best node from the open list; if there are no more nodes to explore, end the search
+            currentNode = openList.poll();
+            if (currentNode == null) {
                 break;
             }
 
-            // Set the best node as the current node
-            currentNode = openList.get(bestNodeIndex);
+            // Mark the current node as checked
+            currentNode.open = false;
+            currentNode.checked = true;
 
             // Check if the goal node has been reached
             if (currentNode == goalNode) {
                 goalReached = true;
                 trackThePath(); // Trace the path from goal to start
+                break;
             }
 
+            int col = currentNode.col;
+            int row = currentNode.row;
+
+            // Open neighboring nodes
+            if (row - 1 >= 0) openNode(node[col][row - 1]); // Up
+            if (col - 1 >= 0) openNode(node[col - 1][row]); // Left
+            if (row + 1 < maxRow) openNode(node[col][row + 1]); // Down
+            if (col + 1 < maxCol) openNode(node[col + 1][row]); // Right
+
             step++;
         }
 
         return goalReached; // Return whether the goal was reached
     }
 
-    // Open a node and add it to the open list if it is valid
+    // Open a node and add it to the open list if it is valid,
+    // or lower its cost if the current node offers a shorter route to it
     public void openNode(Node node) {
-        if (!node.open && !node.checked && !node.solid) {
+        touch(node);
+
+        if (node.checked || node.solid) {
+            return;
+        }
+
+        int gCost = currentNode.gCost + 1;
+
+        if (!node.open) {
             node.open = true;
+            node.gCost = gCost;
+            getCost(node);
             node.parent = currentNode; // Set the current node as the parent
             openList.add(node); // Add the node to the open list
+        } else if (gCost < node.gCost) {
+            node.gCost = gCost;
+            getCost(node);
+            node.parent = currentNode; // Reroute the node through the current node
+            openList.decreaseKey(node);
         }
     }
 
@@ -208,8 +189,11 @@ public class PathFinder {
 
         // Backtrack from the goal to the start node
         while (current != startNode) {
-            pathList.add(0, current); // Add the node to the path list
+            pathList.add(current); // Add the node to the path list
             current = current.parent; // Move to the parent node
         }
+
+        // The path was collected from the goal backwards, put it in walking order
+        Collections.reverse(pathList);
     }
 }
@@ -0,0 +1,249 @@
+package ai;
+
+import entity.Entity;
+import main.GamePanel;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// PathService sits in front of the PathFinder for entities that follow a path every tick.
+// It caches the last path of each entity and keeps walking the remaining part of it while the goal tile is unchanged,
+// limits the number of A* searches run in one tick, and queues the rest for the following ticks.
+public class PathService {
+
+    private static final Logger logger = Logger.getLogger(PathService.class.getName()); // Logger for failed background searches.
+
+    GamePanel gp; // Reference to the GamePanel for accessing game data
+
+    // Whether searches run on the background planner (results are picked up on a later tick) instead of the game thread.
+    public boolean asyncSearch = true;
+
+    // Background planner, started on the first asynchronous search.
+    AsyncPathPlanner planner;
+
+    // Maximum number of A* searches run in a single tick, further requests wait in the queue.
+    public int maxSearchesPerTick = 4;
+
+    // Counters
+    public long hits;               // Requests answered from a cached path
+    public long misses;             // Requests that needed a new search
+    public int searchesThisTick;    // Searches run so far in the current tick
+    public int searchesLastTick;    // Searches run during the previous tick
+    public int maxSearchesSeen;     // Highest number of searches run in a single tick
+
+    // Shared Dijkstra map for entities that opted into flow field chasing.
+    public FlowField flowField;
+
+    // Cached path of each entity. Weak keys so entities removed from the world don't keep their path alive.
+    final Map<Entity, CachedPath> cache = new WeakHashMap<>();
+
+    // Requests waiting for a search because the per-tick limit was reached.
+    final ArrayDeque<CachedPath> queue = new ArrayDeque<>();
+
+    // Path of a single entity along with the request that produced it.
+    static class CachedPath {
+        int map = -1;               // Map the path was searched on
+        int startCol, startRow;     // Tile the path starts from
+        int goalCol, goalRow;       // Goal tile of the path
+        int[] cols = new int[0];    // Columns of the path steps, the start tile excluded
+        int[] rows = new int[0];    // Rows of the path steps, the start tile excluded
+        int length;                 // Number of steps in the path, 0 if no path was found
+        int cursor;                 // Index of the next step to walk to
+        boolean valid;              // True once a search result is stored
+        boolean queued;             // True while the request waits in the queue
+        Future<AsyncPathPlanner.PathResult> pending; // Background search in flight, if any
+    }
+
+    // Constructor to initialize the service with a reference to the game panel
+    public PathService(GamePanel gp) {
+        this.gp = gp;
+        flowField = new FlowField(gp);
+    }
+
+    // Called once at the start of every tick: resets the per-tick counters and runs the queued searches first.
+    public void update() {
+        searchesLastTick = searchesThisTick;
+        maxSearchesSeen = Math.max(maxSearchesSeen, searchesThisTick);
+        searchesThisTick = 0;
+
+        while (!queue.isEmpty() && searchesThisTick < maxSearchesPerTick) {
+            CachedPath path = queue.poll();
+            path.queued = false;
+            search(path);
+        }
+    }
+
+    // Returns the next tile the entity should walk to in order to reach the goal,
+    // or null if there is no path or the search is still waiting in the queue.
+    public Node getNextStep(Entity entity, int startCol, int startRow, int goalCol, int goalRow) {
+        // Already standing on the goal, there is nothing to search.
+        if (startCol == goalCol && startRow == goalRow) {
+            return null;
+        }
+
+        CachedPath path = cache.computeIfAbsent(entity, e -> new CachedPath());
+
+        // Pick up a background search that finished since the last tick.
+        if (path.pending != null && path.pending.isDone()) {
+            collect(path);
+        }
+
+        // Reuse the cached path while the goal hasn't moved and the entity is still on it.
+        if (path.valid && path.map == gp.currentMap && path.goalCol == goalCol && path.goalRow == goalRow) {
+            int next = findNextStep(path, startCol, startRow);
+            if (next != -1) {
+                hits++;
+                path.cursor = next;
+                return gp.pFinder.node[path.cols[next]][path.rows[next]];
+            }
+        }
+
+        // Record the request, it's searched now if the tick budget allows it or queued otherwise.
+        path.valid = false;
+        path.map = gp.currentMap;
+        path.startCol = startCol;
+        path.startRow = startRow;
+        path.goalCol = goalCol;
+        path.goalRow = goalRow;
+
+        // Already waiting for its turn, the queued search will use the updated request.
+        if (path.queued) {
+            return null;
+        }
+
+        // Hand the search to the background planner, the entity picks up the path on a later tick.
+        if (asyncSearch) {
+            if (path.pending == null) {
+                misses++;
+                if (planner == null) {
+                    planner = new AsyncPathPlanner(gp, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+                }
+                path.pending = planner.submit(startCol, startRow, goalCol, goalRow);
+            }
+            return null;
+        }
+
+        misses++;
+
+        if (searchesThisTick >= maxSearchesPerTick) {
+            path.queued = true;
+            queue.add(path);
+            return null;
+        }
+
+        search(path);
+
+        if (path.length == 0) {
+            return null;
+        }
+        path.cursor = 0;
+        return gp.pFinder.node[path.cols[0]][path.rows[0]];
+    }
+
+    // Returns the next tile toward the goal read from the shared flow field, or null if the goal can't be reached.
+    // The field is rebuilt only when the goal tile changes, so many entities chasing the same target share one search.
+    public Node getFlowFieldStep(int startCol, int startRow, int goalCol, int goalRow) {
+        if (startCol == goalCol && startRow == goalRow) {
+            return null;
+        }
+
+        flowField.update(goalCol, goalRow);
+        return flowField.getNextStep(startCol, startRow);
+    }
+
+    // Returns the index of the step that follows the entity's tile on the path, or -1 if the entity left the path.
+    private int findNextStep(CachedPath path, int col, int row) {
+        if (path.length == 0) {
+            return -1;
+        }
+
+        // The entity is still on the tile it walked from.
+        int from = path.cursor - 1;
+        if (from < 0 ? (col == path.startCol && row == path.startRow) : (col == path.cols[from] && row == path.rows[from])) {
+            return path.cursor;
+        }
+
+        // The entity reached the next step (or a later one); continue from there.
+        for (int i = path.cursor; i < path.length - 1; i++) {
+            if (col == path.cols[i] && row == path.rows[i]) {
+                return i + 1;
+            }
+        }
+
+        return -1;
+    }
+
+    // Stores the result of a finished background search in the entity's cached path.
+    private void collect(CachedPath path) {
+        AsyncPathPlanner.PathResult result = null;
+        try {
+            result = path.pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.log(Level.WARNING, "Background path search failed", e);
+        }
+        path.pending = null;
+
+        // Drop results that are missing or were searched on another map.
+        if (result == null || result.map != gp.currentMap) {
+            path.valid = false;
+            return;
+        }
+
+        path.map = result.map;
+        path.startCol = result.startCol;
+        path.startRow = result.startRow;
+        path.goalCol = result.goalCol;
+        path.goalRow = result.goalRow;
+        path.cols = result.cols;
+        path.rows = result.rows;
+        path.length = result.length;
+        path.cursor = 0;
+        path.valid = true;
+    }
+
+    // Runs the A* search of a request and copies the resulting path into it.
+    private void search(CachedPath path) {
+        searchesThisTick++;
+
+        // The map may have changed while the request was queued.
+        if (path.map != gp.currentMap) {
+            path.length = 0;
+            path.valid = false;
+            return;
+        }
+
+        gp.pFinder.setNodes(path.startCol, path.startRow, path.goalCol, path.goalRow);
+
+        path.length = 0;
+        if (gp.pFinder.search()) {
+            int size = gp.pFinder.pathList.size();
+            if (path.cols.length < size) {
+                path.cols = new int[size];
+                path.rows = new int[size];
+            }
+            for (int i = 0; i < size; i++) {
+                path.cols[i] = gp.pFinder.pathList.get(i).col;
+                path.rows[i] = gp.pFinder.pathList.get(i).row;
+            }
+            path.length = size;
+        }
+
+        path.cursor = 0;
+        path.valid = true;
+    }
+
+    // Stops the background planner if it was started.
+    public void shutdown() {
+        if (planner != null) {
+            planner.shutdown();
+            planner = null;
+        }
+    }
+}
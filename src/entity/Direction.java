@@ -0,0 +1,33 @@
+package entity;
+
+// Direction an entity faces and moves in. It replaces the "up", "down", "left" and "right" strings, so every
+// direction check is a jump on the ordinal instead of hashing and comparing strings for every entity on every tick.
+// Each direction carries its unit vector, so movement is worldX += dx * speed and worldY += dy * speed.
+public enum Direction {
+    up(0, -1),
+    down(0, 1),
+    left(-1, 0),
+    right(1, 0);
+
+    public final int dx;       // Horizontal step of one pixel in this direction (-1, 0 or 1)
+    public final int dy;       // Vertical step of one pixel in this direction (-1, 0 or 1)
+
+    private Direction opposite;
+
+    static {
+        up.opposite = down;
+        down.opposite = up;
+        left.opposite = right;
+        right.opposite = left;
+    }
+
+    Direction(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    // Returns the direction facing the other way.
+    public Direction opposite() {
+        return opposite;
+    }
+}
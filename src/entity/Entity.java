@@ -1,24 +1,19 @@
 package entity;
 
+import ai.Node;
 import main.GamePanel;
-import main.UtilityTool;
+import main.RenderCache;
+import main.SpriteCache;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Objects;
-import java.util.Random;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 // The Entity class serves as a base class for any game entity (like a player, enemy or object).
 // It contains the common attributes of an entity, such as position (x, y), speed, and collision settings.
 public class Entity {
 
     // General
-    private static final Logger logger = Logger.getLogger(Entity.class.getName()); // Logger for debugging or error messages.
     GamePanel gp; // Reference to the game panel, provides game state and properties.
 
     // Entity Identification
@@ -27,27 +22,28 @@ public class Entity {
 
     // Constants representing different types of entities or items in the game.
     // These help the game identify the entity and apply specific behavior based on its type.
-    public final int type_player = 0;       // Identifies the player character.
-    public final int type_npc = 1;          // Identifies a non-player character (NPC).
-    public final int type_monster = 2;      // Identifies a monster or enemy.
-    public final int type_sword = 3;        // Identifies a sword item.
-    public final int type_axe = 4;          // Identifies an axe item.
-    public final int type_shield = 5;       // Identifies a shield item.
-    public final int type_consumable = 6;   // Identifies a consumable item, like potions.
-    public final int type_pickupOnly = 7;   // Identifies an item as pickup only, like coins.
-    public final int type_obstacle = 8;     // Identifies an obstacle, like a door or chest.
-    public final int type_light = 9;        // Identifies a light source, such as a lantern or torch, that can illuminate surroundings.
+    // They are static so they don't take room in every entity.
+    public static final int type_player = 0;       // Identifies the player character.
+    public static final int type_npc = 1;          // Identifies a non-player character (NPC).
+    public static final int type_monster = 2;      // Identifies a monster or enemy.
+    public static final int type_sword = 3;        // Identifies a sword item.
+    public static final int type_axe = 4;          // Identifies an axe item.
+    public static final int type_shield = 5;       // Identifies a shield item.
+    public static final int type_consumable = 6;   // Identifies a consumable item, like potions.
+    public static final int type_pickupOnly = 7;   // Identifies an item as pickup only, like coins.
+    public static final int type_obstacle = 8;     // Identifies an obstacle, like a door or chest.
+    public static final int type_light = 9;        // Identifies a light source, such as a lantern or torch, that can illuminate surroundings.
 
     // Position and Movement
     public int worldX, worldY;          // Entity's position in the game world.
     public int speed;                   // Movement speed of the entity.
     public int defaultSpeed;            // Stores the original speed of the entity.
-    public String direction = "down";   // Current movement direction (up, down, left, right).
+    public Direction direction = Direction.down; // Current movement direction (up, down, left, right).
+    public int prevWorldX, prevWorldY;  // Position at the start of the current tick, used to interpolate rendering.
 
     // Animation
     public BufferedImage up1, up2, down1, down2, left1, left2, right1, right2; // Movement animation frames.
-    public BufferedImage attackUp1, attackUp2, attackDown1, attackDown2, attackLeft1, attackLeft2, attackRight1, attackRight2; // Attack animation frames.
-    public BufferedImage guardUp, guardDown, guardLeft, guardRight; // Guarding sprites for the player or entity, displayed when in a guarding state (facing up, down, left, or right).
+    public AttackSprites attackSprites; // Attack animation frames, only for the entities that attack up close (null otherwise).
     public int spriteCounter = 0; // Counts frames elapsed for animation.
     public int spriteNum = 1; // Current sprite frame number (1 or 2) for animation.
 
@@ -55,7 +51,7 @@ public class Entity {
     public Rectangle solidArea = new Rectangle(0, 0, 48, 48); // Area around the entity checked for collisions.
     public int solidAreaDefaultX, solidAreaDefaultY; // Default x, y coordinates of the solid area within the entity.
     public boolean collisionOn = false; // Flag to indicate if a collision has occurred.
-    public Rectangle attackArea = new Rectangle(0, 0, 0, 0);
+    public Rectangle attackArea; // Area hit by an attack, only for weapons and the entities that attack up close (null otherwise).
 
     // Action Control
     public int actionLockCounter = 0; // Counter to lock entity's action temporarily (e.g., idle/move control).
@@ -82,8 +78,8 @@ public class Entity {
     public int exp;              // Experience points accumulated by the entity.
     public int nextLevelExp;     // Experience required to reach the next level.
     public int coin;             // Number of coins the entity currently has (for purchasing items, etc.).
-    public ArrayList<Entity> inventory = new ArrayList<>();         // Inventory list that holds items collected by the entity, such as weapons, shields, etc.
-    public final int maxInventorySize = 20;                         // Maximum number of items that the entity can carry in the inventory.
+    public ArrayList<Entity> inventory;                             // Items carried by the entity, such as weapons, shields, etc. Only the player and the merchant carry items (null otherwise).
+    public static final int maxInventorySize = 20;                  // Maximum number of items that the entity can carry in the inventory.
     public int motion1_duration; // Duration for the first attack animation frame.
     public int motion2_duration; // Duration for the second attack animation frame.
     // Equipment
@@ -98,8 +94,9 @@ public class Entity {
     public boolean dying = false;       // Flag indicating if the entity is in the process of dying.
     boolean hpBarOn = false;            // Flag to display the health bar when true.
     public boolean onPath = false;      // Flag indicating if the entity needs to move to a specific location or follow the player.
+    public boolean useFlowField = false; // Flag to follow the shared flow field instead of searching an own path (for mass chasing).
     public boolean knockBack = false;   // Flag to determine if the entity is currently in a knockback state.
-    public String knockBackDirection;   // Direction in which the entity will be knocked back.
+    public Direction knockBackDirection; // Direction in which the entity will be knocked back.
     public boolean guarding = false;    // Flag indicating if the entity is in a guarding state.
     public boolean transparent = false; // Flag that handles visual transparency when taking damage.
     public boolean offBalance = false;  // Flag indicating if the entity is in an vulnerable state.
@@ -123,7 +120,9 @@ public class Entity {
     public Entity attacker;             // The entity causing the knockback effect.
 
     // Dialogue
-    public String[][] dialogues = new String[20][20];   // Array to store dialogue text, allowing multiple phrases.
+    public static final int maxDialogueSets = 20;       // Maximum number of dialogue sets of an entity.
+    public static final int maxDialogueLines = 20;      // Maximum number of lines in a dialogue set.
+    String[][] dialogues;                               // Dialogue lines by set, allocated with the first line of each set (null for entities that don't talk).
     public int dialogueIndex = 0;                       // Current dialogue index for displaying text.
     public int dialogueSet = 0;                         // Specifies the current set of dialogue for the entity.
 
@@ -131,11 +130,36 @@ public class Entity {
     public BufferedImage image, image2, image3; // Images representing the object (e.g., key, door).
     public boolean collision = false; // Indicates if the object can trigger collisions.
 
+    // Attack animation frames of an entity, kept apart from the entity as most entities never attack up close.
+    public static class AttackSprites {
+        public BufferedImage up1, up2, down1, down2, left1, left2, right1, right2;
+    }
+
     // Constructor initializes the Game Panel
     public Entity(GamePanel gp) {
         this.gp = gp;
     }
 
+    // Returns a line of dialogue, or null if the entity has no line there.
+    public String getDialogueLine(int set, int index) {
+        if (dialogues == null || set < 0 || set >= dialogues.length || dialogues[set] == null
+                || index < 0 || index >= dialogues[set].length) {
+            return null;
+        }
+        return dialogues[set][index];
+    }
+
+    // Sets a line of dialogue, allocating the dialogue set on its first line.
+    public void setDialogueLine(int set, int index, String line) {
+        if (dialogues == null) {
+            dialogues = new String[maxDialogueSets][];
+        }
+        if (dialogues[set] == null) {
+            dialogues[set] = new String[maxDialogueLines];
+        }
+        dialogues[set][index] = line;
+    }
+
     // Gets the leftmost X coordinate of the entity's collision area.
     public int getLeftX() {
         return worldX + solidArea.x; // Adds the solid area's offset to the entity's world position.
@@ -232,25 +256,25 @@ public class Entity {
 
         // Determine if the player is within range based on direction.
         switch (direction) {
-            case "up" -> {
+            case up -> {
                 // Checks if the player is above and within the straight and horizontal range.
                 if (gp.player.worldY < worldY && yDis < straight && xDis < horizontal) {
                     targetInRange = true;
                 }
             }
-            case "down" -> {
+            case down -> {
                 // Checks if the player is below and within the straight and horizontal range.
                 if (gp.player.worldY > worldY && yDis < straight && xDis < horizontal) {
                     targetInRange = true;
                 }
             }
-            case "left" -> {
+            case left -> {
                 // Checks if the player is to the left and within the straight and horizontal range.
                 if (gp.player.worldX < worldX && xDis < straight && yDis < horizontal) {
                     targetInRange = true;
                 }
             }
-            case "right" -> {
+            case right -> {
                 // Checks if the player is to the right and within the straight and horizontal range.
                 if (gp.player.worldX > worldX && xDis < straight && yDis < horizontal) {
                     targetInRange = true;
@@ -260,7 +284,7 @@ public class Entity {
 
         // If the player is within range, initiate a chance to attack.
         if (targetInRange) {
-            int i = new Random().nextInt(rate); // Random chance based on the attack rate.
+            int i = gp.random.nextInt(rate); // Random chance based on the attack rate.
             if (i == 0) { // Initiate attack if the random value matches.
                 attacking = true;           // Set attacking state to true.
                 spriteNum = 1;              // Start attack animation from the first frame.
@@ -275,7 +299,7 @@ public class Entity {
     // Ensures the entity can only fire when the projectile is not already active and the cooldown has expired.
     public void checkIsShooting(int rate, int interval) {
         // Generate a random number to decide if the entity fires a shot
-        int i = new Random().nextInt(rate);
+        int i = gp.random.nextInt(rate);
 
         // If conditions are met, initialize the projectile and add it to the game
         if (i > 0 && !projectile.alive && shotAvailableCounter == interval) {
@@ -301,7 +325,7 @@ public class Entity {
         // If the target is within the specified tile distance
         if (getTileDistance(target) < distance) {
             // Random chance to start chasing
-            int i = new Random().nextInt(rate);
+            int i = gp.random.nextInt(rate);
             if (i == 0) {
                 onPath = true; // Enable pathfinding
             }
@@ -314,7 +338,7 @@ public class Entity {
         // If the target is beyond the specified tile distance
         if (getTileDistance(target) > distance) {
             // Random chance to stop chasing
-            int i = new Random().nextInt(rate);
+            int i = gp.random.nextInt(rate);
             if (i == 0) {
                 onPath = false; // Disable pathfinding
             }
@@ -329,20 +353,19 @@ public class Entity {
 
         // Every 120 frames, decide on a new direction.
         if (actionLockCounter == 120) {
-            // Generate a random number between 1 and 100 to select a direction.
-            Random random = new Random();
-            int i = random.nextInt(100) + 1; // Values range from 1 to 100.
+            // Generate a random number between 1 and 100 to select a direction, from the world's seeded generator.
+            int i = gp.random.nextInt(100) + 1; // Values range from 1 to 100.
 
             // Assign a direction based on random chance:
             // 25% chance for each possible direction: "up", "down", "left", or "right".
             if (i <= 25) {
-                direction = "up"; // Move upwards.
+                direction = Direction.up; // Move upwards.
             } else if (i <= 50) {
-                direction = "down"; // Move downwards.
+                direction = Direction.down; // Move downwards.
             } else if (i <= 75) {
-                direction = "left"; // Move left.
+                direction = Direction.left; // Move left.
             } else {
-                direction = "right"; // Move right.
+                direction = Direction.right; // Move right.
             }
 
             // Reset the counter to repeat this process after another 120 frames.
@@ -391,12 +414,7 @@ public class Entity {
 
     // Adjusts the entity's direction to face the player during dialogue interactions.
     public void facePlayer() {
-        switch (gp.player.direction) {
-            case "up" -> direction = "down";
-            case "down" -> direction = "up";
-            case "left" -> direction = "right";
-            case "right" -> direction = "left";
-        }
+        direction = gp.player.direction.opposite();
     }
 
     // Starts a dialogue interaction with the specified entity, switching to dialogue mode.
@@ -433,7 +451,7 @@ public class Entity {
     }
 
     // Generates particles when an entity interacts with another (e.g., cutting a tree or hitting a monster).
-    // This method creates multiple particles with properties determined by the generator entity.
+    // This method spawns multiple particles with properties determined by the generator entity.
     public void generateParticle(Entity generator, Entity target) {
         // Get the particle properties from the generator entity.
         Color color = generator.getParticleColor(); // The color of the particle.
@@ -441,17 +459,11 @@ public class Entity {
         int speed = generator.getParticleSpeed();   // The speed of the particle.
         int maxLife = generator.getParticleMaxLife(); // The maximum lifetime of the particle.
 
-        // Create multiple particles with slight variations in their movement direction.
-        Particle p1 = new Particle(gp, target, color, size, speed, maxLife, -2, -1); // Particle with a negative x and y direction.
-        Particle p2 = new Particle(gp, target, color, size, speed, maxLife, 2, -1);  // Particle with a positive x and negative y direction.
-        Particle p3 = new Particle(gp, target, color, size, speed, maxLife, -2, 1);  // Particle with a negative x and positive y direction.
-        Particle p4 = new Particle(gp, target, color, size, speed, maxLife, 2, 1);   // Particle with a positive x and positive y direction.
-
-        // Add the generated particles to the particle list for future updates and rendering.
-        gp.particleList.add(p1);
-        gp.particleList.add(p2);
-        gp.particleList.add(p3);
-        gp.particleList.add(p4);
+        // Spawn particles in four diagonal directions, taken from the particle pool.
+        gp.particles.spawn(target, color, size, speed, maxLife, -2, -1); // Particle with a negative x and y direction.
+        gp.particles.spawn(target, color, size, speed, maxLife, 2, -1);  // Particle with a positive x and negative y direction.
+        gp.particles.spawn(target, color, size, speed, maxLife, -2, 1);  // Particle with a negative x and positive y direction.
+        gp.particles.spawn(target, color, size, speed, maxLife, 2, 1);   // Particle with a positive x and positive y direction.
     }
 
     // Determines if the entity is colliding with tiles, objects, NPCs, monsters, or the player.
@@ -489,12 +501,8 @@ public class Entity {
                 speed = defaultSpeed; // Reset the speed to its default value.
             } else {
                 // Apply movement in the knockback direction.
-                switch (knockBackDirection) {
-                    case "up" -> worldY -= speed;
-                    case "down" -> worldY += speed;
-                    case "left" -> worldX -= speed;
-                    case "right" -> worldX += speed;
-                }
+                worldX += knockBackDirection.dx * speed;
+                worldY += knockBackDirection.dy * speed;
             }
 
             knockBackCounter++; // Increment knockback duration counter.
@@ -515,12 +523,8 @@ public class Entity {
 
             // If no collision is detected, move the entity in the current direction.
             if (!collisionOn) {
-                switch (direction) {
-                    case "up" -> worldY -= speed;
-                    case "down" -> worldY += speed;
-                    case "left" -> worldX -= speed;
-                    case "right" -> worldX += speed;
-                }
+                worldX += direction.dx * speed;
+                worldY += direction.dy * speed;
             }
 
             // Update animation frames for movement.
@@ -561,25 +565,6 @@ public class Entity {
         }
     }
 
-    // Method to determine the opposite direction of a given direction.
-// This is used to check if the player is guarding from the correct direction of an incoming attack.
-    public String getOppositeDirection(String direction) {
-        switch (direction) {
-            case "down" -> {
-                return "up"; // If the direction is "down", the opposite is "up".
-            }
-            case "left" -> {
-                return "right"; // If the direction is "left", the opposite is "right".
-            }
-            case "right" -> {
-                return "left"; // If the direction is "right", the opposite is "left".
-            }
-            default -> {
-                return "down"; // Default to "down" if no recognized direction is provided (e.g., "up").
-            }
-        }
-    }
-
     // Method to control the attack animation and handle collision checks during the attack.
     public void attacking() {
         spriteCounter++; // Increment counter to control the animation frame.
@@ -599,10 +584,10 @@ public class Entity {
 
             // Adjust the entity's position based on the direction of the attack, simulating attack reach.
             switch (direction) {
-                case "up" -> worldY -= attackArea.height;
-                case "down" -> worldY += attackArea.height;
-                case "left" -> worldX -= attackArea.width;
-                case "right" -> worldX += attackArea.width;
+                case up -> worldY -= attackArea.height;
+                case down -> worldY += attackArea.height;
+                case left -> worldX -= attackArea.width;
+                case right -> worldX += attackArea.width;
             }
 
             // Temporarily change the solid area to match the attack area for collision detection.
@@ -654,10 +639,10 @@ public class Entity {
             int damage = attack - gp.player.defense;
 
             // Determine the direction opposite to the attack for guarding checks.
-            String canGuardDirection = getOppositeDirection(direction);
+            Direction canGuardDirection = direction.opposite();
 
             // Check if the player is guarding and facing the correct direction.
-            if (gp.player.guarding && gp.player.direction.equals(canGuardDirection)) {
+            if (gp.player.guarding && gp.player.direction == canGuardDirection) {
                 // Handle parry: if guard is triggered early (e.g., within 10 frames).
                 if (gp.player.guardCounter < 10) {
                     damage = 0; // Negate damage completely.
@@ -720,21 +705,20 @@ public class Entity {
             // Adjust Y-coordinate when direction is up or down
             if (attacking) {
                 switch (direction) {
-                    case "up" -> tempScreenY = screenY - gp.tileSize;
-                    case "left" -> tempScreenX = screenX - gp.tileSize;
+                    case up -> tempScreenY = screenY - gp.tileSize;
+                    case left -> tempScreenX = screenX - gp.tileSize;
                 }
             }
 
             // Choose the correct animation frame based on direction and attack status.
             image = switch (direction) {
-                case "up" -> attacking ? (spriteNum == 1 ? attackUp1 : attackUp2) : (spriteNum == 1 ? up1 : up2);
-                case "down" ->
-                        attacking ? (spriteNum == 1 ? attackDown1 : attackDown2) : (spriteNum == 1 ? down1 : down2);
-                case "left" ->
-                        attacking ? (spriteNum == 1 ? attackLeft1 : attackLeft2) : (spriteNum == 1 ? left1 : left2);
-                case "right" ->
-                        attacking ? (spriteNum == 1 ? attackRight1 : attackRight2) : (spriteNum == 1 ? right1 : right2);
-                default -> down1; // Default to down1 if direction is unrecognized.
+                case up -> attacking ? (spriteNum == 1 ? attackSprites.up1 : attackSprites.up2) : (spriteNum == 1 ? up1 : up2);
+                case down ->
+                        attacking ? (spriteNum == 1 ? attackSprites.down1 : attackSprites.down2) : (spriteNum == 1 ? down1 : down2);
+                case left ->
+                        attacking ? (spriteNum == 1 ? attackSprites.left1 : attackSprites.left2) : (spriteNum == 1 ? left1 : left2);
+                case right ->
+                        attacking ? (spriteNum == 1 ? attackSprites.right1 : attackSprites.right2) : (spriteNum == 1 ? right1 : right2);
             };
 
             // Monster HP bar
@@ -745,11 +729,11 @@ public class Entity {
                 double hpBarValue = oneScale * life;
 
                 // Draw the HP bar background slightly larger than the bar itself for visual clarity.
-                g2.setColor(new Color(35, 35, 35)); // Set background color to dark gray.
+                g2.setColor(RenderCache.color(35, 35, 35)); // Set background color to dark gray.
                 g2.fillRect(screenX - 1, screenY - 16, gp.tileSize + 2, 12); // Draw background rectangle.
 
                 // Draw the HP bar itself, scaled to the monster's current life.
-                g2.setColor(new Color(255, 0, 30)); // Set HP bar color to red.
+                g2.setColor(RenderCache.color(255, 0, 30)); // Set HP bar color to red.
                 g2.fillRect(screenX, screenY - 15, (int) hpBarValue, 10); // Draw HP bar rectangle.
 
                 // Increment the HP bar counter to track how long the HP bar has been visible.
@@ -789,7 +773,7 @@ public class Entity {
     // Sets the transparency level for the Graphics2D object.
     private static void changeAlpha(Graphics2D g2, float alpha) {
         // Set the composite for the Graphics2D object to control transparency.
-        g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+        g2.setComposite(RenderCache.alpha(alpha));
     }
 
     // Controls the dying animation, increasing blink speed as the entity approaches "death."
@@ -816,25 +800,14 @@ public class Entity {
     }
 
 
-    // Helper method to load an image by name, scale it, and return the BufferedImage
+    // Helper method to load an image by name, scale it, and return the BufferedImage.
+    // Images are shared through the sprite cache, so each sprite is only read and scaled once per process.
     public BufferedImage setup(String imagePath, int width, int height) {
-        UtilityTool uTool = new UtilityTool(); // Create an instance of UtilityTool for image scaling
-        BufferedImage image = null; // Initialize the BufferedImage variable
-
-        try {
-            // Load the image from resources and scale it to the size of the game tiles
-            image = ImageIO.read(Objects.requireNonNull(getClass().getResourceAsStream(imagePath + ".png")));
-            image = uTool.scaleImage(image, width, height); // Scale the loaded image
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, "Failed to load image", e); // Log error if image loading fails
-        } catch (NullPointerException e) {
-            logger.log(Level.WARNING, "Image not found!", e); // Log warning if image resource is not found
-        }
-
-        return image; // Return the scaled image
+        return SpriteCache.get(imagePath + ".png", width, height);
     }
 
     // The searchPath method calculates the path to a specified goal location using a pathfinding algorithm.
+    // Paths are cached by the path service, so a new search only runs when the goal tile changes or the entity leaves its path.
     // It sets the next movement direction for the entity based on its position and collision checks.
     // If the entity reaches the goal, it stops following the path.
     public void searchPath(int goalCol, int goalRow) {
@@ -843,14 +816,17 @@ public class Entity {
         int startCol = (worldX + solidArea.x) / gp.tileSize;
         int startRow = (worldY + solidArea.y) / gp.tileSize;
 
-        // Set up the start and goal nodes for the pathfinding algorithm.
-        gp.pFinder.setNodes(startCol, startRow, goalCol, goalRow);
+        // Ask the path service for the next step, either from the shared flow field
+        // or from the entity's cached path, which is reused while the goal hasn't moved.
+        Node next = useFlowField
+                ? gp.pService.getFlowFieldStep(startCol, startRow, goalCol, goalRow)
+                : gp.pService.getNextStep(this, startCol, startRow, goalCol, goalRow);
 
         // If a path is found, determine the next step towards the goal.
-        if (gp.pFinder.search()) {
+        if (next != null) {
             // Get the next target position in the path.
-            int nextX = gp.pFinder.pathList.get(0).col * gp.tileSize;
-            int nextY = gp.pFinder.pathList.get(0).row * gp.tileSize;
+            int nextX = next.col * gp.tileSize;
+            int nextY = next.row * gp.tileSize;
 
             // Calculate the entity's current solid area position.
             int enLeftX = worldX + solidArea.x;
@@ -860,51 +836,49 @@ public class Entity {
 
             // Determine the direction based on the next position in the path.
             if (enTopY > nextY && enLeftX >= nextX && enRightX < nextX + gp.tileSize) {
-                direction = "up";
+                direction = Direction.up;
             } else if (enTopY < nextY && enLeftX >= nextX && enRightX < nextX + gp.tileSize) {
-                direction = "down";
+                direction = Direction.down;
             } else if (enTopY >= nextY && enBottomY < nextY + gp.tileSize) {
                 // Move left or right based on horizontal position.
                 if (enLeftX > nextX) {
-                    direction = "left";
+                    direction = Direction.left;
                 }
                 if (enLeftX < nextX) {
-                    direction = "right";
+                    direction = Direction.right;
                 }
             } else if (enTopY > nextY && enLeftX > nextX) {
                 // Move up or left, with collision checks.
-                direction = "up";
+                direction = Direction.up;
                 checkCollision();
                 if (collisionOn) {
-                    direction = "left";
+                    direction = Direction.left;
                 }
             } else if (enTopY > nextY && enLeftX < nextX) {
                 // Move up or right, with collision checks.
-                direction = "up";
+                direction = Direction.up;
                 checkCollision();
                 if (collisionOn) {
-                    direction = "right";
+                    direction = Direction.right;
                 }
             } else if (enTopY < nextY && enLeftX > nextX) {
                 // Move down or left, with collision checks.
-                direction = "down";
+                direction = Direction.down;
                 checkCollision();
                 if (collisionOn) {
-                    direction = "left";
+                    direction = Direction.left;
                 }
             } else if (enTopY < nextY && enLeftX < nextX) {
                 // Move down or right, with collision checks.
-                direction = "down";
+                direction = Direction.down;
                 checkCollision();
                 if (collisionOn) {
-                    direction = "right";
+                    direction = Direction.right;
                 }
             }
 
             // Check if the entity has reached the goal.
-            int nextCol = gp.pFinder.pathList.get(0).col;
-            int nextRow = gp.pFinder.pathList.get(0).row;
-            if (nextCol == goalCol && nextRow == goalRow) {
+            if (next.col == goalCol && next.row == goalRow) {
                 onPath = false; // Stop following the path.
             }
         }
@@ -918,10 +892,10 @@ public class Entity {
         int nextWorldX = user.getLeftX();
         int nextWorldY = user.getTopY();
         switch (user.direction) {
-            case "up" -> nextWorldY -= user.speed;
-            case "down" -> nextWorldY = user.getBottomY() + user.speed;
-            case "left" -> nextWorldX -= user.speed;
-            case "right" -> nextWorldX = user.getRightX() + user.speed;
+            case up -> nextWorldY -= user.speed;
+            case down -> nextWorldY = user.getBottomY() + user.speed;
+            case left -> nextWorldX -= user.speed;
+            case right -> nextWorldX = user.getRightX() + user.speed;
         }
 
         // Calculate the grid coordinates of the tile being checked.
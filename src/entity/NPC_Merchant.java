@@ -4,6 +4,7 @@ import main.GamePanel;
 import object.*;
 
 import java.awt.*;
+import java.util.ArrayList;
 
 // NPC_Merchant represents an NPC character that acts as a merchant in the game.
 // This class inherits from the Entity class, which provides fundamental properties
@@ -16,7 +17,7 @@ public class NPC_Merchant extends Entity {
     public NPC_Merchant(GamePanel gp) {
         super(gp);
 
-        direction = "down"; // Sets the initial direction for the NPC to "down".
+        direction = Direction.down; // Sets the initial direction for the NPC to "down".
         speed = 1;          // Sets the movement speed of the NPC.
 
         // Define the solid area for the merchant, which will be used for collision detection.
@@ -32,6 +33,7 @@ public class NPC_Merchant extends Entity {
 
         setDialogue(); // Sets the dialogue that will be displayed when speaking with the NPC.
 
+        inventory = new ArrayList<>(); // Items the merchant sells.
         setItems();    // Populates the merchant's inventory with items available for trading.
 
     }
@@ -52,15 +54,15 @@ public class NPC_Merchant extends Entity {
 
     // Sets the series of dialogues for this NPC, which will display sequentially when spoken to.
     public void setDialogue() {
-        dialogues[0][0] = "He he, so you found me.\nI have some good stuff.\nDo you want to trade?";
+        setDialogueLine(0, 0, "He he, so you found me.\nI have some good stuff.\nDo you want to trade?");
 
-        dialogues[1][0] = "Come again, hehe!";
+        setDialogueLine(1, 0, "Come again, hehe!");
 
-        dialogues[2][0] = "You need more coin to buy that!";
+        setDialogueLine(2, 0, "You need more coin to buy that!");
 
-        dialogues[3][0] = "You cannot carry any more!";
+        setDialogueLine(3, 0, "You cannot carry any more!");
 
-        dialogues[4][0] = "You cannot sell an equipped item!";
+        setDialogueLine(4, 0, "You cannot sell an equipped item!");
     }
 
     @Override
@@ -3,7 +3,6 @@ package entity;
 import main.GamePanel;
 
 import java.awt.*;
-import java.util.Random;
 
 // NPC_OldMan represents an NPC character that simulates an old man within the game.
 // It inherits from the Entity class, which provides basic entity properties and behaviors
@@ -15,7 +14,7 @@ public class NPC_OldMan extends Entity {
     public NPC_OldMan(GamePanel gp) {
         super(gp);
 
-        direction = "down"; // Sets the initial direction for the NPC to "down".
+        direction = Direction.down; // Sets the initial direction for the NPC to "down".
         speed = 1;          // Sets the movement speed of the NPC.
 
         // Define the solid area for the old man, which will be used for collision detection.
@@ -49,16 +48,16 @@ public class NPC_OldMan extends Entity {
 
     // Sets the series of dialogues for this NPC, which will display sequentially when spoken to.
     public void setDialogue() {
-        dialogues[0][0] = "Hello, boy.";
-        dialogues[0][1] = "So you've come to this island to\nfind the treasure?";
-        dialogues[0][2] = "I used to be a great wizard but now...\nI'm a bit too old for taking an\nadventure.";
-        dialogues[0][3] = "Well, good luck on you.";
+        setDialogueLine(0, 0, "Hello, boy.");
+        setDialogueLine(0, 1, "So you've come to this island to\nfind the treasure?");
+        setDialogueLine(0, 2, "I used to be a great wizard but now...\nI'm a bit too old for taking an\nadventure.");
+        setDialogueLine(0, 3, "Well, good luck on you.");
 
-        dialogues[1][0] = "If you become tired, rest at the water.";
-        dialogues[1][1] = "However, the monsters reappear if you rest.\nI don't know why but that's how it works.";
-        dialogues[1][2] = "In any case, don't push yourself to hard.";
+        setDialogueLine(1, 0, "If you become tired, rest at the water.");
+        setDialogueLine(1, 1, "However, the monsters reappear if you rest.\nI don't know why but that's how it works.");
+        setDialogueLine(1, 2, "In any case, don't push yourself to hard.");
 
-        dialogues[2][0] = "I wonder how to open that door...";
+        setDialogueLine(2, 0, "I wonder how to open that door...");
 
     }
 
@@ -81,18 +80,17 @@ public class NPC_OldMan extends Entity {
 
             // Changes direction if actionLockCounter reaches 120, ensuring random movement.
             if (actionLockCounter == 120) {
-                Random random = new Random();
-                int i = random.nextInt(100) + 1; // Generates a random number between 1 and 100.
+                int i = gp.random.nextInt(100) + 1; // Generates a random number between 1 and 100.
 
                 // 25% chance for each direction.
                 if (i <= 25) {
-                    direction = "up"; // 25% chance for "up" direction.
+                    direction = Direction.up; // 25% chance for "up" direction.
                 } else if (i <= 50) {
-                    direction = "down"; // 25% chance for "down" direction.
+                    direction = Direction.down; // 25% chance for "down" direction.
                 } else if (i <= 75) {
-                    direction = "left"; // 25% chance for "left" direction.
+                    direction = Direction.left; // 25% chance for "left" direction.
                 } else {
-                    direction = "right"; // 25% chance for "right" direction.
+                    direction = Direction.right; // 25% chance for "right" direction.
                 }
 
                 actionLockCounter = 0; // Resets the action lock counter.
@@ -113,7 +111,7 @@ public class NPC_OldMan extends Entity {
         dialogueSet++; // Move to the next dialogue set after the current one is displayed.
 
         // If there are no more dialogues in the next set, revert to the last valid dialogue set.
-        if (dialogues[dialogueSet][0] == null) {
+        if (getDialogueLine(dialogueSet, 0) == null) {
             dialogueSet--;
         }
     }
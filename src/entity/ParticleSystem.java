@@ -0,0 +1,150 @@
+package entity;
+
+import main.GamePanel;
+import main.RenderCache;
+
+import java.awt.*;
+
+// The ParticleSystem holds the small colored squares thrown off by hits (e.g., cutting a tree or a fireball hitting
+// a monster). Particles aren't entities: each one is an index into primitive arrays, kept in a pool of fixed capacity,
+// so spawning, updating and removing particles never allocates. Dead particles are removed by moving the last
+// particle into their slot, so the live particles always fill the first count slots of the arrays.
+// Particles are updated in one loop per tick and drawn in one pass over the entities, without being sorted with them.
+public class ParticleSystem {
+
+    GamePanel gp; // Reference to the game panel.
+
+    // Maximum number of particles alive at once. Particles spawned when the pool is full are dropped.
+    public final int capacity;
+
+    // Number of particles alive, in slots 0 to count - 1.
+    public int count;
+
+    // State of each particle.
+    final int[] x, y;            // Position in the world
+    final int[] prevX, prevY;    // Position at the start of the current tick, used to interpolate rendering
+    final int[] xd, yd;          // Direction of the movement, yd grows as the particle falls
+    final int[] speed;           // Pixels moved per tick and unit of direction
+    final int[] life, maxLife;   // Remaining and total lifespan in ticks
+    final int[] color;           // Color as 0xAARRGGBB
+    final int[] size;            // Width and height in pixels
+
+    // Constructor creates an empty pool of particles.
+    public ParticleSystem(GamePanel gp, int capacity) {
+        this.gp = gp;
+        this.capacity = capacity;
+        x = new int[capacity];
+        y = new int[capacity];
+        prevX = new int[capacity];
+        prevY = new int[capacity];
+        xd = new int[capacity];
+        yd = new int[capacity];
+        speed = new int[capacity];
+        life = new int[capacity];
+        maxLife = new int[capacity];
+        color = new int[capacity];
+        size = new int[capacity];
+    }
+
+    // Spawns a particle centered on an entity, moving in the direction (xd, yd).
+    // Returns false if the pool is full and the particle was dropped.
+    public boolean spawn(Entity generator, Color color, int size, int speed, int maxLife, int xd, int yd) {
+        if (count == capacity || maxLife <= 0) {
+            return false;
+        }
+
+        int i = count++;
+        int offset = (gp.tileSize / 2) - (size / 2);
+        x[i] = prevX[i] = generator.worldX + offset;
+        y[i] = prevY[i] = generator.worldY + offset;
+        this.xd[i] = xd;
+        this.yd[i] = yd;
+        this.speed[i] = speed;
+        life[i] = this.maxLife[i] = maxLife;
+        this.color[i] = color.getRGB();
+        this.size[i] = size;
+        return true;
+    }
+
+    // Moves every particle by one tick and removes the ones whose life ran out.
+    public void update() {
+        int i = 0;
+        while (i < count) {
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+
+            life[i]--;
+
+            // Apply gravity to the particle when its life is below a third of its max life.
+            if (life[i] < maxLife[i] / 3) {
+                yd[i]++;
+            }
+
+            // Move the particle based on its direction and speed.
+            x[i] += xd[i] * speed[i];
+            y[i] += yd[i] * speed[i];
+
+            if (life[i] <= 0) {
+                remove(i); // The last particle moves here and is updated next.
+            } else {
+                i++;
+            }
+        }
+    }
+
+    // Removes a particle by moving the last particle into its slot.
+    void remove(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        prevX[i] = prevX[last];
+        prevY[i] = prevY[last];
+        xd[i] = xd[last];
+        yd[i] = yd[last];
+        speed[i] = speed[last];
+        life[i] = life[last];
+        maxLife[i] = maxLife[last];
+        color[i] = color[last];
+        size[i] = size[last];
+    }
+
+    // Removes every particle.
+    public void clear() {
+        count = 0;
+    }
+
+    // Draws every particle on the screen as a filled square, between its last two positions when rendering
+    // is interpolated. The color only changes between particles of different colors.
+    public void draw(Graphics2D g2) {
+        int cameraX = gp.player.worldX - gp.player.screenX;
+        int cameraY = gp.player.worldY - gp.player.screenY;
+        boolean interpolate = gp.interpolateRendering;
+        double t = gp.interpolation;
+        int currentColor = 0;
+        boolean colorSet = false;
+
+        for (int i = 0; i < count; i++) {
+            int px = x[i];
+            int py = y[i];
+            if (interpolate) {
+                px = prevX[i] + (int) Math.round((px - prevX[i]) * t);
+                py = prevY[i] + (int) Math.round((py - prevY[i]) * t);
+            }
+
+            int screenX = px - cameraX;
+            int screenY = py - cameraY;
+            int s = size[i];
+            if (screenX + s <= 0 || screenY + s <= 0 || screenX >= gp.screenWidth || screenY >= gp.screenHeight) {
+                continue;
+            }
+
+            if (color[i] != currentColor || !colorSet) {
+                currentColor = color[i];
+                colorSet = true;
+                g2.setColor(RenderCache.color(currentColor >> 16 & 0xff, currentColor >> 8 & 0xff,
+                        currentColor & 0xff, currentColor >>> 24));
+            }
+            g2.fillRect(screenX, screenY, s, s);
+        }
+    }
+}
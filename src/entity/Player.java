@@ -2,13 +2,16 @@ package entity;
 
 import main.GamePanel;
 import main.KeyHandler;
+import main.RenderCache;
 import object.OBJ_Axe;
 import object.OBJ_Fireball;
 import object.OBJ_Key;
 import object.OBJ_Shield_Wood;
+import tile_interactive.InteractiveTile;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 
 // The Player class extends the Entity class, inheriting common attributes like position and speed.
 // It adds specific logic for handling player movement, drawing, and now, collision detection and object interaction.
@@ -30,6 +33,9 @@ public class Player extends Entity {
     // Indicates whether the player's light source (e.g., lantern) has been updated.
     public boolean lightUpdated = false;
 
+    // Guarding sprites, displayed when the player is guarding (facing up, down, left, or right).
+    public BufferedImage guardUp, guardDown, guardLeft, guardRight;
+
     // Constructor initializes the Player with references to the game environment and key handler.
     public Player(GamePanel gp, KeyHandler keyH) {
         super(gp);
@@ -49,6 +55,8 @@ public class Player extends Entity {
         solidArea.width = 32;  // Width of the player collision area.
         solidArea.height = 32; // Height of the player collision area.
 
+        // The player carries the items it picks up.
+        inventory = new ArrayList<>();
 
         // Set the player's initial position and speed.
         setDefaultValues();
@@ -61,12 +69,12 @@ public class Player extends Entity {
         worldY = gp.tileSize * 21;  // Sets the player's world Y position.
 
         // Sets the player's initial movement direction to "down".
-        direction = "down";
+        direction = Direction.down;
     }
 
     // Sets the series of dialogues for this player, which will display sequentially when level up.
     public void setDialogues() {
-        dialogues[0][0] = "You are level " + level + " now!\n You feel stronger!";
+        setDialogueLine(0, 0, "You are level " + level + " now!\n You feel stronger!");
     }
 
     // Restores the player's life and mana to their maximum values, essentially healing the player.
@@ -94,7 +102,7 @@ public class Player extends Entity {
         speed = defaultSpeed; // Set the player's current speed.
 
         // Default movement direction.
-        direction = "down"; // Player faces downward at the start of the game.
+        direction = Direction.down; // Player faces downward at the start of the game.
 
         // Player stats.
         maxLife = 6; // Player's maximum health, represented by hearts on the UI.
@@ -214,26 +222,27 @@ public class Player extends Entity {
     // Loads the images for the player's attack animations in all four directions based on the equipped weapon.
     public void getAttackImage() {
         // Use the setup method to load and scale player images for different attacks
+        attackSprites = new AttackSprites();
         if (currentWeapon.type == type_sword) {
             // Load images for sword attack in all four directions
-            attackUp1 = setup("/player/boy_attack_up_1", gp.tileSize, gp.tileSize * 2);
-            attackUp2 = setup("/player/boy_attack_up_2", gp.tileSize, gp.tileSize * 2);
-            attackDown1 = setup("/player/boy_attack_down_1", gp.tileSize, gp.tileSize * 2);
-            attackDown2 = setup("/player/boy_attack_down_2", gp.tileSize, gp.tileSize * 2);
-            attackLeft1 = setup("/player/boy_attack_left_1", gp.tileSize * 2, gp.tileSize);
-            attackLeft2 = setup("/player/boy_attack_left_2", gp.tileSize * 2, gp.tileSize);
-            attackRight1 = setup("/player/boy_attack_right_1", gp.tileSize * 2, gp.tileSize);
-            attackRight2 = setup("/player/boy_attack_right_2", gp.tileSize * 2, gp.tileSize);
+            attackSprites.up1 = setup("/player/boy_attack_up_1", gp.tileSize, gp.tileSize * 2);
+            attackSprites.up2 = setup("/player/boy_attack_up_2", gp.tileSize, gp.tileSize * 2);
+            attackSprites.down1 = setup("/player/boy_attack_down_1", gp.tileSize, gp.tileSize * 2);
+            attackSprites.down2 = setup("/player/boy_attack_down_2", gp.tileSize, gp.tileSize * 2);
+            attackSprites.left1 = setup("/player/boy_attack_left_1", gp.tileSize * 2, gp.tileSize);
+            attackSprites.left2 = setup("/player/boy_attack_left_2", gp.tileSize * 2, gp.tileSize);
+            attackSprites.right1 = setup("/player/boy_attack_right_1", gp.tileSize * 2, gp.tileSize);
+            attackSprites.right2 = setup("/player/boy_attack_right_2", gp.tileSize * 2, gp.tileSize);
         } else if (currentWeapon.type == type_axe) {
             // Load images for axe attack in all four directions
-            attackUp1 = setup("/player/boy_axe_up_1", gp.tileSize, gp.tileSize * 2);
-            attackUp2 = setup("/player/boy_axe_up_2", gp.tileSize, gp.tileSize * 2);
-            attackDown1 = setup("/player/boy_axe_down_1", gp.tileSize, gp.tileSize * 2);
-            attackDown2 = setup("/player/boy_axe_down_2", gp.tileSize, gp.tileSize * 2);
-            attackLeft1 = setup("/player/boy_axe_left_1", gp.tileSize * 2, gp.tileSize);
-            attackLeft2 = setup("/player/boy_axe_left_2", gp.tileSize * 2, gp.tileSize);
-            attackRight1 = setup("/player/boy_axe_right_1", gp.tileSize * 2, gp.tileSize);
-            attackRight2 = setup("/player/boy_axe_right_2", gp.tileSize * 2, gp.tileSize);
+            attackSprites.up1 = setup("/player/boy_axe_up_1", gp.tileSize, gp.tileSize * 2);
+            attackSprites.up2 = setup("/player/boy_axe_up_2", gp.tileSize, gp.tileSize * 2);
+            attackSprites.down1 = setup("/player/boy_axe_down_1", gp.tileSize, gp.tileSize * 2);
+            attackSprites.down2 = setup("/player/boy_axe_down_2", gp.tileSize, gp.tileSize * 2);
+            attackSprites.left1 = setup("/player/boy_axe_left_1", gp.tileSize * 2, gp.tileSize);
+            attackSprites.left2 = setup("/player/boy_axe_left_2", gp.tileSize * 2, gp.tileSize);
+            attackSprites.right1 = setup("/player/boy_axe_right_1", gp.tileSize * 2, gp.tileSize);
+            attackSprites.right2 = setup("/player/boy_axe_right_2", gp.tileSize * 2, gp.tileSize);
         }
     }
 
@@ -277,12 +286,8 @@ public class Player extends Entity {
                 speed = defaultSpeed;
             } else {
                 // Apply movement based on knockback direction.
-                switch (knockBackDirection) {
-                    case "up" -> worldY -= speed;  // Push upward.
-                    case "down" -> worldY += speed; // Push downward.
-                    case "left" -> worldX -= speed; // Push to the left.
-                    case "right" -> worldX += speed; // Push to the right.
-                }
+                worldX += knockBackDirection.dx * speed;
+                worldY += knockBackDirection.dy * speed;
             }
 
             knockBackCounter++; // Increment knockback duration.
@@ -320,13 +325,13 @@ public class Player extends Entity {
 
             // Check and update the player's direction based on key inputs.
             if (keyH.upPressed) {
-                direction = "up";
+                direction = Direction.up;
             } else if (keyH.downPressed) {
-                direction = "down";
+                direction = Direction.down;
             } else if (keyH.leftPressed) {
-                direction = "left";
+                direction = Direction.left;
             } else if (keyH.rightPressed) {
-                direction = "right";
+                direction = Direction.right;
             }
 
             // Check for tile collision.
@@ -355,12 +360,8 @@ public class Player extends Entity {
 
             // If no collision detected, move the player in the current direction.
             if (!collisionOn && !keyH.enterPressed) {
-                switch (direction) {
-                    case "up" -> worldY -= speed;  // Move up in the world (Y-axis).
-                    case "down" -> worldY += speed; // Move down.
-                    case "left" -> worldX -= speed; // Move left on the X-axis.
-                    case "right" -> worldX += speed; // Move right.
-                }
+                worldX += direction.dx * speed;
+                worldY += direction.dy * speed;
             }
 
             // When the enter key is pressed, initiate the player's attack sequence if it hasn't been canceled.
@@ -565,7 +566,10 @@ public class Player extends Entity {
 
             // If the tile's life reaches zero, replace it with its destroyed variant.
             if (gp.iTile[gp.currentMap][i].life == 0) {
-                gp.iTile[gp.currentMap][i] = gp.iTile[gp.currentMap][i].getDestroyedVariant();
+                InteractiveTile destroyed = gp.iTile[gp.currentMap][i];
+                gp.iTile[gp.currentMap][i] = destroyed.getDestroyedVariant();
+                // Keep the cached interactive layer in sync with the replaced tile.
+                gp.tileM.updateInteractiveTile(gp.currentMap, destroyed, gp.iTile[gp.currentMap][i]);
             }
         }
     }
@@ -722,34 +726,33 @@ public class Player extends Entity {
         // Adjust position for attack animations in specific directions.
         if (attacking) {
             switch (direction) {
-                case "up" -> tempScreenY = screenY - gp.tileSize;
-                case "left" -> tempScreenX = screenX - gp.tileSize;
+                case up -> tempScreenY = screenY - gp.tileSize;
+                case left -> tempScreenX = screenX - gp.tileSize;
             }
         }
 
         // Select the correct sprite based on direction, guarding, or attacking status.
         BufferedImage image = switch (direction) {
-            case "up" ->
-                    guarding ? guardUp : (attacking ? (spriteNum == 1 ? attackUp1 : attackUp2) : (spriteNum == 1 ? up1 : up2));
-            case "down" ->
-                    guarding ? guardDown : (attacking ? (spriteNum == 1 ? attackDown1 : attackDown2) : (spriteNum == 1 ? down1 : down2));
-            case "left" ->
-                    guarding ? guardLeft : (attacking ? (spriteNum == 1 ? attackLeft1 : attackLeft2) : (spriteNum == 1 ? left1 : left2));
-            case "right" ->
-                    guarding ? guardRight : (attacking ? (spriteNum == 1 ? attackRight1 : attackRight2) : (spriteNum == 1 ? right1 : right2));
-            default -> down1; // Default to a neutral sprite if the direction is unrecognized.
+            case up ->
+                    guarding ? guardUp : (attacking ? (spriteNum == 1 ? attackSprites.up1 : attackSprites.up2) : (spriteNum == 1 ? up1 : up2));
+            case down ->
+                    guarding ? guardDown : (attacking ? (spriteNum == 1 ? attackSprites.down1 : attackSprites.down2) : (spriteNum == 1 ? down1 : down2));
+            case left ->
+                    guarding ? guardLeft : (attacking ? (spriteNum == 1 ? attackSprites.left1 : attackSprites.left2) : (spriteNum == 1 ? left1 : left2));
+            case right ->
+                    guarding ? guardRight : (attacking ? (spriteNum == 1 ? attackSprites.right1 : attackSprites.right2) : (spriteNum == 1 ? right1 : right2));
         };
 
         // Apply transparency effect if the player is invincible (e.g., during a damage phase).
         if (transparent) {
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.4f));
+            g2.setComposite(RenderCache.alpha(0.4f));
         }
 
         // Draw the selected sprite at the calculated position.
         g2.drawImage(image, tempScreenX, tempScreenY, null);
 
         // Reset transparency to normal after rendering.
-        g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f));
+        g2.setComposite(RenderCache.alpha(1f));
     }
 
 }
@@ -16,7 +16,7 @@ public class Projectile extends Entity {
     }
 
     // Sets the initial state of the projectile when launched, including position, direction, and life reset
-    public void set(int worldX, int worldY, String direction, boolean alive, Entity entity) {
+    public void set(int worldX, int worldY, Direction direction, boolean alive, Entity entity) {
         this.worldX = worldX;           // Set the projectile's initial X-coordinate
         this.worldY = worldY;           // Set the projectile's initial Y-coordinate
         this.direction = direction;     // Set the movement direction of the projectile
@@ -61,12 +61,8 @@ public class Projectile extends Entity {
         }
 
         // Move projectile based on its direction
-        switch (direction) {
-            case "up" -> worldY -= speed;    // Move upward
-            case "down" -> worldY += speed;  // Move downward
-            case "left" -> worldX -= speed;  // Move left
-            case "right" -> worldX += speed; // Move right
-        }
+        worldX += direction.dx * speed;
+        worldY += direction.dy * speed;
 
         // Reduce projectile's life, setting it inactive if life reaches zero
         life--;
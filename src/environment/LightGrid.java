@@ -0,0 +1,279 @@
+package environment;
+
+import entity.Entity;
+import main.GamePanel;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+// The LightGrid holds how much light reaches every tile of the current map, so the darkness in dungeons follows
+// the walls. Each light spreads from its tile with a flood fill over the TileManager's collision layer: the light
+// fades with the distance walked around walls, and a solid tile is lit on its face but stops the light.
+// The grid is the sum of what every light contributes, so a light that moves to another tile is updated alone
+// by taking its old contribution away and adding its new one. Lights are updated within a time budget per frame;
+// the ones left over keep their old contribution until the next frame.
+public class LightGrid {
+
+    GamePanel gp; // Reference to the game panel.
+
+    // Maximum time spent updating lights per frame, in nanoseconds. At least one light is updated every frame.
+    public long budgetNanos = 500000;
+
+    // Light reaching each tile of the current map (index = row * maxWorldCol + col), 255 per full light.
+    int[] light;
+
+    // Incremented every time the light of a tile changes, so the darkness filter knows when to compose again.
+    public int version;
+
+    // Map and collision layers the grid was computed on.
+    int map = -1;
+    int layerVersion = -1;
+
+    // A light and the light it contributes to the grid.
+    static class Source {
+        int col, row, radius;    // Tile and radius in tiles the contribution was computed for
+        int frame;               // Last frame the light was seen
+        boolean queued;          // Waiting for its contribution to be computed again
+        boolean removed;         // Gone, its contribution was taken away
+        int[] tiles = new int[64]; // Tiles the light reaches
+        int[] amounts = new int[64]; // Light it adds to each of them
+        int count;               // Number of tiles the light reaches
+    }
+
+    // Lights by the entity carrying them, and the ones waiting for their contribution to be computed.
+    final IdentityHashMap<Entity, Source> sources = new IdentityHashMap<>();
+    final ArrayDeque<Source> pending = new ArrayDeque<>();
+    int frame;
+
+    // Scratch buffers of the flood fill: best cost found for each tile (valid when the tile's mark is the current
+    // search), and the tiles waiting to be expanded in buckets by cost.
+    int[] cost;
+    int[] mark;
+    int search;
+    int[][] buckets = new int[0][];
+    int[] bucketSize = new int[0];
+
+    // Cost of a straight and of a diagonal step, approximating the euclidean distance (3 : 4 ~ 1 : 1.41).
+    static final int straight = 3;
+    static final int diagonal = 4;
+
+    // Constructor creates an empty grid, computed on the first update.
+    public LightGrid(GamePanel gp) {
+        this.gp = gp;
+    }
+
+    // Returns the light reaching a tile of the current map, 0 (dark) to 255 (fully lit).
+    public int getLight(int col, int row) {
+        return Math.min(255, light[row * gp.maxWorldCol + col]);
+    }
+
+    // Tracks the lights of the current map and updates the ones that moved, within the time budget.
+    // Called once per frame while the grid is used.
+    public void update() {
+        if (light == null || map != gp.currentMap || layerVersion != gp.tileM.layerVersion
+                || light.length != gp.maxWorldCol * gp.maxWorldRow) {
+            reset();
+        }
+        frame++;
+
+        // The player's light, and the lights lying on the map or carried by projectiles.
+        if (gp.player.currentLight != null) {
+            track(gp.player, gp.player.currentLight.lightRadius);
+        }
+        track(gp.obj[gp.currentMap]);
+        track(gp.projectile[gp.currentMap]);
+
+        // Take away the lights that are gone.
+        Iterator<Source> iterator = sources.values().iterator();
+        while (iterator.hasNext()) {
+            Source source = iterator.next();
+            if (source.frame != frame) {
+                subtract(source);
+                source.removed = true;
+                iterator.remove();
+            }
+        }
+
+        // Compute the lights that moved, oldest first, until the budget is spent.
+        long start = System.nanoTime();
+        do {
+            Source source = pending.poll();
+            if (source == null) {
+                break;
+            }
+            source.queued = false;
+            if (!source.removed) {
+                subtract(source);
+                fill(source);
+                add(source);
+            }
+        } while (System.nanoTime() - start < budgetNanos);
+    }
+
+    // Starts the grid over for the current map: every light is computed again.
+    void reset() {
+        map = gp.currentMap;
+        layerVersion = gp.tileM.layerVersion;
+        int size = gp.maxWorldCol * gp.maxWorldRow;
+        if (light == null || light.length != size) {
+            light = new int[size];
+            cost = new int[size];
+            mark = new int[size];
+        } else {
+            Arrays.fill(light, 0);
+        }
+        version++;
+
+        // Lights of another map are dropped when they are not seen on this one.
+        for (Source source : sources.values()) {
+            source.count = 0;
+            queue(source);
+        }
+    }
+
+    // Tracks the lights carried by the entities of an array.
+    void track(Entity[] entities) {
+        for (Entity entity : entities) {
+            if (entity != null && entity.lightRadius > 0 && entity.alive) {
+                track(entity, entity.lightRadius);
+            }
+        }
+    }
+
+    // Tracks the light of an entity, queuing it when it's new or moved to another tile.
+    void track(Entity entity, int lightRadius) {
+        int col = Math.max(0, Math.min(gp.maxWorldCol - 1, (entity.worldX + gp.tileSize / 2) / gp.tileSize));
+        int row = Math.max(0, Math.min(gp.maxWorldRow - 1, (entity.worldY + gp.tileSize / 2) / gp.tileSize));
+        int radius = Math.max(1, lightRadius / gp.tileSize);
+
+        Source source = sources.get(entity);
+        if (source == null) {
+            source = new Source();
+            sources.put(entity, source);
+            source.col = col;
+            source.row = row;
+            source.radius = radius;
+            queue(source);
+        } else if (source.col != col || source.row != row || source.radius != radius) {
+            source.col = col;
+            source.row = row;
+            source.radius = radius;
+            queue(source);
+        }
+        source.frame = frame;
+    }
+
+    // Queues a light for its contribution to be computed again.
+    void queue(Source source) {
+        if (!source.queued) {
+            source.queued = true;
+            pending.add(source);
+        }
+    }
+
+    // Adds a light's contribution to the grid.
+    void add(Source source) {
+        for (int i = 0; i < source.count; i++) {
+            light[source.tiles[i]] += source.amounts[i];
+        }
+        if (source.count > 0) {
+            version++;
+        }
+    }
+
+    // Takes a light's contribution away from the grid.
+    void subtract(Source source) {
+        for (int i = 0; i < source.count; i++) {
+            light[source.tiles[i]] -= source.amounts[i];
+        }
+        if (source.count > 0) {
+            version++;
+        }
+        source.count = 0;
+    }
+
+    // Computes the tiles a light reaches and how much light it adds to them, with a flood fill in order of cost
+    // (Dial's algorithm) that doesn't go through solid tiles nor cut their corners.
+    void fill(Source source) {
+        int maxCost = source.radius * straight;
+        if (buckets.length < maxCost + diagonal + 1) {
+            buckets = Arrays.copyOf(buckets, maxCost + diagonal + 1);
+            bucketSize = new int[buckets.length];
+        }
+        Arrays.fill(bucketSize, 0);
+        search++;
+
+        int cols = gp.maxWorldCol;
+        int start = source.row * cols + source.col;
+        cost[start] = 0;
+        mark[start] = search;
+        push(0, start);
+
+        for (int c = 0; c < maxCost; c++) {
+            for (int i = 0; i < bucketSize[c]; i++) {
+                int tile = buckets[c][i];
+                if (cost[tile] != c) {
+                    continue; // Reached again with a lower cost since.
+                }
+
+                // The tile gets light fading with the cost, the light's tile gets a full light.
+                if (source.count == source.tiles.length) {
+                    source.tiles = Arrays.copyOf(source.tiles, source.count * 2);
+                    source.amounts = Arrays.copyOf(source.amounts, source.count * 2);
+                }
+                source.tiles[source.count] = tile;
+                source.amounts[source.count] = 255 * (maxCost - c) / maxCost;
+                source.count++;
+
+                // A solid tile is lit, but the light doesn't go past it.
+                int col = tile % cols;
+                int row = tile / cols;
+                if (tile != start && gp.tileM.isCollision(map, col, row)) {
+                    continue;
+                }
+
+                boolean left = col > 0 && visit(tile - 1, c + straight, maxCost);
+                boolean right = col < cols - 1 && visit(tile + 1, c + straight, maxCost);
+                boolean up = row > 0 && visit(tile - cols, c + straight, maxCost);
+                boolean down = row < gp.maxWorldRow - 1 && visit(tile + cols, c + straight, maxCost);
+
+                // Diagonal steps only between two open tiles, so the light doesn't leak through the corners of walls.
+                if (left && up) {
+                    visit(tile - cols - 1, c + diagonal, maxCost);
+                }
+                if (right && up) {
+                    visit(tile - cols + 1, c + diagonal, maxCost);
+                }
+                if (left && down) {
+                    visit(tile + cols - 1, c + diagonal, maxCost);
+                }
+                if (right && down) {
+                    visit(tile + cols + 1, c + diagonal, maxCost);
+                }
+            }
+        }
+    }
+
+    // Reaches a tile with a cost, queuing it if the cost is lower than before. Returns whether the tile is open,
+    // so the light can go diagonally past it.
+    boolean visit(int tile, int newCost, int maxCost) {
+        if (newCost < maxCost && (mark[tile] != search || newCost < cost[tile])) {
+            mark[tile] = search;
+            cost[tile] = newCost;
+            push(newCost, tile);
+        }
+        return !gp.tileM.isCollision(map, tile % gp.maxWorldCol, tile / gp.maxWorldCol);
+    }
+
+    // Adds a tile to the bucket of a cost.
+    void push(int c, int tile) {
+        if (buckets[c] == null) {
+            buckets[c] = new int[64];
+        } else if (bucketSize[c] == buckets[c].length) {
+            buckets[c] = Arrays.copyOf(buckets[c], bucketSize[c] * 2);
+        }
+        buckets[c][bucketSize[c]++] = tile;
+    }
+}
@@ -1,17 +1,29 @@
 package environment;
 
+import entity.Entity;
 import main.GamePanel;
+import main.RenderCache;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-
-// The Lighting class is responsible for creating and managing dynamic lighting effects,
-// including a darkness filter with a radial gradient centered on the player
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+// The Lighting class is responsible for creating and managing dynamic lighting effects.
+// The darkness filter is composed from every light on the screen: the player's equipped light, lights lying on the map
+// (e.g., a lantern) and flying projectiles (e.g., a fireball). Each light is a pre-rendered radial sprite per radius
+// that thins the darkness under it, and lights multiply where they overlap.
+// The lights are composed into a mask at 1/maskScale of the screen resolution, which is scaled up into the
+// screen-sized filter only when a light moved, appeared or went out. Otherwise drawing the lighting is a single blit.
+// In dungeons the light follows the walls instead: the LightGrid spreads every light over the tiles, and the filter
+// is the light of the tiles on the screen, one mask pixel per tile, scaled up the same way.
+// Outside, the filter fades in and out with the day-night cycle, which follows the simulated time: the darkness and
+// the tint of every tick of the cycle are looked up in a curve computed once.
 public class Lighting {
 
     GamePanel gp;                 // Reference to the game panel.
     BufferedImage darknessFilter; // Image overlay for the darkness effect.
-    public int dayCounter;        // Counter to track the progression of time during the day-night cycle.
     public float filterAlpha = 0; // Alpha value controlling the opacity of the darkness filter.
 
     // Constants representing the different states of the day-night cycle.
@@ -22,138 +34,427 @@ public class Lighting {
 
     public int dayState = day;    // Current state of the day-night cycle.
 
-    // Constructor creates the darkness filter with a radial gradient.
+    // Notified when the day-night cycle enters another state, so systems don't have to poll dayState.
+    public interface DayListener {
+        void dayStateChanged(int oldState, int newState);
+    }
+
+    final ArrayList<DayListener> dayListeners = new ArrayList<>();
+
+    // Length of each state of the day-night cycle in simulated nanoseconds (10 s of day and night, 16.7 s of dusk
+    // and dawn, as long as the former per-tick fades of 0.001 took at 60 ticks per second).
+    static final long second = 1000000000L;
+    public final long dayLength = 10 * second;
+    public final long duskLength = 50 * second / 3;
+    public final long nightLength = 10 * second;
+    public final long dawnLength = 50 * second / 3;
+    public final long cycleLength = dayLength + duskLength + nightLength + dawnLength;
+
+    // Simulated time elapsed since the start of the current cycle.
+    public long cycleTime;
+
+    // Darkness (alpha 0 to 255, top byte) and tint (RGB) of the darkness filter for every tick of the cycle.
+    final int[] dayCurve;
+
+    // Darkness level of the filter outside (0 to 255). filterAlpha only changes when it does.
+    int alphaLevel;
+
+    // Color of the darkness: dark blue at night and in dungeons, warmer at dusk and dawn.
+    static final int nightTint = 0x00001a;
+    int tint = nightTint;
+
+    // Screen pixels per pixel of the light mask.
+    public final int maskScale = 4;
+
+    // Darkness of the light mask, at 1/maskScale of the screen resolution.
+    BufferedImage mask;
+
+    // Light sprites by radius in mask pixels. Their alpha is the factor the darkness is multiplied by.
+    final HashMap<Integer, BufferedImage> lightSprites = new HashMap<>();
+
+    // Lights of the frame being drawn and of the current mask, as x, y, radius triples in mask pixels.
+    int[] lights = new int[3 * 16];
+    int lightCount;
+    int[] composedLights = new int[3 * 16];
+    int composedCount = -1;       // -1 until the first mask is composed.
+    float composedDarkness;       // Darkness the current mask was composed with.
+    int composedTint;             // Tint the current mask was composed with.
+
+    // Light of the tiles in dungeons, and whether it's used instead of the radial lights there.
+    public LightGrid lightGrid;
+    public boolean useLightGrid = true;
+
+    // Light grid version and camera position the current filter was composed with in a dungeon.
+    int composedGridVersion;
+    int composedCameraX;
+    int composedCameraY;
+
+    // Darkness of a tile by its light (0 to 255), following the gradient of a radial light from its edge to its center.
+    final float[] tileDarkness = new float[256];
+
+    // Scratch buffers of scaleMask and of the tile mask.
+    int[] maskPixels;
+    int[] tilePixels;
+    int[] columnIndex;
+    int[] columnWeight;
+    int[] filterRow;
+
+    // Constructor creates the darkness filter.
     public Lighting(GamePanel gp) {
         this.gp = gp;
+        darknessFilter = new BufferedImage(gp.screenWidth, gp.screenHeight, BufferedImage.TYPE_INT_ARGB);
+        int maskWidth = (gp.screenWidth + maskScale - 1) / maskScale;
+        int maskHeight = (gp.screenHeight + maskScale - 1) / maskScale;
+        mask = new BufferedImage(maskWidth, maskHeight, BufferedImage.TYPE_INT_ARGB);
+        lightGrid = new LightGrid(gp);
+        dayCurve = createDayCurve(gp.tickNanos);
+
+        // The light of a tile goes from 0 at a light's edge to 255 at its center.
+        for (int i = 0; i < tileDarkness.length; i++) {
+            tileDarkness[i] = gradientDarkness(1f - i / 255f);
+        }
+
         setLightSource(); // Initialize the light source.
     }
 
-    // The setLightSource method creates a buffered image with a radial gradient
-    // representing the current light source or darkness effect.
+    // The setLightSource method collects the lights on the screen and composes the darkness filter again.
     public void setLightSource() {
-        // Create a buffered image to serve as the darkness overlay.
-        darknessFilter = new BufferedImage(gp.screenWidth, gp.screenHeight, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2 = (Graphics2D) darknessFilter.getGraphics();
+        composedCount = -1;
+        updateFilter();
+    }
 
-        if (gp.player.currentLight == null) {
-            // If no light source, apply a uniform darkness overlay.
-            g2.setColor(new Color(0, 0, 0.1f, 0.90f));
-        } else {
-            // Calculate the center of the light circle.
-            int centerX = gp.player.screenX + (gp.tileSize) / 2;
-            int centerY = gp.player.screenY + (gp.tileSize) / 2;
-
-            // Define the color and transparency levels for the gradient.
-            Color[] color = new Color[12];
-            float[] fraction = new float[12];
-
-            // Gradation colors from transparent to opaque.
-            color[0] = new Color(0, 0, 0.1f, 0.1f); // Lightest edge.
-            color[1] = new Color(0, 0, 0.1f, 0.42f);
-            color[2] = new Color(0, 0, 0.1f, 0.52f);
-            color[3] = new Color(0, 0, 0.1f, 0.61f);
-            color[4] = new Color(0, 0, 0.1f, 0.69f);
-            color[5] = new Color(0, 0, 0.1f, 0.76f);
-            color[6] = new Color(0, 0, 0.1f, 0.82f);
-            color[7] = new Color(0, 0, 0.1f, 0.87f);
-            color[8] = new Color(0, 0, 0.1f, 0.91f);
-            color[9] = new Color(0, 0, 0.1f, 0.94f);
-            color[10] = new Color(0, 0, 0.1f, 0.96f);
-            color[11] = new Color(0, 0, 0.1f, 0.98f); // Darkest center.
-
-            // Gradation stops for the radial gradient.
-            fraction[0] = 0f;
-            fraction[1] = 0.4f;
-            fraction[2] = 0.5f;
-            fraction[3] = 0.6f;
-            fraction[4] = 0.65f;
-            fraction[5] = 0.7f;
-            fraction[6] = 0.75f;
-            fraction[7] = 0.8f;
-            fraction[8] = 0.85f;
-            fraction[9] = 0.9f;
-            fraction[10] = 0.95f;
-            fraction[11] = 1f;
-
-            // Create a radial gradient paint with the defined settings.
-            RadialGradientPaint gPaint = new RadialGradientPaint(centerX, centerY, gp.player.currentLight.lightRadius, fraction, color);
-
-            // Apply the gradient to the image.
-            g2.setPaint(gPaint);
-        }
-
-        // Fill the screen with the gradient.
-        g2.fillRect(0, 0, gp.screenWidth, gp.screenHeight);
-
-        g2.dispose(); // Release resources.
+    // Collects the lights on the screen and composes the darkness filter if they differ from the current one.
+    void updateFilter() {
+        // Without a light of its own, the player sees the night a little less dark.
+        float darkness = gp.player.currentLight == null ? 0.90f : 0.98f;
+
+        if (useLightGrid && gp.currentArea == gp.dungeon) {
+            updateTileFilter(darkness);
+            return;
+        }
+        int tint = gp.currentArea == gp.outside ? this.tint : nightTint;
+
+        lightCount = 0;
+
+        // The player's light, centered on the player.
+        if (gp.player.currentLight != null) {
+            addLight(gp.player.screenX + gp.tileSize / 2, gp.player.screenY + gp.tileSize / 2,
+                    gp.player.currentLight.lightRadius);
+        }
+
+        // Lights lying on the map and lights carried by projectiles.
+        addLights(gp.obj[gp.currentMap]);
+        addLights(gp.projectile[gp.currentMap]);
+
+        if (composedCount != lightCount || composedDarkness != darkness || composedTint != tint
+                || !Arrays.equals(lights, 0, lightCount * 3, composedLights, 0, lightCount * 3)) {
+            gp.profiler.start(gp.profiler.composeLights);
+            compose(darkness, tint);
+            gp.profiler.stop(gp.profiler.composeLights);
+
+            int[] swap = composedLights;
+            composedLights = lights;
+            lights = swap;
+            composedCount = lightCount;
+            composedDarkness = darkness;
+            composedTint = tint;
+        }
+    }
+
+    // Updates the light grid and composes the darkness filter from the light of the tiles on the screen
+    // if it changed or the camera moved.
+    void updateTileFilter(float darkness) {
+        lightGrid.update();
+
+        int cameraX = gp.player.worldX - gp.player.screenX;
+        int cameraY = gp.player.worldY - gp.player.screenY;
+        if (composedCount == -2 && composedGridVersion == lightGrid.version && composedDarkness == darkness
+                && composedCameraX == cameraX && composedCameraY == cameraY) {
+            return;
+        }
+
+        gp.profiler.start(gp.profiler.composeLights);
+        composeTiles(darkness, cameraX, cameraY);
+        gp.profiler.stop(gp.profiler.composeLights);
+
+        composedCount = -2; // The filter shows the tiles, the radial lights compose it again when they come back.
+        composedGridVersion = lightGrid.version;
+        composedDarkness = darkness;
+        composedCameraX = cameraX;
+        composedCameraY = cameraY;
+    }
+
+    // Fills the tile mask, one pixel per tile on the screen, and scales it up into the darkness filter.
+    void composeTiles(float darkness, int cameraX, int cameraY) {
+        int firstCol = Math.floorDiv(cameraX, gp.tileSize);
+        int firstRow = Math.floorDiv(cameraY, gp.tileSize);
+        int cols = gp.screenWidth / gp.tileSize + 2;
+        int rows = gp.screenHeight / gp.tileSize + 2;
+        if (tilePixels == null || tilePixels.length < cols * rows) {
+            tilePixels = new int[cols * rows];
+        }
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int col = firstCol + c;
+                int row = firstRow + r;
+                float alpha = darkness;
+                if (col >= 0 && row >= 0 && col < gp.maxWorldCol && row < gp.maxWorldRow) {
+                    alpha = Math.min(darkness, tileDarkness[lightGrid.getLight(col, row)]);
+                }
+                tilePixels[r * cols + c] = Math.round(alpha * 255) << 24 | nightTint;
+            }
+        }
+
+        scaleMask(tilePixels, cols, rows, gp.tileSize, cameraX - firstCol * gp.tileSize, cameraY - firstRow * gp.tileSize);
+    }
+
+    // Adds the lights of the entities of an array that are on or near the screen.
+    void addLights(Entity[] entities) {
+        for (Entity entity : entities) {
+            if (entity != null && entity.lightRadius > 0 && entity.alive) {
+                int screenX = entity.worldX - gp.player.worldX + gp.player.screenX + gp.tileSize / 2;
+                int screenY = entity.worldY - gp.player.worldY + gp.player.screenY + gp.tileSize / 2;
+                int radius = entity.lightRadius;
+                if (screenX + radius > 0 && screenX - radius < gp.screenWidth
+                        && screenY + radius > 0 && screenY - radius < gp.screenHeight) {
+                    addLight(screenX, screenY, radius);
+                }
+            }
+        }
+    }
+
+    // Adds a light in screen pixels to the lights of the frame.
+    void addLight(int screenX, int screenY, int radius) {
+        if (lightCount * 3 == lights.length) {
+            lights = Arrays.copyOf(lights, lights.length * 2);
+            composedLights = Arrays.copyOf(composedLights, lights.length);
+        }
+        lights[lightCount * 3] = Math.floorDiv(screenX, maskScale);
+        lights[lightCount * 3 + 1] = Math.floorDiv(screenY, maskScale);
+        lights[lightCount * 3 + 2] = Math.max(1, radius / maskScale);
+        lightCount++;
+    }
+
+    // Composes the lights into the mask and scales the mask up into the darkness filter.
+    void compose(float darkness, int tint) {
+        Graphics2D g2 = mask.createGraphics();
+        g2.setComposite(AlphaComposite.Src);
+        g2.setColor(RenderCache.color(tint >> 16, tint >> 8 & 0xff, tint & 0xff, Math.round(darkness * 255)));
+        g2.fillRect(0, 0, mask.getWidth(), mask.getHeight());
+
+        // Each light multiplies the darkness under it by its sprite's alpha.
+        g2.setComposite(AlphaComposite.DstIn);
+        for (int i = 0; i < lightCount; i++) {
+            int radius = lights[i * 3 + 2];
+            g2.drawImage(getLightSprite(radius), lights[i * 3] - radius, lights[i * 3 + 1] - radius, null);
+        }
+        g2.dispose();
+
+        maskPixels = (int[]) mask.getRaster().getDataElements(0, 0, mask.getWidth(), mask.getHeight(), maskPixels);
+        scaleMask(maskPixels, mask.getWidth(), mask.getHeight(), maskScale, 0, 0);
+    }
+
+    // Scales a mask up into the darkness filter with bilinear filtering: a mask pixel covers scale x scale screen
+    // pixels, and the mask's top left corner is offsetX, offsetY pixels left of and above the screen's.
+    // Java2D's bilinear scaling is slow without acceleration, but only the alpha differs between the mask's pixels,
+    // so the filter is interpolated here, one channel in 8-bit fixed point.
+    void scaleMask(int[] pixels, int maskWidth, int maskHeight, int scale, int offsetX, int offsetY) {
+        int width = darknessFilter.getWidth();
+        int height = darknessFilter.getHeight();
+        int rgb = pixels[0] & 0xffffff; // Only the alpha of the darkness differs between the pixels.
+
+        if (columnIndex == null) {
+            columnIndex = new int[width];
+            columnWeight = new int[width];
+            filterRow = new int[width];
+        }
+
+        // Mask column and weight of each filter column, sampling the mask at the center of the filter pixel.
+        for (int x = 0; x < width; x++) {
+            int fx = Math.max(0, (((x + offsetX) * 2 + 1) << 8) / (scale * 2) - 128);
+            columnIndex[x] = Math.min(maskWidth - 1, fx >> 8);
+            columnWeight[x] = columnIndex[x] == maskWidth - 1 ? 0 : fx & 255;
+        }
+
+        for (int y = 0; y < height; y++) {
+            int fy = Math.max(0, (((y + offsetY) * 2 + 1) << 8) / (scale * 2) - 128);
+            int top = Math.min(maskHeight - 1, fy >> 8) * maskWidth;
+            int bottom = Math.min(maskHeight - 1, (fy >> 8) + 1) * maskWidth;
+            int wy = fy & 255;
+
+            for (int x = 0; x < width; x++) {
+                int col = columnIndex[x];
+                int wx = columnWeight[x];
+                int next = Math.min(col + 1, maskWidth - 1);
+                int alphaTop = (pixels[top + col] >>> 24) * (256 - wx) + (pixels[top + next] >>> 24) * wx;
+                int alphaBottom = (pixels[bottom + col] >>> 24) * (256 - wx) + (pixels[bottom + next] >>> 24) * wx;
+                int alpha = (alphaTop * (256 - wy) + alphaBottom * wy) >>> 16;
+                filterRow[x] = alpha << 24 | rgb;
+            }
+            darknessFilter.getRaster().setDataElements(0, y, width, 1, filterRow);
+        }
+    }
+
+    // Darkness of the gradation of a light from its center to its edge, and the distances of the gradation stops
+    // as fractions of the light's radius.
+    static final float[] gradientAlpha = {0.1f, 0.42f, 0.52f, 0.61f, 0.69f, 0.76f, 0.82f, 0.87f, 0.91f, 0.94f, 0.96f, 0.98f};
+    static final float[] gradientStops = {0f, 0.4f, 0.5f, 0.6f, 0.65f, 0.7f, 0.75f, 0.8f, 0.85f, 0.9f, 0.95f, 1f};
+
+    // Returns the darkness of the gradation at a distance from a light's center, as a fraction of its radius.
+    static float gradientDarkness(float distance) {
+        for (int i = 1; i < gradientStops.length; i++) {
+            if (distance <= gradientStops[i]) {
+                float t = (distance - gradientStops[i - 1]) / (gradientStops[i] - gradientStops[i - 1]);
+                return gradientAlpha[i - 1] + (gradientAlpha[i] - gradientAlpha[i - 1]) * t;
+            }
+        }
+        return gradientAlpha[gradientAlpha.length - 1];
+    }
+
+    // Returns the light sprite of a radius in mask pixels, rendering it on first use.
+    BufferedImage getLightSprite(int radius) {
+        BufferedImage sprite = lightSprites.get(radius);
+        if (sprite == null) {
+            sprite = createLightSprite(radius);
+            lightSprites.put(radius, sprite);
+        }
+        return sprite;
+    }
+
+    // Renders a light sprite: a radial gradient from the light's center to its radius whose alpha is the factor
+    // the darkness is multiplied by. Over the darkest darkness (0.98) it gives the gradient of the original single light.
+    static BufferedImage createLightSprite(int radius) {
+        Color[] color = new Color[gradientAlpha.length];
+        for (int i = 0; i < gradientAlpha.length; i++) {
+            color[i] = new Color(0, 0, 0, gradientAlpha[i] / 0.98f);
+        }
+
+        BufferedImage sprite = new BufferedImage(radius * 2, radius * 2, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = sprite.createGraphics();
+        g2.setPaint(new RadialGradientPaint(radius, radius, radius, gradientStops, color));
+        g2.fillRect(0, 0, radius * 2, radius * 2);
+        g2.dispose();
+        return sprite;
     }
 
     // Resets the day-night cycle to its initial state.
     public void resetDay() {
-        dayState = day;          // Set the current day-night cycle phase to "day."
-        dayCounter = 0;          // Reset the day counter to the start of the cycle.
+        cycleTime = 0;           // Go back to the start of the cycle, the start of the day.
+        alphaLevel = 0;
         filterAlpha = 0f;        // Clear any darkness effect by setting opacity to 0.
+        setDayState(day);
     }
 
     // The update method checks if the player's light source has changed
-    // and updates the lighting effect accordingly.
+    // and advances the day-night cycle by one tick.
     public void update() {
         if (gp.player.lightUpdated) {
             setLightSource();            // Refresh the lighting effect.
             gp.player.lightUpdated = false;
         }
 
-        // Handle transitions between different day states.
-        if (dayState == day) {
-            dayCounter++;
+        cycleTime = (cycleTime + gp.tickNanos) % cycleLength;
 
-            if (dayCounter > 600) {      // Transition to dusk after 600 ticks.
-                dayState = dusk;
-                dayCounter = 0;
-            }
+        // Look the darkness and tint of this time up, changing filterAlpha only when the level changed.
+        int entry = dayCurve[(int) Math.min(dayCurve.length - 1, cycleTime / gp.tickNanos)];
+        if (entry >>> 24 != alphaLevel) {
+            alphaLevel = entry >>> 24;
+            filterAlpha = alphaLevel / 255f;
         }
+        tint = entry & 0xffffff;
+
+        // Enter the state the cycle is in.
+        if (cycleTime < dayLength) {
+            setDayState(day);
+        } else if (cycleTime < dayLength + duskLength) {
+            setDayState(dusk);
+        } else if (cycleTime < dayLength + duskLength + nightLength) {
+            setDayState(night);
+        } else {
+            setDayState(dawn);
+        }
+    }
 
-        if (dayState == dusk) {
-            filterAlpha += 0.001f;       // Gradually darken the screen during dusk.
+    // Adds a listener notified when the day-night cycle enters another state.
+    public void addDayListener(DayListener listener) {
+        dayListeners.add(listener);
+    }
+
+    // Removes a listener added with addDayListener.
+    public void removeDayListener(DayListener listener) {
+        dayListeners.remove(listener);
+    }
 
-            if (filterAlpha > 1f) {      // Once fully dark, transition to night.
-                filterAlpha = 1f;
-                dayState = night;
+    // Changes the state of the day-night cycle, notifying the listeners if it's another one.
+    void setDayState(int state) {
+        if (state != dayState) {
+            int oldState = dayState;
+            dayState = state;
+            for (int i = 0; i < dayListeners.size(); i++) {
+                dayListeners.get(i).dayStateChanged(oldState, state);
             }
         }
+    }
 
-        if (dayState == night) {
-            dayCounter++;
-            if (dayCounter > 600) {     // After a prolonged night, transition to dawn.
-                dayState = dawn;
-                dayCounter = 0;
+    // Computes the darkness and tint of every tick of the cycle. The darkness eases in during dusk and out during dawn;
+    // the tint goes from an orange sunset to the night's blue, and from it to a pink sunrise.
+    int[] createDayCurve(long tickNanos) {
+        int[] curve = new int[(int) ((cycleLength + tickNanos - 1) / tickNanos)];
+        int sunset = 0x4a2410;
+        int sunrise = 0x3c1e32;
+
+        for (int i = 0; i < curve.length; i++) {
+            long time = i * tickNanos;
+            float alpha = 0f;
+            int color = nightTint;
+
+            if (time >= dayLength && time < dayLength + duskLength) {
+                float t = (float) (time - dayLength) / duskLength;
+                alpha = smoothStep(t);
+                color = mix(sunset, nightTint, t);
+            } else if (time >= dayLength + duskLength && time < dayLength + duskLength + nightLength) {
+                alpha = 1f;
+            } else if (time >= dayLength + duskLength + nightLength) {
+                float t = (float) (time - dayLength - duskLength - nightLength) / dawnLength;
+                alpha = 1f - smoothStep(t);
+                color = mix(nightTint, sunrise, t);
             }
+            curve[i] = Math.round(alpha * 255) << 24 | color;
         }
+        return curve;
+    }
 
-        if (dayState == dawn) {
-            filterAlpha -= 0.001f;       // Gradually brighten the screen during dawn.
+    // Eases a fraction from 0 to 1 in and out.
+    static float smoothStep(float t) {
+        return t * t * (3 - 2 * t);
+    }
 
-            if (filterAlpha < 0f) {      // Once fully bright, transition to day.
-                filterAlpha = 0f;
-                dayState = day;
-            }
-        }
+    // Mixes two RGB colors, t = 0 giving the first one and t = 1 the second one.
+    static int mix(int from, int to, float t) {
+        int r = Math.round((from >> 16) + ((to >> 16) - (from >> 16)) * t);
+        int g = Math.round((from >> 8 & 0xff) + ((to >> 8 & 0xff) - (from >> 8 & 0xff)) * t);
+        int b = Math.round((from & 0xff) + ((to & 0xff) - (from & 0xff)) * t);
+        return r << 16 | g << 8 | b;
     }
 
     // Draw the darkness filter on the screen.
     public void draw(Graphics2D g2) {
         // If the player is in the outside area, apply the darkness overlay with the specified transparency.
         if (gp.currentArea == gp.outside) {
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, filterAlpha));
+            g2.setComposite(RenderCache.alpha(filterAlpha));
         }
 
-        // Draw the darkness filter for areas that require it (outside or dungeon).
-        if (gp.currentArea == gp.outside || gp.currentArea == gp.dungeon) {
+        // Draw the darkness filter for areas that require it (outside or dungeon), composing it again if the lights
+        // on the screen changed. In the daylight outside the filter is invisible, and neither composed nor drawn.
+        boolean visible = gp.currentArea == gp.dungeon || gp.currentArea == gp.outside && filterAlpha > 0.5f / 255;
+        if (visible) {
+            updateFilter();
             g2.drawImage(darknessFilter, 0, 0, null);
         }
 
         // Reset the alpha composite to full opacity for subsequent drawings.
-        g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f));
+        g2.setComposite(RenderCache.alpha(1f));
 
         // Display the current day state (Day, Dusk, Night, or Dawn) on the screen.
         String situation = ""; // Holds the string representation of the current day state.
@@ -170,7 +471,7 @@ public class Lighting {
         g2.setColor(Color.white);
 
         // Set font size to 50 for drawing the day state text.
-        g2.setFont(g2.getFont().deriveFont(50f));
+        g2.setFont(RenderCache.font(g2.getFont(), 50f));
 
         // Draw the current day state (e.g., Day, Night) at a specific position on the screen.
         g2.drawString(situation, 800, 500);
@@ -0,0 +1,178 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// The AssetLoader decodes the game's assets in parallel before the GamePanel is created, filling the process-wide
+// caches (SpriteCache, Sound) that the GamePanel's components then read instead of the disk.
+// Loading is a graph of named tasks run on a fork-join pool: a task starts as soon as the tasks it depends on
+// are done, and a task can split its work over the pool (e.g. one image per worker).
+public class AssetLoader {
+
+    // Notified on the loading thread of the task each time a task completes.
+    public interface Progress {
+        void loaded(int done, int total, String task);
+    }
+
+    // A task of the graph, waiting to be started by run().
+    private record Task(String name, Runnable work, String[] dependencies) {
+    }
+
+    final ForkJoinPool pool;
+    final LinkedHashMap<String, Task> tasks = new LinkedHashMap<>();
+    final AtomicInteger done = new AtomicInteger();
+    Progress progress = (done, total, task) -> {
+    };
+
+    // Milliseconds each task took, in completion order, for the startup report.
+    public final List<String> report = Collections.synchronizedList(new ArrayList<>());
+
+    // Constructor creates the pool the tasks run on, one worker per processor.
+    public AssetLoader() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    // Sets the callback notified as tasks complete.
+    public void setProgress(Progress progress) {
+        this.progress = progress;
+    }
+
+    // Adds a task that runs once all the named tasks are done. Dependencies must be added first,
+    // which keeps the graph free of cycles.
+    public void add(String name, Runnable work, String... dependencies) {
+        for (String dependency : dependencies) {
+            if (!tasks.containsKey(dependency)) {
+                throw new IllegalArgumentException("Task " + name + " depends on unknown task " + dependency);
+            }
+        }
+        if (tasks.putIfAbsent(name, new Task(name, work, dependencies)) != null) {
+            throw new IllegalArgumentException("Task " + name + " added twice");
+        }
+    }
+
+    // Runs every task and waits for all of them, rethrowing the first failure.
+    public void run() {
+        LinkedHashMap<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        int total = tasks.size();
+
+        for (Task task : tasks.values()) {
+            CompletableFuture<?>[] dependencies = new CompletableFuture<?>[task.dependencies.length];
+            for (int i = 0; i < dependencies.length; i++) {
+                dependencies[i] = futures.get(task.dependencies[i]);
+            }
+
+            futures.put(task.name, CompletableFuture.allOf(dependencies).thenRunAsync(() -> {
+                long start = System.nanoTime();
+                task.work.run();
+                report.add(String.format("%s %.1f ms", task.name, (System.nanoTime() - start) / 1e6));
+                progress.loaded(done.incrementAndGet(), total, task.name);
+            }, pool));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException r ? r : e;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Runs an action for every item, split over the pool's workers. Call it from a task.
+    public <T> void forEach(List<T> items, Consumer<T> action) {
+        items.parallelStream().forEach(action); // Runs on the pool of the calling task.
+    }
+
+    // Adds the tasks loading the game's assets: every sprite, the tile images listed in the tile data,
+    // and every sound.
+    public void addGameAssets() {
+        List<String> tileImages = Collections.synchronizedList(new ArrayList<>());
+
+        add("tile data", () -> tileImages.addAll(readTileImages()));
+        add("tile images", () -> forEach(tileImages, name -> SpriteCache.preload("/tiles/" + name)), "tile data");
+
+        // The entity sprites don't depend on anything, each folder is a task of its own.
+        for (String folder : new String[]{"player", "monster", "npc", "objects", "projectile", "tiles_interactive"}) {
+            add(folder + " sprites", () -> forEach(listResources("/" + folder, ".png"), SpriteCache::preload));
+        }
+
+        add("sounds", () -> forEach(listResources("/sound", ".wav"), Sound::preload));
+    }
+
+    // Reads the image file names of the tile data, which alternates image names and collision flags.
+    static List<String> readTileImages() {
+        List<String> names = new ArrayList<>();
+        try (InputStream is = AssetLoader.class.getResourceAsStream("/maps/tiledata.txt")) {
+            if (is == null) {
+                return names;
+            }
+            BufferedReader br = new BufferedReader(new InputStreamReader(is));
+            String line;
+            while ((line = br.readLine()) != null) {
+                names.add(line);
+                br.readLine(); // Skip the collision flag.
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return names;
+    }
+
+    // Lists the resources of a folder with the given extension, as resource paths ("/monster/orc_up_1.png"),
+    // whether the game runs from a directory or from a jar.
+    static List<String> listResources(String folder, String extension) {
+        URL url = AssetLoader.class.getResource(folder);
+        if (url == null) {
+            return List.of();
+        }
+
+        try {
+            URI uri = url.toURI();
+            if (uri.getScheme().equals("jar")) {
+                FileSystem fs;
+                try {
+                    fs = FileSystems.newFileSystem(uri, Map.of());
+                } catch (FileSystemAlreadyExistsException e) {
+                    fs = FileSystems.getFileSystem(uri);
+                }
+                return list(fs.getPath(folder), folder, extension);
+            }
+            return list(Path.of(uri), folder, extension);
+        } catch (URISyntaxException | IOException e) {
+            throw new IllegalStateException("Cannot list the resources of " + folder, e);
+        }
+    }
+
+    // Lists the files of a directory with the given extension, as resource paths inside folder.
+    private static List<String> list(Path directory, String folder, String extension) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(extension))
+                    .sorted()
+                    .map(name -> folder + "/" + name)
+                    .toList();
+        }
+    }
+}
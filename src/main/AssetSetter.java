@@ -165,6 +165,7 @@ public class AssetSetter {
         // Set a Dry Tree at coordinates (10, 41) in the world.
         gp.iTile[mapNum][18] = new IT_DryTree(gp, 10, 41);
 
-
+        // Mark the placed destructible tiles in the map's interactive layer.
+        gp.tileM.rebuildInteractiveLayer(mapNum);
     }
 }
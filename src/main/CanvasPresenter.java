@@ -0,0 +1,94 @@
+package main;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.awt.image.VolatileImage;
+
+// CanvasPresenter is the hardware-accelerated presentation backend of the GamePanel.
+// The frame is rendered into a VolatileImage back buffer (kept in video memory when possible)
+// and flipped to the screen through a Canvas BufferStrategy, scaling to the full-screen size once during the blit.
+public class CanvasPresenter {
+
+    GamePanel gp; // Reference to the GamePanel, which provides the screen settings.
+
+    Canvas canvas;               // Heavyweight component the buffer strategy belongs to
+    BufferStrategy strategy;     // Page flipping or blitting strategy created on the canvas
+    VolatileImage backBuffer;    // Accelerated image the frame is rendered into
+    Graphics2D graphics;         // Graphics of the back buffer for the frame in progress
+
+    // Constructor creates the canvas. It still needs to be added to the panel and made visible before init().
+    public CanvasPresenter(GamePanel gp) {
+        this.gp = gp;
+
+        canvas = new Canvas();
+        canvas.setPreferredSize(new Dimension(gp.screenWidth, gp.screenHeight));
+        canvas.setBackground(Color.black);
+        canvas.setIgnoreRepaint(true); // The game loop paints the canvas itself.
+    }
+
+    // Creates the buffer strategy, trying triple then double buffering.
+    // Returns false if the canvas can't be accelerated, in which case the caller falls back to the software path.
+    public boolean init() {
+        if (!canvas.isDisplayable()) {
+            return false;
+        }
+
+        for (int buffers = 3; buffers >= 2; buffers--) {
+            try {
+                canvas.createBufferStrategy(buffers);
+                strategy = canvas.getBufferStrategy();
+                return strategy != null;
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                // Try again with fewer buffers.
+            }
+        }
+        return false;
+    }
+
+    // Returns the graphics to render the next frame with, recreating the back buffer if it was lost or is incompatible.
+    public Graphics2D beginFrame() {
+        GraphicsConfiguration gc = canvas.getGraphicsConfiguration();
+
+        if (backBuffer == null || backBuffer.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+            backBuffer = gc.createCompatibleVolatileImage(gp.screenWidth, gp.screenHeight);
+        }
+
+        graphics = backBuffer.createGraphics();
+        graphics.setBackground(Color.black);
+        return graphics;
+    }
+
+    // Finishes the frame: scales the back buffer to the canvas size and shows it.
+    public void endFrame() {
+        graphics.dispose();
+
+        int width = canvas.getWidth();
+        int height = canvas.getHeight();
+
+        // Repeat while the buffer strategy reports its contents were restored or lost, as required by BufferStrategy.
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                g.drawImage(backBuffer, 0, 0, width, height, null);
+                g.dispose();
+            } while (strategy.contentsRestored());
+
+            strategy.show();
+        } while (strategy.contentsLost());
+
+        // Flush the window system queue so the frame is displayed right away on platforms that buffer it.
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    // Releases the buffer strategy and the back buffer.
+    public void dispose() {
+        if (strategy != null) {
+            strategy.dispose();
+            strategy = null;
+        }
+        if (backBuffer != null) {
+            backBuffer.flush();
+            backBuffer = null;
+        }
+    }
+}
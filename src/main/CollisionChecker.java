@@ -1,5 +1,6 @@
 package main;
 
+import entity.Direction;
 import entity.Entity;
 
 // The CollisionChecker class is responsible for detecting if an entity has collided with a solid object (such as a wall or obstacle).
@@ -8,6 +9,15 @@ public class CollisionChecker {
     // Reference to the GamePanel, which provides the game environment (including the map and entities).
     GamePanel gp;
 
+    // Whether object and entity checks use the spatial grids (true) or scan every slot (false), for benchmarking.
+    public boolean useSpatialGrid = true;
+
+    // Spatial grids bucketing the slots of each entity array of the current map by tile cell.
+    SpatialGrid objGrid, npcGrid, monsterGrid, iTileGrid, projectileGrid;
+
+    // Reusable buffer for the slots returned by a grid query.
+    int[] candidates;
+
     // Constructor that initializes the CollisionChecker with the GamePanel.
     public CollisionChecker(GamePanel gp) {
         this.gp = gp;
@@ -28,17 +38,17 @@ public class CollisionChecker {
         int entityBottomRow = entityBottomWorldY / gp.tileSize;
 
 
-        String direction = entity.direction;
+        Direction direction = entity.direction;
         if (entity.knockBack) {
             direction = entity.knockBackDirection;
         }
 
         // Adjust the row or column based on the entity's direction and speed.
         switch (direction) {
-            case "up" -> entityTopRow = (entityTopWorldY - entity.speed) / gp.tileSize;
-            case "down" -> entityBottomRow = (entityBottomWorldY + entity.speed) / gp.tileSize;
-            case "left" -> entityLeftCol = (entityLeftWorldX - entity.speed) / gp.tileSize;
-            case "right" -> entityRightCol = (entityRightWorldX + entity.speed) / gp.tileSize;
+            case up -> entityTopRow = (entityTopWorldY - entity.speed) / gp.tileSize;
+            case down -> entityBottomRow = (entityBottomWorldY + entity.speed) / gp.tileSize;
+            case left -> entityLeftCol = (entityLeftWorldX - entity.speed) / gp.tileSize;
+            case right -> entityRightCol = (entityRightWorldX + entity.speed) / gp.tileSize;
         }
 
         // Check for collision in the updated tile positions.
@@ -51,12 +61,8 @@ public class CollisionChecker {
     // Helper method to check if a tile is collidable based on its column and row position in the tile map.
     // Returns true if the tile has collision properties, meaning it's a solid object.
     private boolean isTileCollidable(int col, int row) {
-        try {
-            int tileNum = gp.tileM.mapTileNum[gp.currentMap][col][row]; // Get the tile number from the tile map
-            return gp.tileM.tiles[tileNum].collision; // Return whether the tile has collision properties
-        } catch (ArrayIndexOutOfBoundsException e) {
-            return true; // Return true if out of bounds
-        }
+        // Read the cached collision layer of the current map, positions out of bounds are collidable.
+        return gp.tileM.isCollision(gp.currentMap, col, row);
     }
 
 
@@ -66,121 +72,170 @@ public class CollisionChecker {
         int index = 999; // Initialize index to 999, indicating no collision by default.
 
         // Use a temporal direction when it's in knockback state
-        String direction = entity.direction;
+        Direction direction = entity.direction;
         if (entity.knockBack) {
             direction = entity.knockBackDirection;
         }
 
-        // Loop through all objects in the game to check for potential collisions.
-        for (int i = 0; i < gp.obj[1].length; i++) {
-            if (gp.obj[gp.currentMap][i] != null) {
-                // Get entity's solid area position
-                entity.solidArea.x = entity.worldX + entity.solidArea.x;
-                entity.solidArea.y = entity.worldY + entity.solidArea.y;
-                // Get the object's solid area position
-                gp.obj[gp.currentMap][i].solidArea.x = gp.obj[gp.currentMap][i].worldX + gp.obj[gp.currentMap][i].solidArea.x;
-                gp.obj[gp.currentMap][i].solidArea.y = gp.obj[gp.currentMap][i].worldY + gp.obj[gp.currentMap][i].solidArea.y;
-
-                // Check collision based on the entity's movement direction.
-                switch (direction) {
-                    case "up" -> {
-                        entity.solidArea.y -= entity.speed; // Move entity's solid area up based on speed.
-                        if (entity.solidArea.intersects(gp.obj[gp.currentMap][i].solidArea)) { // Check for collision.
-                            if (gp.obj[gp.currentMap][i].collision) { // If the object has collision properties, mark entity as collided.
-                                entity.collisionOn = true;
-                            }
-                            if (player) { // If the entity is the player, return the object's index.
-                                index = i;
-                            }
-                        }
-                    }
-                    case "down" -> {
-                        entity.solidArea.y += entity.speed; // Move entity's solid area down based on speed.
-                        if (entity.solidArea.intersects(gp.obj[gp.currentMap][i].solidArea)) { // Check for collision.
-                            if (gp.obj[gp.currentMap][i].collision) { // If the object has collision properties, mark entity as collided.
-                                entity.collisionOn = true;
-                            }
-                            if (player) { // If the entity is the player, return the object's index.
-                                index = i;
-                            }
-                        }
-                    }
-                    case "left" -> {
-                        entity.solidArea.x -= entity.speed; // Move entity's solid area left based on speed.
-                        if (entity.solidArea.intersects(gp.obj[gp.currentMap][i].solidArea)) { // Check for collision.
-                            if (gp.obj[gp.currentMap][i].collision) { // If the object has collision properties, mark entity as collided.
-                                entity.collisionOn = true;
-                            }
-                            if (player) { // If the entity is the player, return the object's index.
-                                index = i;
-                            }
-                        }
-                    }
-                    case "right" -> {
-                        entity.solidArea.x += entity.speed; // Move entity's solid area right based on speed.
-                        if (entity.solidArea.intersects(gp.obj[gp.currentMap][i].solidArea)) { // Check for collision.
-                            if (gp.obj[gp.currentMap][i].collision) { // If the object has collision properties, mark entity as collided.
-                                entity.collisionOn = true;
-                            }
-                            if (player) { // If the entity is the player, return the object's index.
-                                index = i;
-                            }
-                        }
-                    }
+        if (useSpatialGrid && objGrid != null) {
+            // Only check the objects registered in the cells around the entity.
+            int count = queryGrid(objGrid, entity);
+            for (int c = 0; c < count; c++) {
+                int i = candidates[c];
+                if (gp.obj[gp.currentMap][i] != null && checkObjectSlot(entity, player, direction, i)) {
+                    index = (index == 999 || i > index) ? i : index; // Keep the highest index, like the linear scan.
+                }
+            }
+        } else {
+            // Loop through all objects in the game to check for potential collisions.
+            for (int i = 0; i < gp.obj[1].length; i++) {
+                if (gp.obj[gp.currentMap][i] != null && checkObjectSlot(entity, player, direction, i)) {
+                    index = i;
                 }
-
-                // Reset the solid areas back to their default positions after checking for collisions.
-                entity.solidArea.x = entity.solidAreaDefaultX;
-                entity.solidArea.y = entity.solidAreaDefaultY;
-                gp.obj[gp.currentMap][i].solidArea.x = gp.obj[gp.currentMap][i].solidAreaDefaultX;
-                gp.obj[gp.currentMap][i].solidArea.y = gp.obj[gp.currentMap][i].solidAreaDefaultY;
             }
         }
 
         return index; // Return the index of the object collided with, or 999 if no collision.
     }
 
+    // Checks the entity against a single object slot, marking the entity as collided if the object is solid.
+    // Returns true if the object should be reported to the caller (only for the player).
+    private boolean checkObjectSlot(Entity entity, boolean player, Direction direction, int i) {
+        boolean hit = false;
+
+        // Get entity's solid area position
+        entity.solidArea.x = entity.worldX + entity.solidArea.x;
+        entity.solidArea.y = entity.worldY + entity.solidArea.y;
+        // Get the object's solid area position
+        gp.obj[gp.currentMap][i].solidArea.x = gp.obj[gp.currentMap][i].worldX + gp.obj[gp.currentMap][i].solidArea.x;
+        gp.obj[gp.currentMap][i].solidArea.y = gp.obj[gp.currentMap][i].worldY + gp.obj[gp.currentMap][i].solidArea.y;
+
+        // Move entity's solid area based on its movement direction and speed.
+        entity.solidArea.x += direction.dx * entity.speed;
+        entity.solidArea.y += direction.dy * entity.speed;
+
+        if (entity.solidArea.intersects(gp.obj[gp.currentMap][i].solidArea)) { // Check for collision.
+            if (gp.obj[gp.currentMap][i].collision) { // If the object has collision properties, mark entity as collided.
+                entity.collisionOn = true;
+            }
+            hit = player; // If the entity is the player, return the object's index.
+        }
+
+        // Reset the solid areas back to their default positions after checking for collisions.
+        entity.solidArea.x = entity.solidAreaDefaultX;
+        entity.solidArea.y = entity.solidAreaDefaultY;
+        gp.obj[gp.currentMap][i].solidArea.x = gp.obj[gp.currentMap][i].solidAreaDefaultX;
+        gp.obj[gp.currentMap][i].solidArea.y = gp.obj[gp.currentMap][i].solidAreaDefaultY;
+
+        return hit;
+    }
+
     // Method to check if an entity has collided with any in-game entity.
     // It returns the index of the NPC the entity collides with, or 999 if no collision occurred.
     public int checkEntity(Entity entity, Entity[][] target) {
         int index = 999; // Initialize index to 999, indicating no collision by default.
 
-        // Loop through all NPCs in the game to check for potential collisions.
-        for (int i = 0; i < target[1].length; i++) {
-            if (target[gp.currentMap][i] != null) {
-                // Get entity's solid area position
-                entity.solidArea.x = entity.worldX + entity.solidArea.x;
-                entity.solidArea.y = entity.worldY + entity.solidArea.y;
-                // Get the target entity solid area position
-                target[gp.currentMap][i].solidArea.x = target[gp.currentMap][i].worldX + target[gp.currentMap][i].solidArea.x;
-                target[gp.currentMap][i].solidArea.y = target[gp.currentMap][i].worldY + target[gp.currentMap][i].solidArea.y;
-
-                // Check collision based on the entity's movement direction.
-                switch (entity.direction) {
-                    case "up" -> entity.solidArea.y -= entity.speed; // Move entity's solid area up based on speed.
-                    case "down" -> entity.solidArea.y += entity.speed; // Move entity's solid area down based on speed.
-                    case "left" -> entity.solidArea.x -= entity.speed; // Move entity's solid area left based on speed.
-                    case "right" ->
-                            entity.solidArea.x += entity.speed; // Move entity's solid area right based on speed.
+        SpatialGrid grid = useSpatialGrid ? gridFor(target) : null;
+
+        if (grid != null) {
+            // Only check the entities registered in the cells around the entity.
+            int count = queryGrid(grid, entity);
+            for (int c = 0; c < count; c++) {
+                int i = candidates[c];
+                if (target[gp.currentMap][i] != null && checkEntitySlot(entity, target, i)) {
+                    index = (index == 999 || i > index) ? i : index; // Keep the highest index, like the linear scan.
                 }
+            }
+        } else {
+            // Loop through all NPCs in the game to check for potential collisions.
+            for (int i = 0; i < target[1].length; i++) {
+                if (target[gp.currentMap][i] != null && checkEntitySlot(entity, target, i)) {
+                    index = i;
+                }
+            }
+        }
 
-                if (entity.solidArea.intersects(target[gp.currentMap][i].solidArea) && target[gp.currentMap][i] != entity) { // Check for collision.
-                    entity.collisionOn = true;
+        return index; // Return the index of the NPC collided with, or 999 if no collision.
+    }
 
-                    // return the target entity index.
-                    index = i;
+    // Checks the entity against a single target slot and returns true if they collide.
+    private boolean checkEntitySlot(Entity entity, Entity[][] target, int i) {
+        boolean hit = false;
 
-                }
+        // Get entity's solid area position
+        entity.solidArea.x = entity.worldX + entity.solidArea.x;
+        entity.solidArea.y = entity.worldY + entity.solidArea.y;
+        // Get the target entity solid area position
+        target[gp.currentMap][i].solidArea.x = target[gp.currentMap][i].worldX + target[gp.currentMap][i].solidArea.x;
+        target[gp.currentMap][i].solidArea.y = target[gp.currentMap][i].worldY + target[gp.currentMap][i].solidArea.y;
 
-                // Reset the solid areas back to their default positions after checking for collisions.
-                entity.solidArea.x = entity.solidAreaDefaultX;
-                entity.solidArea.y = entity.solidAreaDefaultY;
-                target[gp.currentMap][i].solidArea.x = target[gp.currentMap][i].solidAreaDefaultX;
-                target[gp.currentMap][i].solidArea.y = target[gp.currentMap][i].solidAreaDefaultY;
+        // Check collision based on the entity's movement direction.
+        entity.solidArea.x += entity.direction.dx * entity.speed;
+        entity.solidArea.y += entity.direction.dy * entity.speed;
+
+        if (entity.solidArea.intersects(target[gp.currentMap][i].solidArea) && target[gp.currentMap][i] != entity) { // Check for collision.
+            entity.collisionOn = true;
+            hit = true;
+        }
+
+        // Reset the solid areas back to their default positions after checking for collisions.
+        entity.solidArea.x = entity.solidAreaDefaultX;
+        entity.solidArea.y = entity.solidAreaDefaultY;
+        target[gp.currentMap][i].solidArea.x = target[gp.currentMap][i].solidAreaDefaultX;
+        target[gp.currentMap][i].solidArea.y = target[gp.currentMap][i].solidAreaDefaultY;
+
+        return hit;
+    }
+
+    // Creates the spatial grids on first use and synchronizes them with the entity arrays of the current map.
+    // Called once at the start of every tick.
+    public void updateSpatialGrids() {
+        if (objGrid == null) {
+            objGrid = new SpatialGrid(gp.tileSize, gp.maxWorldCol, gp.maxWorldRow, gp.obj[0].length);
+            npcGrid = new SpatialGrid(gp.tileSize, gp.maxWorldCol, gp.maxWorldRow, gp.npc[0].length);
+            monsterGrid = new SpatialGrid(gp.tileSize, gp.maxWorldCol, gp.maxWorldRow, gp.monster[0].length);
+            iTileGrid = new SpatialGrid(gp.tileSize, gp.maxWorldCol, gp.maxWorldRow, gp.iTile[0].length);
+            projectileGrid = new SpatialGrid(gp.tileSize, gp.maxWorldCol, gp.maxWorldRow, gp.projectile[0].length);
+            candidates = new int[Math.max(Math.max(gp.obj[0].length, gp.npc[0].length),
+                    Math.max(Math.max(gp.monster[0].length, gp.iTile[0].length), gp.projectile[0].length))];
+        }
+
+        objGrid.refresh(gp.obj[gp.currentMap], gp.currentMap);
+        npcGrid.refresh(gp.npc[gp.currentMap], gp.currentMap);
+        monsterGrid.refresh(gp.monster[gp.currentMap], gp.currentMap);
+        iTileGrid.refresh(gp.iTile[gp.currentMap], gp.currentMap);
+        projectileGrid.refresh(gp.projectile[gp.currentMap], gp.currentMap);
+    }
+
+    // Moves a slot of an entity array to the cell of its current position after it was updated.
+    public void updateGridSlot(Entity[][] target, int i) {
+        SpatialGrid grid = gridFor(target);
+        if (grid != null) {
+            if (target[gp.currentMap][i] != null) {
+                grid.move(i, target[gp.currentMap][i]);
+            } else {
+                grid.remove(i);
             }
         }
+    }
 
-        return index; // Return the index of the NPC collided with, or 999 if no collision.
+    // Returns the spatial grid tracking the given entity array, or null if it is not tracked.
+    private SpatialGrid gridFor(Entity[][] target) {
+        if (target == gp.obj) return objGrid;
+        if (target == gp.npc) return npcGrid;
+        if (target == gp.monster) return monsterGrid;
+        if (target == gp.iTile) return iTileGrid;
+        if (target == gp.projectile) return projectileGrid;
+        return null;
+    }
+
+    // Fills the candidates buffer with the slots near the entity's solid area, including its movement for this tick.
+    private int queryGrid(SpatialGrid grid, Entity entity) {
+        int left = entity.worldX + entity.solidArea.x - entity.speed;
+        int top = entity.worldY + entity.solidArea.y - entity.speed;
+        int right = entity.worldX + entity.solidArea.x + entity.solidArea.width + entity.speed;
+        int bottom = entity.worldY + entity.solidArea.y + entity.solidArea.height + entity.speed;
+        return grid.query(left, top, right, bottom, candidates);
     }
 
     // Method to check if an entity has collided with the player and return if contact
@@ -195,12 +250,8 @@ public class CollisionChecker {
         gp.player.solidArea.y = gp.player.worldY + gp.player.solidArea.y;
 
         // Check collision based on the entity's movement direction.
-        switch (entity.direction) {
-            case "up" -> entity.solidArea.y -= entity.speed; // Move entity's solid area up based on speed.
-            case "down" -> entity.solidArea.y += entity.speed; // Move entity's solid area down based on speed.
-            case "left" -> entity.solidArea.x -= entity.speed; // Move entity's solid area left based on speed.
-            case "right" -> entity.solidArea.x += entity.speed; // Move entity's solid area right based on speed.
-        }
+        entity.solidArea.x += entity.direction.dx * entity.speed;
+        entity.solidArea.y += entity.direction.dy * entity.speed;
 
         if (entity.solidArea.intersects(gp.player.solidArea)) { // Check for collision.
             entity.collisionOn = true;
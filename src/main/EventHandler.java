@@ -1,5 +1,6 @@
 package main;
 
+import entity.Direction;
 import entity.Entity;
 
 // Handles game events such as damage pits, healing pools, and teleport tiles.
@@ -65,9 +66,9 @@ public class EventHandler {
 
     // Initializes dialogues for event interactions (e.g., pits, healing pools).
     public void setDialogue() {
-        eventMaster.dialogues[0][0] = "You fall into a pit!";
+        eventMaster.setDialogueLine(0, 0, "You fall into a pit!");
 
-        eventMaster.dialogues[1][0] = "You drink the water.\nYour HP has been recovered.\n(The progress has been saved)";
+        eventMaster.setDialogueLine(1, 0, "You drink the water.\nYour HP has been recovered.\n(The progress has been saved)");
     }
 
     // Checks for player collisions with any events (damage pits, healing pools, or teleport tiles).
@@ -85,23 +86,29 @@ public class EventHandler {
 
         // Trigger event if player is in the designated area and facing the required direction.
         if (canTouchEvent) {
-            if (hit(0, 27, 16, "right")) damagePit(gp.dialogueState); // Damage pit event.
-            else if (hit(0, 23, 19, "any")) damagePit(gp.dialogueState); // Another damage pit event.
-            else if (hit(0, 23, 12, "up")) healingPool(gp.dialogueState); // Healing pool event.
-            else if (hit(0, 10, 40, "any")) teleport(1, 12, 13, gp.indoor); // Teleport event to merchant hunt.
-            else if (hit(1, 12, 13, "any"))
+            if (hit(0, 27, 16, Direction.right)) damagePit(gp.dialogueState); // Damage pit event.
+            else if (hit(0, 23, 19)) damagePit(gp.dialogueState); // Another damage pit event.
+            else if (hit(0, 23, 12, Direction.up)) healingPool(gp.dialogueState); // Healing pool event.
+            else if (hit(0, 10, 40)) teleport(1, 12, 13, gp.indoor); // Teleport event to merchant hunt.
+            else if (hit(1, 12, 13))
                 teleport(0, 10, 40, gp.outside); // Teleport event to outside merchant hut.
-            else if (hit(1, 12, 9, "up")) speak(gp.npc[1][0]); // Initiate dialogue with an NPC when facing up.
-            else if (hit(0, 12, 9, "any")) teleport(2, 9, 41, gp.dungeon); // Teleport event to dungeon.
-            else if (hit(2, 9, 41, "any")) teleport(0, 12, 9, gp.outside); // Teleport event to outside of dungeon.
-            else if (hit(2, 8, 7, "any")) teleport(3, 26, 41, gp.dungeon); // Teleport event to B2 dungeon.
-            else if (hit(3, 26, 41, "any")) teleport(2, 8, 7, gp.dungeon); // Teleport event to B1 dungeon.
+            else if (hit(1, 12, 9, Direction.up)) speak(gp.npc[1][0]); // Initiate dialogue with an NPC when facing up.
+            else if (hit(0, 12, 9)) teleport(2, 9, 41, gp.dungeon); // Teleport event to dungeon.
+            else if (hit(2, 9, 41)) teleport(0, 12, 9, gp.outside); // Teleport event to outside of dungeon.
+            else if (hit(2, 8, 7)) teleport(3, 26, 41, gp.dungeon); // Teleport event to B2 dungeon.
+            else if (hit(3, 26, 41)) teleport(2, 8, 7, gp.dungeon); // Teleport event to B1 dungeon.
 
         }
     }
 
+    // Checks if the player has collided with an event at a specific location, facing any direction.
+    public boolean hit(int map, int col, int row) {
+        return hit(map, col, row, null);
+    }
+
     // Checks if the player has collided with an event at a specific location and direction.
-    public boolean hit(int map, int col, int row, String reqDirection) {
+    // A null reqDirection accepts any direction.
+    public boolean hit(int map, int col, int row, Direction reqDirection) {
         boolean hit = false; // Indicates if an event collision has occurred.
 
 
@@ -117,7 +124,7 @@ public class EventHandler {
             // Checks if the player's collision area intersects with the event's area and if the event hasn't been done.
             if (gp.player.solidArea.intersects(eventRect[map][col][row]) && !eventRect[map][col][row].eventDone) {
                 // Checks if the player is facing the required direction or any direction is allowed.
-                if (gp.player.direction.contentEquals(reqDirection) || reqDirection.contentEquals("any")) {
+                if (reqDirection == null || gp.player.direction == reqDirection) {
                     hit = true; // Sets hit to true, indicating that an event collision occurred.
                     previousEventX = gp.player.worldX; // Updates the last event X position.
                     previousEventY = gp.player.worldY; // Updates the last event Y position.
@@ -0,0 +1,38 @@
+package main;
+
+import java.awt.*;
+import java.util.concurrent.locks.LockSupport;
+
+// The FramePacer waits precisely until a deadline without pinning a core:
+// it parks the thread for most of the wait and only spins for the last moment, where parking is not accurate enough.
+public class FramePacer {
+
+    // Time before the deadline at which the pacer stops parking and starts spinning, in nanoseconds.
+    public long spinThreshold = 1_000_000;
+
+    // Waits until System.nanoTime() reaches the deadline.
+    public void sleepUntil(long deadline) {
+        long remaining = deadline - System.nanoTime();
+
+        // Park for the bulk of the wait, leaving the spin threshold as a margin for the scheduler's wake-up delay.
+        while (remaining > spinThreshold) {
+            LockSupport.parkNanos(remaining - spinThreshold);
+            remaining = deadline - System.nanoTime();
+        }
+
+        // Spin for the last part of the wait to hit the deadline accurately.
+        while (deadline - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    // Returns the refresh rate of the default screen, or the fallback if it's unknown (e.g., headless).
+    public static int getDisplayRefreshRate(int fallback) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return fallback;
+        }
+
+        int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? fallback : rate;
+    }
+}
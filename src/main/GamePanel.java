@@ -1,8 +1,10 @@
 package main;
 
 import ai.PathFinder;
+import ai.PathService;
 import data.SaveLoad;
 import entity.Entity;
+import entity.ParticleSystem;
 import entity.Player;
 import environment.EnvironmentManager;
 import tile.Map;
@@ -13,13 +15,22 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
+import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 // GamePanel handles the main game loop, updates, and rendering.
 // It extends JPanel and implements Runnable to manage the game loop in a separate thread.
 public class GamePanel extends JPanel implements Runnable {
+    // Logger for the startup report.
+    private static final Logger logger = Logger.getLogger(GamePanel.class.getName());
+
     // SCREEN SETTINGS
     final int originalTileSize = 16;  // Base tile size in pixels (16x16).
     final int scale = 3;  // Scale factor to enlarge tiles.
@@ -39,9 +50,19 @@ public class GamePanel extends JPanel implements Runnable {
     int screenWidth2 = screenWidth;     // Sets initial full screen width
     int screenHeight2 = screenHeight;   // Sets initial full screen height
     BufferedImage tempScreen;           // Buffered image used for rendering in full screen
-    Graphics2D g2;                      // Graphics object for drawing on the buffered image
+    Graphics2D g2;                      // Graphics object the current frame is drawn with
+    Graphics2D tempScreenG2;            // Graphics object for drawing on the buffered image
     public boolean fullScreenOn = false; // Tracks the full-screen mode state; true if full screen is enabled, false otherwise
 
+    // Rendering backend settings
+    public final int renderSoftware = 0;     // Frame drawn into a BufferedImage and copied with getGraphics().
+    public final int renderAccelerated = 1;  // Frame drawn into a VolatileImage and flipped with a BufferStrategy.
+    public boolean useAcceleratedRendering = true; // Tries the accelerated backend at startup, falling back to software.
+    public int renderBackend = renderSoftware;     // Backend currently used to present frames.
+    public final double[] frameTimeMillis = new double[2]; // Smoothed draw + present time of each backend, indexed by backend.
+    boolean firstFrameDrawn = false; // Set once the first frame was drawn and the startup time reported.
+    CanvasPresenter presenter;          // Accelerated presentation backend, null when not available
+
     // WORLD SETTINGS
     // The total number of tile columns and rows in the entire game world.
     public int maxWorldCol;  // Columns of tiles in the world.
@@ -50,7 +71,24 @@ public class GamePanel extends JPanel implements Runnable {
     public int currentMap = 0;          // Tracks the index of the current map being displayed and interacted with.
 
     // Frames per second (FPS) target for smooth gameplay.
-    int FPS = 60;  // The game loop will aim to run at 60 frames per second.
+    int FPS = 60;  // The simulation runs at a fixed 60 ticks per second.
+    public final long tickNanos = 1000000000L / FPS; // Simulated time of one tick in nanoseconds.
+
+    // FRAME PACING
+    public final int frameUncapped = 0;   // Render as many frames as possible, interpolating between ticks.
+    public final int frameVSync = 1;      // Cap rendering to the display refresh rate.
+    public final int frameCapped = 2;     // Cap rendering to maxFPS.
+    public int frameMode = frameCapped;   // Current frame pacing mode.
+    public int maxFPS = 60;               // Render rate cap used by frameCapped.
+    int displayRefreshRate = FPS;         // Render rate used by frameVSync, looked up when the mode is set.
+    public boolean interpolateRendering = false; // Draw entities between their last two tick positions.
+    public double interpolation;          // Fraction of a tick elapsed since the last update, used for interpolation.
+    FramePacer pacer = new FramePacer();  // Sleeps between frames without busy spinning.
+
+    // Measured loop statistics, refreshed every second.
+    public int ticksPerSecond;            // Simulation ticks run during the last second.
+    public int framesPerSecond;           // Frames rendered during the last second.
+    public double cpuUsage;               // Share of one core used by the game thread during the last second (0 to 1).
 
     //SYSTEM
     // TileManager handles the loading and drawing of the tiles in the game world.
@@ -65,6 +103,22 @@ public class GamePanel extends JPanel implements Runnable {
     // Sound system to manage sound effects.
     Sound se = new Sound();
 
+    // Plays music and sound effects. Turned off by the headless runner, which has no audio device.
+    public boolean audioEnabled = true;
+
+    // Random number generator of the world, used by every random decision of the simulation (AI, drops).
+    // It's seeded when recording or replaying, so the same input plays the same game.
+    public Random random = new Random();
+
+    // Ticks simulated since the game started.
+    public long tick;
+
+    // Input fed to the KeyHandler at the start of every tick in place of the keyboard (replays, headless scripts).
+    public InputScript inputScript;
+
+    // Records the input of every tick when set.
+    public InputRecorder inputRecorder;
+
     // Manages collision detection between the player and game world objects.
     public CollisionChecker cChecker = new CollisionChecker(this);
 
@@ -83,11 +137,17 @@ public class GamePanel extends JPanel implements Runnable {
     // Calculates paths for entities, considering obstacles.
     public PathFinder pFinder = new PathFinder(this);
 
+    // Caches the paths of chasing entities and limits how many searches run per tick.
+    public PathService pService = new PathService(this);
+
+    // Measures the time spent in each part of the game loop and draws the statistics overlay.
+    public Profiler profiler = new Profiler(this);
+
     // Manages environmental effects, such as lighting, for enhancing the game's atmosphere.
     EnvironmentManager eManager = new EnvironmentManager(this);
 
     // Manages the display of the game map or minimap, providing a visual representation of the player's surroundings.
-    Map map = new Map(this);
+    public Map map = new Map(this);
 
     // Handles the saving and loading of game progress.
     SaveLoad saveLoad = new SaveLoad(this);
@@ -111,8 +171,8 @@ public class GamePanel extends JPanel implements Runnable {
     // Array to hold the game monsters.
     public Entity[][] monster = new Entity[maxMap][20];
 
-    // ArrayList to hold all particles.
-    public ArrayList<Entity> particleList = new ArrayList<>();
+    // Pool of all particles, updated and drawn in one pass.
+    public ParticleSystem particles = new ParticleSystem(this, 16384);
 
     // Array to hold the interactive tiles.
     public InteractiveTile[][] iTile = new InteractiveTile[maxMap][50];
@@ -123,6 +183,17 @@ public class GamePanel extends JPanel implements Runnable {
     // ArrayList to hold all entities for rendering in the correct order.
     ArrayList<Entity> entityList = new ArrayList<>();
 
+    // The entity list in draw order, and the keys it's sorted by: worldY in the high half, list index in the low half.
+    // Sorting primitive keys in place allocates nothing, where sorting the list with a comparator allocates a merge
+    // buffer every frame.
+    Entity[] drawList = new Entity[64];
+    long[] drawKeys = new long[64];
+
+    // Simulated positions of the entity list while it's drawn at interpolated positions.
+    int[] simulatedX = new int[64];
+    int[] simulatedY = new int[64];
+    Entity[] simulatedEntities = new Entity[64]; // Entity of each simulated position, as the list is sorted after interpolating.
+
     //GAME STATE
     // Tracks the current game state (e.g., playing, paused).
     public int gameState;
@@ -171,7 +242,7 @@ public class GamePanel extends JPanel implements Runnable {
         this.addKeyListener(keyH);
 
         // Add a focus listener to reset key states when focus is lost
-        this.addFocusListener(new FocusListener() {
+        FocusListener focusListener = new FocusListener() {
             @Override
             public void focusGained(FocusEvent e) {
                 // No action needed when focus is regained
@@ -179,13 +250,23 @@ public class GamePanel extends JPanel implements Runnable {
 
             @Override
             public void focusLost(FocusEvent e) {
-                // Reset all key states when the window loses focus
-                keyH.resetKeyStates();
+                // Reset all key states on the next tick when the window loses focus
+                keyH.queueEvent(KeyEvent.VK_UNDEFINED, false);
             }
-        });
+        };
+        this.addFocusListener(focusListener);
 
         // Make the panel focusable to allow it to receive key inputs.
         this.setFocusable(true);
+
+        // Add the canvas of the accelerated backend; it covers the panel and receives the key events instead.
+        if (useAcceleratedRendering && !GraphicsEnvironment.isHeadless()) {
+            presenter = new CanvasPresenter(this);
+            presenter.canvas.addKeyListener(keyH);
+            presenter.canvas.addFocusListener(focusListener);
+            this.setLayout(new BorderLayout());
+            this.add(presenter.canvas, BorderLayout.CENTER);
+        }
     }
 
     // Method to set up the initial game state, including placing objects
@@ -214,7 +295,16 @@ public class GamePanel extends JPanel implements Runnable {
         // Prepares a temporary screen for full-screen rendering
         tempScreen = new BufferedImage(screenWidth, screenHeight, BufferedImage.TYPE_INT_ARGB_PRE);
         // Creates a graphics context from the temporary screen
-        g2 = (Graphics2D) tempScreen.getGraphics();
+        tempScreenG2 = (Graphics2D) tempScreen.getGraphics();
+        g2 = tempScreenG2;
+
+        // Switch to the accelerated backend if its buffer strategy can be created, otherwise keep the software path.
+        if (presenter != null && presenter.init()) {
+            renderBackend = renderAccelerated;
+            presenter.canvas.requestFocus();
+        } else {
+            fallBackToSoftwareRendering();
+        }
 
         // If full-screen mode is enabled, it calls the method to switch to full screen.
         if (fullScreenOn) {
@@ -237,6 +327,8 @@ public class GamePanel extends JPanel implements Runnable {
         aSetter.setNPC();
         // Reset monsters to their initial positions.
         aSetter.setMonster();
+        // Remove the particles left around the player's previous position.
+        particles.clear();
 
         if (restart) {
             // Fully reset the player to initial default attributes.
@@ -247,6 +339,8 @@ public class GamePanel extends JPanel implements Runnable {
             aSetter.setInteractiveTile();
             // Reset the lighting system to the initial "day" state.
             eManager.lighting.resetDay();
+            // Hide the explored parts of the maps again.
+            map.resetExplored();
         }
     }
 
@@ -273,61 +367,148 @@ public class GamePanel extends JPanel implements Runnable {
     }
 
     // The run method contains the game loop that controls updates and rendering.
+    // Ticks run at a fixed rate of FPS per second, independently of how many frames are rendered,
+    // and the thread sleeps between frames according to the frame pacing mode instead of busy spinning.
     @Override
     public void run() {
-        // Calculate the time per frame in nanoseconds based on the desired FPS (1 second = 1,000,000,000 nanoseconds).
-        double drawInterval = (double) 1000000000 / FPS;
-        double delta = 0;  // Accumulates the time between frames to control the update rate.
+        // Calculate the time per tick in nanoseconds based on the desired FPS (1 second = 1,000,000,000 nanoseconds).
+        long tickInterval = tickNanos;
+        long accumulator = 0;  // Time not yet simulated by ticks.
         long lastTime = System.nanoTime();  // Get the initial time in nanoseconds.
-        long currentTime;  // Stores the current time on each loop iteration.
+        long nextFrame = lastTime;  // Deadline of the next frame when rendering is capped.
+
+        // Statistics of the current second.
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        boolean cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported();
+        long statsStart = lastTime;
+        long cpuStart = cpuTimeSupported ? threads.getCurrentThreadCpuTime() : 0;
+        int ticks = 0;
+        int frames = 0;
 
         // Game loop runs continuously while gameThread is not null.
         while (gameThread != null) {
-            // Update current time in nanoseconds.
-            currentTime = System.nanoTime();
+            long currentTime = System.nanoTime();
 
-            // Add the time since the last frame to delta.
-            delta += (currentTime - lastTime) / drawInterval;
-
-            // Update lastTime for the next iteration.
+            // Add the time since the last frame, clamped so a long stall doesn't trigger an endless catch-up.
+            accumulator += Math.min(currentTime - lastTime, tickInterval * 10);
             lastTime = currentTime;
 
-            // If enough time has passed to process a frame, update and render.
-            if (delta >= 1) {
-                // 1. UPDATE: update the game state (e.g., player movement).
+            // 1. UPDATE: run as many fixed ticks as the elapsed time requires.
+            while (accumulator >= tickInterval) {
+                profiler.start(profiler.update);
                 update();
+                profiler.stop(profiler.update);
+                accumulator -= tickInterval;
+                ticks++;
+            }
+            interpolation = (double) accumulator / tickInterval;
+
+            // 2. DRAW: draw everything and present it on the screen.
+            drawFrame();
+            frames++;
+
+            // 3. PACE: wait for the next frame, or for the next tick when nothing new would be drawn.
+            long frameInterval = getFrameInterval(tickInterval);
+            nextFrame += frameInterval;
+            long now = System.nanoTime();
+            if (nextFrame < now - frameInterval) {
+                nextFrame = now; // Fell behind by more than a frame, don't try to catch up.
+            }
+            pacer.sleepUntil(nextFrame);
+
+            // Refresh the statistics every second.
+            now = System.nanoTime();
+            if (now - statsStart >= 1000000000L) {
+                double seconds = (now - statsStart) / 1e9;
+                ticksPerSecond = (int) Math.round(ticks / seconds);
+                framesPerSecond = (int) Math.round(frames / seconds);
+                if (cpuTimeSupported) {
+                    long cpu = threads.getCurrentThreadCpuTime();
+                    cpuUsage = (cpu - cpuStart) / (double) (now - statsStart);
+                    cpuStart = cpu;
+                }
+                statsStart = now;
+                ticks = 0;
+                frames = 0;
+            }
+        }
+    }
 
-                // 2. DRAW: draw everything to the buffered image.
-                drawToTempScreen();
-                // Draw the buffered image to the screen.
-                drawToScreen();
-
-                // Decrement delta by 1 to indicate a frame has been processed.
-                delta--;
+    // Returns the minimum time between two frames for the current frame pacing mode, in nanoseconds.
+    private long getFrameInterval(long tickInterval) {
+        if (frameMode == frameVSync) {
+            return 1000000000L / displayRefreshRate;
+        }
+        if (frameMode == frameCapped) {
+            return 1000000000L / Math.max(1, maxFPS);
+        }
+        // Uncapped: without interpolation a frame between two ticks would look the same, so wait for the next tick.
+        return interpolateRendering ? 0 : tickInterval;
+    }
 
-            }
+    // Changes the frame pacing mode. Interpolation is turned on whenever frames aren't rendered once per tick.
+    public void setFrameMode(int mode, int maxFPS) {
+        this.frameMode = mode;
+        this.maxFPS = maxFPS;
+        if (mode == frameVSync) {
+            displayRefreshRate = FramePacer.getDisplayRefreshRate(FPS); // Asking the display every frame is slow.
         }
+        interpolateRendering = mode != frameCapped || maxFPS != FPS;
     }
 
     // The update method is responsible for advancing the game state, including all game objects and entities.
     public void update() {
+        // Apply the key events received since the last tick, or the scripted input of this tick in their place
+        // (the keyboard is ignored then, so it can't change the game behind a replay). Then record the input.
+        keyH.startTick();
+        if (inputScript != null) {
+            keyH.dropQueuedEvents();
+            inputScript.apply(tick, keyH);
+        } else {
+            keyH.applyQueuedEvents();
+        }
+        if (inputRecorder != null) {
+            inputRecorder.record(tick);
+        }
+        tick++;
+
         // Check if the game is currently in the play state to determine if updates should occur.
         if (gameState == playState) {
 
+            // Remember where every moving entity starts the tick, so rendering can interpolate from there.
+            savePreviousPositions();
+
+            // Synchronize the collision spatial grids with the entities of the current map.
+            cChecker.updateSpatialGrids();
+
+            // Start a new path service tick, running the searches queued during the previous ones.
+            pService.update();
+
             // Update the player's state.
             // This includes handling movement, interactions with objects, and any other player-specific logic.
+            profiler.start(profiler.updatePlayer);
             player.update();
+            profiler.stop(profiler.updatePlayer);
+
+            // Reveal the map around the player's new position.
+            map.update();
 
             // Update all NPCs (non-playable characters) present on the current map.
+            profiler.start(profiler.updateNpc);
             for (int i = 0; i < npc[1].length; i++) {
                 // Check if an NPC exists in the current slot for the active map.
                 if (npc[currentMap][i] != null) {
                     // Call the NPC's update method to handle its behavior for the current frame.
                     npc[currentMap][i].update();
+                    // Keep the NPC's collision grid cell in sync with its new position.
+                    cChecker.updateGridSlot(npc, i);
                 }
             }
 
+            profiler.stop(profiler.updateNpc);
+
             // Update all monsters (enemies) present on the current map.
+            profiler.start(profiler.updateMonster);
             for (int i = 0; i < monster[1].length; i++) {
                 // Ensure that the monster slot in the current map is occupied.
                 if (monster[currentMap][i] != null) {
@@ -335,6 +516,8 @@ public class GamePanel extends JPanel implements Runnable {
                     if (monster[currentMap][i].alive && !monster[currentMap][i].dying) {
                         // Call the monster's update method to manage its AI, movement, or attacks.
                         monster[currentMap][i].update();
+                        // Keep the monster's collision grid cell in sync with its new position.
+                        cChecker.updateGridSlot(monster, i);
                     }
 
                     // Handle cleanup for dead monsters.
@@ -347,13 +530,18 @@ public class GamePanel extends JPanel implements Runnable {
                 }
             }
 
+            profiler.stop(profiler.updateMonster);
+
             // Iterate over all active projectiles (e.g., bullets, magic spells) to update and clean them up.
+            profiler.start(profiler.updateProjectile);
             for (int i = 0; i < projectile[1].length; i++) {
                 // Check if the projectile exists in the list.
                 if (projectile[currentMap][i] != null) {
                     // Update the projectile if it is still active and moving.
                     if (projectile[currentMap][i].alive) {
                         projectile[currentMap][i].update();
+                        // Keep the projectile's collision grid cell in sync with its new position.
+                        cChecker.updateGridSlot(projectile, i);
                     }
 
                     // Remove projectiles that are no longer alive from the list to conserve resources.
@@ -363,23 +551,15 @@ public class GamePanel extends JPanel implements Runnable {
                 }
             }
 
-            // Iterate over all active particles (e.g., visual effects like smoke or sparks) for updates and cleanup.
-            for (int i = particleList.size() - 1; i >= 0; i--) {
-                // Ensure the particle exists before attempting to update it.
-                if (particleList.get(i) != null) {
-                    // Update the particle's animation or behavior if it is still active.
-                    if (particleList.get(i).alive) {
-                        particleList.get(i).update();
-                    }
+            profiler.stop(profiler.updateProjectile);
 
-                    // Remove particles that have finished their life cycle from the list.
-                    if (!particleList.get(i).alive) {
-                        particleList.remove(i);
-                    }
-                }
-            }
+            // Iterate over all active particles (e.g., visual effects like smoke or sparks) for updates and cleanup.
+            profiler.start(profiler.updateParticle);
+            particles.update(); // Also removes the particles that have finished their life cycle.
+            profiler.stop(profiler.updateParticle);
 
             // Update all interactive tiles (e.g., switches, traps) on the current map.
+            profiler.start(profiler.updateITile);
             for (int i = 0; i < iTile[1].length; i++) {
                 // Ensure the interactive tile exists in the current slot.
                 if (iTile[currentMap][i] != null) {
@@ -388,10 +568,27 @@ public class GamePanel extends JPanel implements Runnable {
                 }
             }
 
+            profiler.stop(profiler.updateITile);
+
             // Updates the environmental effects, such as lighting, to reflect the current game state.
+            profiler.start(profiler.updateEnvironment);
             eManager.update();
+            profiler.stop(profiler.updateEnvironment);
 
         } else {
+            // Dialogues, menus, transitions and sleeping advance with the ticks, even though only the UI shows them.
+            if (gameState == dialogueState) {
+                ui.updateDialogue(); // Type the dialogue and move to the next line on Enter.
+            } else if (gameState == optionsState) {
+                ui.updateOptions(); // Act on the selected option on Enter.
+            } else if (gameState == tradeState) {
+                ui.updateTrade(); // Buy, sell or leave on Enter.
+            } else if (gameState == transitionState) {
+                ui.updateTransition(); // Fade out and move the player to the new map.
+            } else if (gameState == sleepState) {
+                ui.updateSleep(); // Fade the lighting out and back in while the player sleeps.
+            }
+
             // If the game is not in the play state (e.g., paused, in a menu),
             // reset the states of all keys to prevent unwanted input.
             keyH.resetKeyStates();
@@ -404,12 +601,6 @@ public class GamePanel extends JPanel implements Runnable {
         // Clears the temporary screen for fresh rendering
         g2.clearRect(0, 0, screenWidth2, screenHeight2);
 
-        // Measure draw time if the checkDrawTime flag is enabled.
-        long drawStart = 0;
-        if (keyH.checkDrawTime) {
-            drawStart = System.nanoTime(); // Record the start time for drawing
-        }
-
         // Render the appropriate screen based on the current game state.
         if (gameState == titleState) {
             //Draw title screen
@@ -419,16 +610,6 @@ public class GamePanel extends JPanel implements Runnable {
             map.drawFullMapScreen(g2);
         } else {
 
-            // Draws the tiles onto the Graphics2D context.
-            tileM.draw(g2);
-
-            // Draws the interactive tiles.
-            for (int i = 0; i < iTile[1].length; i++) {
-                if (iTile[currentMap][i] != null) { // Check if the entity is not null.
-                    iTile[currentMap][i].draw(g2);  // Draws the interactive tiles onto the Graphics2D context.
-                }
-            }
-
             // Add entities to the list;
             entityList.add(player); // Add the player entity to the list.
 
@@ -456,53 +637,226 @@ public class GamePanel extends JPanel implements Runnable {
                 }
             }
 
-            for (Entity entity : particleList) { // Iterate through the array of particles entities.
-                if (entity != null) { // Check if the entity is not null.
-                    entityList.add(entity); // Add the non-null game particles to the entity list.
+            // Move the entities (and so the camera following the player) between their last two tick positions.
+            if (interpolateRendering) {
+                interpolatePositions();
+            }
+
+            // Draws the tiles onto the Graphics2D context.
+            profiler.start(profiler.drawTiles);
+            tileM.draw(g2);
+
+            // Draws the interactive tiles.
+            for (int i = 0; i < iTile[1].length; i++) {
+                if (iTile[currentMap][i] != null) { // Check if the entity is not null.
+                    iTile[currentMap][i].draw(g2);  // Draws the interactive tiles onto the Graphics2D context.
                 }
             }
+            profiler.stop(profiler.drawTiles);
 
             // Sort the entity list based on the worldY position for proper rendering order.
-            entityList.sort(Comparator.comparingInt(e -> e.worldY)); // Sort entities by their worldY position to determine rendering order.
+            profiler.start(profiler.sortEntities);
+            int drawCount = sortEntities(); // Sort entities by their worldY position to determine rendering order.
+            profiler.stop(profiler.sortEntities);
 
             // Draw entities;
-            for (Entity entity : entityList) { // Iterate through the sorted entity list.
-                entity.draw(g2); // Call the draw method on each entity to render it on the Graphics2D context.
+            profiler.start(profiler.drawEntities);
+            for (int i = 0; i < drawCount; i++) { // Iterate through the sorted entities.
+                drawList[i].draw(g2); // Call the draw method on each entity to render it on the Graphics2D context.
             }
+            Arrays.fill(drawList, 0, drawCount, null); // Don't keep removed entities alive until the next frame.
 
-            // Clear the entity list to prepare for the next frame's rendering.
-            entityList.clear();
+            // Draw the particles over the entities.
+            particles.draw(g2);
+            profiler.stop(profiler.drawEntities);
 
             // Draws environmental effects.
+            profiler.start(profiler.drawLighting);
             eManager.draw(g2);
+            profiler.stop(profiler.drawLighting);
 
             // Draws minimap
+            profiler.start(profiler.drawMiniMap);
             map.drawMiniMap(g2);
+            profiler.stop(profiler.drawMiniMap);
 
             // Draw the UI elements (key count, messages, game over screen) using the Graphics2D context.
+            profiler.start(profiler.drawUI);
             ui.draw(g2);
+            profiler.stop(profiler.drawUI);
 
-            // Calculate and display the time taken to render the graphics if checkDrawTime is enabled.
-            if (keyH.checkDrawTime) {
-                long drawEnd = System.nanoTime(); // Record the end time for drawing
-                long passed = drawEnd - drawStart; // Calculate the time difference
-                g2.setColor(Color.white);
-                g2.drawString("Draw Time: " + passed + " ns", 10, 400); // Display draw time on the screen
-                System.out.println("Draw Time: " + passed + " ns"); // Log draw time to the console for further analysis
+            // Put the entities back at their simulated positions.
+            if (interpolateRendering) {
+                restorePositions();
+            }
+
+            // Clear the entity list to prepare for the next frame's rendering.
+            entityList.clear();
+
+            // Draw the profiler statistics if the overlay is enabled.
+            profiler.draw(g2);
+        }
+    }
+
+    // Stores the position of every entity that can move at the start of a tick.
+    private void savePreviousPositions() {
+        player.prevWorldX = player.worldX;
+        player.prevWorldY = player.worldY;
+        savePreviousPositions(npc[currentMap]);
+        savePreviousPositions(monster[currentMap]);
+        savePreviousPositions(projectile[currentMap]);
+    }
+
+    // Stores the position of every entity of an array at the start of a tick.
+    private void savePreviousPositions(Entity[] entities) {
+        for (Entity entity : entities) {
+            if (entity != null) {
+                entity.prevWorldX = entity.worldX;
+                entity.prevWorldY = entity.worldY;
             }
         }
     }
 
+    // Fills drawList with the entities of the entity list sorted by worldY, keeping the list order between equal worldY
+    // like a stable sort would. Returns the number of entities.
+    private int sortEntities() {
+        int count = entityList.size();
+        if (drawKeys.length < count) {
+            drawKeys = new long[count * 2];
+            drawList = new Entity[count * 2];
+        }
+
+        for (int i = 0; i < count; i++) {
+            drawKeys[i] = (long) entityList.get(i).worldY << 32 | i;
+        }
+        Arrays.sort(drawKeys, 0, count);
+        for (int i = 0; i < count; i++) {
+            drawList[i] = entityList.get((int) drawKeys[i]);
+        }
+        return count;
+    }
+
+    // Moves every entity of the entity list to its interpolated position, keeping the simulated one to restore it.
+    private void interpolatePositions() {
+        if (simulatedX.length < entityList.size()) {
+            simulatedX = new int[entityList.size() * 2];
+            simulatedY = new int[entityList.size() * 2];
+            simulatedEntities = new Entity[entityList.size() * 2];
+        }
+
+        for (int i = 0; i < entityList.size(); i++) {
+            Entity entity = entityList.get(i);
+            simulatedEntities[i] = entity;
+            simulatedX[i] = entity.worldX;
+            simulatedY[i] = entity.worldY;
+
+            // Don't interpolate jumps such as teleports or freshly spawned entities.
+            if (Math.abs(entity.worldX - entity.prevWorldX) <= tileSize && Math.abs(entity.worldY - entity.prevWorldY) <= tileSize) {
+                entity.worldX = entity.prevWorldX + (int) Math.round((entity.worldX - entity.prevWorldX) * interpolation);
+                entity.worldY = entity.prevWorldY + (int) Math.round((entity.worldY - entity.prevWorldY) * interpolation);
+            }
+        }
+    }
+
+    // Puts every entity of the entity list back at its simulated position after drawing.
+    private void restorePositions() {
+        for (int i = 0; i < entityList.size(); i++) {
+            simulatedEntities[i].worldX = simulatedX[i];
+            simulatedEntities[i].worldY = simulatedY[i];
+            simulatedEntities[i] = null; // Don't keep removed entities alive until the next frame.
+        }
+    }
+
+    // Draws and presents one frame with the current rendering backend, recording how long it took.
+    public void drawFrame() {
+        long frameStart = System.nanoTime();
+        int backend = renderBackend;
+
+        // The accelerated backend hands out a new graphics object for its back buffer every frame.
+        g2 = backend == renderAccelerated ? presenter.beginFrame() : tempScreenG2;
+
+        // Draw everything to the back buffer.
+        profiler.start(profiler.frame);
+        drawToTempScreen();
+        // Draw the back buffer to the screen.
+        profiler.start(profiler.present);
+        drawToScreen();
+        profiler.stop(profiler.present);
+        profiler.stop(profiler.frame);
+        profiler.endFrame();
+
+        // Exponential moving average of the frame time, so both backends can be compared.
+        double millis = (System.nanoTime() - frameStart) / 1000000.0;
+        frameTimeMillis[backend] = frameTimeMillis[backend] == 0 ? millis : frameTimeMillis[backend] * 0.95 + millis * 0.05;
+
+        // Report how long the game took to show its first frame, when it was started from Main.
+        if (!firstFrameDrawn) {
+            firstFrameDrawn = true;
+            if (Main.startTime != 0) {
+                logger.log(Level.INFO, "First frame " + (System.nanoTime() - Main.startTime) / 1000000 + " ms after start");
+            }
+        }
+    }
+
+    // Stops using the accelerated backend and removes its canvas, so frames are drawn through the temporary screen.
+    // The backend switches right away on the calling thread; the canvas is removed later on the event dispatch thread,
+    // which owns the Swing components.
+    void fallBackToSoftwareRendering() {
+        renderBackend = renderSoftware;
+        g2 = tempScreenG2;
+
+        if (presenter != null) {
+            presenter.dispose();
+            Canvas canvas = presenter.canvas;
+            presenter = null;
+            SwingUtilities.invokeLater(() -> {
+                remove(canvas);
+                revalidate();
+                requestFocus();
+            });
+        }
+    }
+
     // Draws the contents of the temporary screen to the main display screen
     public void drawToScreen() {
+        if (renderBackend == renderAccelerated) {
+            try {
+                // Flip the back buffer, scaled to the size of the canvas (the full screen size in full-screen mode).
+                presenter.endFrame();
+                return;
+            } catch (IllegalStateException e) {
+                // The canvas lost its buffer strategy (e.g., it was removed), use the software path from now on.
+                fallBackToSoftwareRendering();
+                return;
+            }
+        }
+
         Graphics g = getGraphics();  // Gets the current graphics context
         // Draws the tempScreen image onto the display screen with specified dimensions
         g.drawImage(tempScreen, 0, 0, screenWidth2, screenHeight2, null);
         g.dispose();   // Disposes of graphics to free up resources
     }
 
+    // Seeds the world and starts recording the input of every tick. Must be called before the first tick.
+    // Paths are searched synchronously while recording, as background results arrive on timing dependent ticks.
+    public void startRecording(long seed) {
+        random.setSeed(seed);
+        pService.asyncSearch = false;
+        inputRecorder = new InputRecorder(this, seed);
+    }
+
+    // Seeds the world like the recording and replays its input in place of the keyboard. Must be called before the first tick.
+    public void startReplay(InputReplay replay) {
+        random.setSeed(replay.seed);
+        pService.asyncSearch = false;
+        inputScript = replay;
+    }
+
     // Plays background music using the specified sound index.
     public void playMusic(int i) {
+        if (!audioEnabled) {
+            return;
+        }
         music.setFile(i);
         music.play();
         music.loop(); // Loops the music indefinitely.
@@ -510,11 +864,17 @@ public class GamePanel extends JPanel implements Runnable {
 
     // Stops the currently playing background music.
     public void stopMusic() {
+        if (!audioEnabled) {
+            return;
+        }
         music.stop();
     }
 
     // Plays a one-time sound effect using the specified sound index.
     public void playSE(int i) {
+        if (!audioEnabled) {
+            return;
+        }
         se.setFile(i);
         se.play(); // Plays the sound effect without looping.
     }
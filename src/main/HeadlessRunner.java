@@ -0,0 +1,211 @@
+package main;
+
+import entity.Entity;
+import monster.MON_GreenSlime;
+import monster.MON_Orc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+// The HeadlessRunner runs the world simulation without a window, rendering or audio, as fast as the CPU allows.
+// Input comes from an InputScript instead of the keyboard. It reports the raw tick rate, which makes it usable
+// for throughput measurements and soak tests with large monster populations on machines without a display.
+//
+// Usage: java -Djava.awt.headless=true -cp <classes>:res main.HeadlessRunner [options]
+//   --seconds <n>    Run for n seconds (default 10)
+//   --ticks <n>      Stop after n ticks instead
+//   --monsters <n>   Add n monsters on the world map for a soak test (default 0)
+//   --seed <n>       Seed of the world's random generator and of the extra monsters' placement (default 1)
+//   --idle           Leave the player idle instead of walking it around
+//   --record <file>  Record the run's input so it can be replayed. The player isn't kept alive while recording.
+//   --replay <file>  Replay a recorded session instead of a script, until its end, and check it plays identically.
+//                    Pass the same --monsters and --seed as the recording.
+public class HeadlessRunner {
+
+    GamePanel gp;                    // Game being simulated
+
+    public boolean keepPlayerAlive = true; // Restores the player's life every tick so the run never ends on game over
+    public boolean dismissStates = true;   // Leaves the states only the UI can advance (dialogues, menus) right away
+
+    // Constructor creates the game in the play state with audio turned off.
+    public HeadlessRunner(InputScript input) {
+        gp = new GamePanel();
+        gp.audioEnabled = false;
+        gp.setupGame();
+        gp.gameState = gp.playState;
+        gp.inputScript = input;
+    }
+
+    // Constructor creates the game for a replay. The replay sets the game state and input, nothing is changed behind its back.
+    public HeadlessRunner(InputReplay replay) {
+        gp = new GamePanel();
+        gp.audioEnabled = false;
+        gp.setupGame();
+        gp.startReplay(replay);
+        keepPlayerAlive = false;
+        dismissStates = false;
+    }
+
+    // Adds count monsters at random walkable positions of the current map, growing the monster arrays as needed.
+    // Must be called before the first tick, which sizes the collision grids after the monster arrays.
+    public void spawnMonsters(int count, long seed) {
+        Random random = new Random(seed);
+
+        Entity[] current = gp.monster[gp.currentMap];
+        int used = 0;
+        while (used < current.length && current[used] != null) {
+            used++;
+        }
+
+        // Every map gets the same number of slots, as the game indexes the arrays by map.
+        int slots = Math.max(current.length, used + count);
+        for (int map = 0; map < gp.maxMap; map++) {
+            gp.monster[map] = Arrays.copyOf(gp.monster[map], slots);
+        }
+
+        for (int i = 0; i < count; i++) {
+            Entity monster = i % 4 == 3 ? new MON_Orc(gp) : new MON_GreenSlime(gp);
+
+            // Pick a random tile that isn't solid.
+            int col, row;
+            do {
+                col = random.nextInt(gp.maxWorldCol);
+                row = random.nextInt(gp.maxWorldRow);
+            } while (gp.tileM.isBlocked(gp.currentMap, col, row));
+
+            monster.worldX = col * gp.tileSize;
+            monster.worldY = row * gp.tileSize;
+            gp.monster[gp.currentMap][used + i] = monster;
+        }
+    }
+
+    // Simulates one tick.
+    public void step() {
+        // Dialogues and menus wait for keys the scripted runs don't press, so leave them right away.
+        // Transitions and sleeping advance on their own and are left to finish.
+        if (dismissStates && gp.gameState != gp.playState && gp.gameState != gp.transitionState && gp.gameState != gp.sleepState) {
+            gp.gameState = gp.playState;
+        }
+
+        if (keepPlayerAlive) {
+            gp.player.life = gp.player.maxLife;
+        }
+
+        gp.update();
+    }
+
+    // Counts the monsters alive on the current map.
+    public int countMonsters() {
+        int count = 0;
+        for (Entity monster : gp.monster[gp.currentMap]) {
+            if (monster != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        double seconds = 10;
+        long maxTicks = Long.MAX_VALUE;
+        int monsters = 0;
+        long seed = 1;
+        boolean idle = false;
+        Path recordFile = null;
+        Path replayFile = null;
+
+        // Read the command line options.
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seconds" -> seconds = Double.parseDouble(args[++i]);
+                case "--ticks" -> {
+                    maxTicks = Long.parseLong(args[++i]);
+                    seconds = Double.MAX_VALUE;
+                }
+                case "--monsters" -> monsters = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--idle" -> idle = true;
+                case "--record" -> recordFile = Path.of(args[++i]);
+                case "--replay" -> replayFile = Path.of(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        HeadlessRunner runner;
+        InputReplay replay = null;
+        if (replayFile != null) {
+            try {
+                replay = InputReplay.load(replayFile);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            runner = new HeadlessRunner(replay);
+            maxTicks = replay.totalTicks;
+            seconds = Double.MAX_VALUE;
+        } else {
+            runner = new HeadlessRunner(idle ? InputScript.idle() : InputScript.wander(90));
+            runner.gp.random.setSeed(seed);
+            if (recordFile != null) {
+                runner.gp.startRecording(seed);
+                runner.keepPlayerAlive = false; // Refilling the life isn't part of the input, a replay couldn't repeat it.
+            }
+        }
+        runner.spawnMonsters(monsters, seed);
+
+        System.out.println("Simulating with " + runner.countMonsters() + " monsters on map " + runner.gp.currentMap);
+
+        long start = System.nanoTime();
+        long end = seconds == Double.MAX_VALUE ? Long.MAX_VALUE : start + (long) (seconds * 1e9);
+        long lastReport = start;
+        long reportTick = 0;
+        long worstTick = 0;
+
+        // Run as many ticks as possible, reporting the rate every second.
+        while (runner.gp.tick < maxTicks) {
+            long tickStart = System.nanoTime();
+            runner.step();
+            long now = System.nanoTime();
+            worstTick = Math.max(worstTick, now - tickStart);
+
+            if (now - lastReport >= 1000000000L) {
+                System.out.printf("%6d ticks  %8.0f ticks/s  worst %.2f ms  %d monsters%n", runner.gp.tick,
+                        (runner.gp.tick - reportTick) / ((now - lastReport) / 1e9), worstTick / 1e6, runner.countMonsters());
+                reportTick = runner.gp.tick;
+                lastReport = now;
+                worstTick = 0;
+            }
+            if (now >= end) {
+                break;
+            }
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("Total: %d ticks in %.2f s, %.0f ticks/s (%.1fx real time), heap %d MB%n", runner.gp.tick, elapsed,
+                runner.gp.tick / elapsed, runner.gp.tick / elapsed / runner.gp.FPS, (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+        System.out.println("Sprites: " + SpriteCache.size() + " cached, " + SpriteCache.loads() + " decoded, "
+                + SpriteCache.hits() + " served from the cache");
+
+        if (recordFile != null) {
+            try {
+                runner.gp.inputRecorder.save(recordFile);
+                System.out.println("Recorded " + runner.gp.tick + " ticks to " + recordFile + " (" + Files.size(recordFile) + " bytes)");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        if (replay != null) {
+            System.out.println(replay.divergedAt < 0
+                    ? "Replay matched the recording (" + replay.checksumsVerified + " checksums verified)"
+                    : "Replay diverged from the recording at tick " + replay.divergedAt);
+        }
+
+        // The path workers are daemon threads, but stop them explicitly so the JVM exits right away.
+        runner.gp.pService.shutdown();
+    }
+}
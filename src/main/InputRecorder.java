@@ -0,0 +1,195 @@
+package main;
+
+import entity.Entity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// The InputRecorder captures the key events applied at the start of every tick, and the KeyHandler state and game
+// state they leave, into a compact binary log, which InputReplay feeds back to play the same session again tick for tick.
+// The key events replay what the keyboard does directly (menus, loading, equipping items), the key state replays
+// scripted input, and the game state the changes the UI makes while it's drawn.
+//
+// Log format (big-endian):
+//   int magic, short version, long seed
+//   then records, each starting with a type byte:
+//     RUN    varint ticks, byte keys, byte gameState   The same input held for a number of ticks
+//     KEYS   varint tick, varint count, count varints  Key events applied on a tick, as keyCode << 1 | pressed
+//     CHECK  varint tick, long checksum                World checksum at the start of a tick, to detect divergence
+//     END    varint ticks                              Total number of ticks recorded
+// Input rarely changes from one tick to the next, so a 10-minute session usually takes a few kilobytes.
+public class InputRecorder {
+
+    static final int magic = 0x494E5054; // "INPT"
+    static final short version = 2;
+    static final byte run = 1;
+    static final byte check = 2;
+    static final byte keyEvents = 3;
+    static final byte end = 0;
+
+    // Key bits of the keys byte.
+    static final int keyUp = 1;
+    static final int keyDown = 1 << 1;
+    static final int keyLeft = 1 << 2;
+    static final int keyRight = 1 << 3;
+    static final int keyEnter = 1 << 4;
+    static final int keyShot = 1 << 5;
+    static final int keySpace = 1 << 6;
+
+    GamePanel gp;                 // Game being recorded
+    public final long seed;       // Seed of the world's random generator
+    public int checksumInterval = 60; // Ticks between two world checksums
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    long ticks;                   // Ticks recorded
+    int runKeys = -1;             // Keys of the run in progress, -1 before the first tick
+    int runState;                 // Game state of the run in progress
+    int runLength;                // Ticks of the run in progress
+
+    // Constructor starts a log for a world seeded with the given seed.
+    public InputRecorder(GamePanel gp, long seed) {
+        this.gp = gp;
+        this.seed = seed;
+
+        try {
+            out.writeInt(magic);
+            out.writeShort(version);
+            out.writeLong(seed);
+        } catch (IOException e) {
+            throw new RuntimeException(e); // Writing to memory doesn't fail.
+        }
+    }
+
+    // Records the input of the tick about to run. Called by GamePanel.update() on the game thread.
+    public synchronized void record(long tick) {
+        int keys = encodeKeys(gp.keyH);
+
+        try {
+            if (tick % checksumInterval == 0) {
+                flushRun();
+                out.writeByte(check);
+                writeVarLong(out, tick);
+                out.writeLong(checksum(gp));
+            }
+
+            if (gp.keyH.tickEventCount > 0) {
+                out.writeByte(keyEvents);
+                writeVarLong(out, tick);
+                writeVarLong(out, gp.keyH.tickEventCount);
+                for (int i = 0; i < gp.keyH.tickEventCount; i++) {
+                    writeVarLong(out, gp.keyH.tickEvents[i]);
+                }
+            }
+
+            // Extend the run in progress, or start a new one if the input changed.
+            if (keys == runKeys && gp.gameState == runState) {
+                runLength++;
+            } else {
+                flushRun();
+                runKeys = keys;
+                runState = gp.gameState;
+                runLength = 1;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        ticks++;
+    }
+
+    // Writes the log to a file. Recording can continue afterwards, a later save writes the longer log.
+    public synchronized void save(Path file) throws IOException {
+        flushRun();
+        runKeys = -1; // The next tick starts a new run after the END record below.
+
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        bytes.writeTo(copy);
+        DataOutputStream tail = new DataOutputStream(copy);
+        tail.writeByte(end);
+        writeVarLong(tail, ticks);
+
+        Files.write(file, copy.toByteArray());
+    }
+
+    // Writes the run in progress.
+    private void flushRun() throws IOException {
+        if (runLength > 0) {
+            out.writeByte(run);
+            writeVarLong(out, runLength);
+            out.writeByte(runKeys);
+            out.writeByte(runState);
+            runLength = 0;
+        }
+    }
+
+    // Packs the pressed keys into a byte.
+    static int encodeKeys(KeyHandler keyH) {
+        int keys = 0;
+        if (keyH.upPressed) keys |= keyUp;
+        if (keyH.downPressed) keys |= keyDown;
+        if (keyH.leftPressed) keys |= keyLeft;
+        if (keyH.rightPressed) keys |= keyRight;
+        if (keyH.enterPressed) keys |= keyEnter;
+        if (keyH.shotKeyPressed) keys |= keyShot;
+        if (keyH.spacePressed) keys |= keySpace;
+        return keys;
+    }
+
+    // Sets the pressed keys from a byte written by encodeKeys.
+    static void decodeKeys(int keys, KeyHandler keyH) {
+        keyH.upPressed = (keys & keyUp) != 0;
+        keyH.downPressed = (keys & keyDown) != 0;
+        keyH.leftPressed = (keys & keyLeft) != 0;
+        keyH.rightPressed = (keys & keyRight) != 0;
+        keyH.enterPressed = (keys & keyEnter) != 0;
+        keyH.shotKeyPressed = (keys & keyShot) != 0;
+        keyH.spacePressed = (keys & keySpace) != 0;
+    }
+
+    // Hashes the state that diverges first when a replay doesn't play like the recording:
+    // the map, the player and every entity that moves on the current map.
+    static long checksum(GamePanel gp) {
+        long hash = 1125899906842597L;
+        hash = mix(hash, gp.currentMap);
+        hash = mix(hash, gp.player.worldX);
+        hash = mix(hash, gp.player.worldY);
+        hash = mix(hash, gp.player.life);
+        hash = mix(hash, gp.player.mana);
+        hash = mix(hash, gp.player.coin);
+        hash = mix(hash, gp.player.exp);
+        hash = mix(hash, gp.player.attack);
+        hash = mix(hash, gp.player.defense);
+        hash = mix(hash, gp.player.inventory.size());
+
+        for (Entity[][] entities : new Entity[][][]{gp.npc, gp.monster, gp.projectile}) {
+            for (Entity entity : entities[gp.currentMap]) {
+                if (entity == null) {
+                    hash = mix(hash, -1);
+                } else {
+                    hash = mix(hash, entity.worldX);
+                    hash = mix(hash, entity.worldY);
+                    hash = mix(hash, entity.life);
+                }
+            }
+        }
+        return hash;
+    }
+
+    // Combines a value into a hash.
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x100000001B3L;
+    }
+
+    // Writes a non-negative number in 7-bit groups, low group first, so small numbers take one byte.
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
@@ -0,0 +1,191 @@
+package main;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// InputReplay plays back a log written by InputRecorder: on every tick it applies the recorded key events through
+// the KeyHandler, sets the recorded keys and game state, and compares the world against the recorded checksums so
+// a replay that doesn't play like the recording is noticed.
+// Replaying requires a world seeded with the log's seed, which GamePanel.startReplay() takes care of, and the save
+// file the session loaded, if it loaded one.
+public class InputReplay implements InputScript {
+
+    private static final Logger logger = Logger.getLogger(InputReplay.class.getName());
+
+    public final long seed;        // Seed the recorded world was created with
+    public final long totalTicks;  // Number of ticks recorded
+
+    // Runs of identical input, in order.
+    final int[] runLengths;
+    final byte[] runKeys;
+    final byte[] runStates;
+    int runCount;
+
+    // Key events, by ascending tick: the events of eventTicks[i] are events[eventStarts[i]] to events[eventStarts[i + 1] - 1].
+    final long[] eventTicks;
+    final int[] eventStarts;
+    final int[] events;
+    int eventTickCount;
+
+    // Recorded checksums, by ascending tick.
+    final long[] checkTicks;
+    final long[] checksums;
+    int checkCount;
+
+    int runIndex;                  // Run being replayed
+    int runRemaining;              // Ticks left in that run
+    int checkIndex;                // Next checksum to verify
+    int eventIndex;                // Next tick with key events
+    public long divergedAt = -1;   // First tick whose checksum didn't match, -1 if none so far
+    public int checksumsVerified;  // Checksums that matched
+
+    // Constructor parses a log read from a file.
+    public InputReplay(byte[] log) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(log));
+
+        if (in.readInt() != InputRecorder.magic || in.readShort() != InputRecorder.version) {
+            throw new IOException("Not an input log of a supported version");
+        }
+        seed = in.readLong();
+
+        int[] lengths = new int[64];
+        byte[] keys = new byte[64];
+        byte[] states = new byte[64];
+        long[] ticks = new long[16];
+        long[] sums = new long[16];
+        long[] keyTicks = new long[16];
+        int[] keyStarts = new int[17];
+        int[] keyEvents = new int[64];
+        long total = -1;
+
+        // Read records until the END record.
+        while (total < 0) {
+            byte type = in.readByte();
+            if (type == InputRecorder.run) {
+                if (runCount == lengths.length) {
+                    lengths = Arrays.copyOf(lengths, runCount * 2);
+                    keys = Arrays.copyOf(keys, runCount * 2);
+                    states = Arrays.copyOf(states, runCount * 2);
+                }
+                lengths[runCount] = (int) readVarLong(in);
+                keys[runCount] = in.readByte();
+                states[runCount] = in.readByte();
+                runCount++;
+            } else if (type == InputRecorder.check) {
+                if (checkCount == ticks.length) {
+                    ticks = Arrays.copyOf(ticks, checkCount * 2);
+                    sums = Arrays.copyOf(sums, checkCount * 2);
+                }
+                ticks[checkCount] = readVarLong(in);
+                sums[checkCount] = in.readLong();
+                checkCount++;
+            } else if (type == InputRecorder.keyEvents) {
+                if (eventTickCount == keyTicks.length) {
+                    keyTicks = Arrays.copyOf(keyTicks, eventTickCount * 2);
+                    keyStarts = Arrays.copyOf(keyStarts, eventTickCount * 2 + 1);
+                }
+                keyTicks[eventTickCount] = readVarLong(in);
+                int count = (int) readVarLong(in);
+                int start = keyStarts[eventTickCount];
+                if (start + count > keyEvents.length) {
+                    keyEvents = Arrays.copyOf(keyEvents, Math.max(keyEvents.length * 2, start + count));
+                }
+                for (int i = 0; i < count; i++) {
+                    keyEvents[start + i] = (int) readVarLong(in);
+                }
+                eventTickCount++;
+                keyStarts[eventTickCount] = start + count;
+            } else if (type == InputRecorder.end) {
+                total = readVarLong(in);
+            } else {
+                throw new IOException("Corrupted input log, unknown record " + type);
+            }
+        }
+
+        runLengths = lengths;
+        runKeys = keys;
+        runStates = states;
+        checkTicks = ticks;
+        checksums = sums;
+        eventTicks = keyTicks;
+        eventStarts = keyStarts;
+        events = keyEvents;
+        totalTicks = total;
+        runRemaining = runCount > 0 ? runLengths[0] : 0;
+    }
+
+    // Reads a log from a file.
+    public static InputReplay load(Path file) throws IOException {
+        return new InputReplay(Files.readAllBytes(file));
+    }
+
+    // Sets the recorded input of a tick, after checking the world still matches the recording.
+    // Ticks must be replayed in order from 0; once the log is over the keys are released.
+    @Override
+    public void apply(long tick, KeyHandler keyH) {
+        GamePanel gp = keyH.gp;
+
+        // Verify the world against the checksum recorded at the start of this tick.
+        while (checkIndex < checkCount && checkTicks[checkIndex] <= tick) {
+            if (checkTicks[checkIndex] == tick) {
+                if (checksums[checkIndex] == InputRecorder.checksum(gp)) {
+                    checksumsVerified++;
+                } else if (divergedAt < 0) {
+                    divergedAt = tick;
+                    logger.log(Level.WARNING, "Replay diverged from the recording at tick " + tick);
+                }
+            }
+            checkIndex++;
+        }
+
+        if (isFinished()) {
+            keyH.resetKeyStates();
+            keyH.enterPressed = false;
+            return;
+        }
+
+        // Apply the key events of this tick as the keyboard did, then set the keys and game state they left.
+        while (eventIndex < eventTickCount && eventTicks[eventIndex] <= tick) {
+            if (eventTicks[eventIndex] == tick) {
+                for (int i = eventStarts[eventIndex]; i < eventStarts[eventIndex + 1]; i++) {
+                    keyH.applyEvent(events[i] >> 1, (events[i] & 1) != 0);
+                }
+            }
+            eventIndex++;
+        }
+
+        InputRecorder.decodeKeys(runKeys[runIndex], keyH);
+        gp.gameState = runStates[runIndex];
+
+        // Move to the next run once this one is used up.
+        runRemaining--;
+        if (runRemaining == 0) {
+            runIndex++;
+            runRemaining = runIndex < runCount ? runLengths[runIndex] : 0;
+        }
+    }
+
+    // Returns true once every recorded tick was replayed.
+    public boolean isFinished() {
+        return runIndex >= runCount;
+    }
+
+    // Reads a number written by InputRecorder.writeVarLong.
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
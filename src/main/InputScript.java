@@ -0,0 +1,31 @@
+package main;
+
+// An InputScript drives the KeyHandler in place of the keyboard, one tick at a time.
+// It's used by the HeadlessRunner to play the game without a window.
+public interface InputScript {
+
+    // Sets the key states the game will read during the given tick.
+    void apply(long tick, KeyHandler keyH);
+
+    // Script that presses nothing, leaving the player idle while the world runs.
+    static InputScript idle() {
+        return (tick, keyH) -> keyH.resetKeyStates();
+    }
+
+    // Script that walks the player in a square, switching direction every stepTicks ticks and attacking now and then.
+    static InputScript wander(int stepTicks) {
+        return (tick, keyH) -> {
+            keyH.resetKeyStates();
+
+            switch ((int) (tick / stepTicks % 4)) {
+                case 0 -> keyH.upPressed = true;
+                case 1 -> keyH.rightPressed = true;
+                case 2 -> keyH.downPressed = true;
+                case 3 -> keyH.leftPressed = true;
+            }
+
+            // Swing the weapon for a tick every second.
+            keyH.enterPressed = tick % 60 == 0;
+        };
+    }
+}
@@ -2,8 +2,11 @@ package main;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.Arrays;
 
 // The KeyHandler class implements KeyListener to handle keyboard events
+// Key events arrive on the event dispatch thread and are queued; GamePanel.update() applies them at the start of
+// the next tick, so every key changes the game on the game thread, on a tick the InputRecorder can log.
 public class KeyHandler implements KeyListener {
 
     // Reference to the GamePanel, which provides the game environment's state and properties.
@@ -13,8 +16,14 @@ public class KeyHandler implements KeyListener {
     // to determine if each key is currently pressed
     public boolean upPressed, downPressed, leftPressed, rightPressed, enterPressed, shotKeyPressed, spacePressed;
 
-    // Boolean to track if draw time debugging is enabled; if true, draw times are printed to the console and show in the UI.
-    public boolean checkDrawTime = false;
+    // Key events received since the last tick, as keyCode << 1 | pressed. Guarded by this.
+    private int[] queuedEvents = new int[16];
+    private int queuedCount;
+    private int[] drainedEvents = new int[16];  // Events being applied by the game thread
+
+    // Key events applied on the current tick, as keyCode << 1 | pressed, for the InputRecorder.
+    int[] tickEvents = new int[16];
+    int tickEventCount;
 
     public KeyHandler(GamePanel gp) {
         this.gp = gp;
@@ -29,15 +38,65 @@ public class KeyHandler implements KeyListener {
     // This method is called when a key is pressed
     @Override
     public void keyPressed(KeyEvent e) {
-        // Call the helper method to update key state to 'pressed'
-        setKeyState(e.getKeyCode(), true);
+        // Queue the key to update its state to 'pressed' on the next tick
+        queueEvent(e.getKeyCode(), true);
     }
 
     // This method is called when a key is released
     @Override
     public void keyReleased(KeyEvent e) {
-        // Call the helper method to update key state to 'released'
-        setKeyState(e.getKeyCode(), false);
+        // Queue the key to update its state to 'released' on the next tick
+        queueEvent(e.getKeyCode(), false);
+    }
+
+    // Queues a key event to be applied on the next tick. KeyEvent.VK_UNDEFINED released releases every key,
+    // used when the window loses focus.
+    public synchronized void queueEvent(int keyCode, boolean pressed) {
+        if (queuedCount == queuedEvents.length) {
+            queuedEvents = Arrays.copyOf(queuedEvents, queuedCount * 2);
+        }
+        queuedEvents[queuedCount++] = keyCode << 1 | (pressed ? 1 : 0);
+    }
+
+    // Starts the input of a new tick. Called by GamePanel.update() before any event is applied.
+    void startTick() {
+        tickEventCount = 0;
+    }
+
+    // Applies the key events queued since the last tick, in the order they were received.
+    void applyQueuedEvents() {
+        // Swap the queue with the array drained on the last tick, so new events can be queued while these are applied.
+        int count;
+        int[] events;
+        synchronized (this) {
+            count = queuedCount;
+            events = queuedEvents;
+            queuedEvents = drainedEvents;
+            queuedCount = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            applyEvent(events[i] >> 1, (events[i] & 1) != 0);
+        }
+        drainedEvents = events;
+    }
+
+    // Drops the key events queued since the last tick, so the keyboard can't change the game during a replay.
+    synchronized void dropQueuedEvents() {
+        queuedCount = 0;
+    }
+
+    // Applies a key event on the current tick, as the keyboard would, and remembers it for the InputRecorder.
+    public void applyEvent(int keyCode, boolean pressed) {
+        if (tickEventCount == tickEvents.length) {
+            tickEvents = Arrays.copyOf(tickEvents, tickEventCount * 2);
+        }
+        tickEvents[tickEventCount++] = keyCode << 1 | (pressed ? 1 : 0);
+
+        if (keyCode == KeyEvent.VK_UNDEFINED) {
+            resetKeyStates(); // The window lost the focus.
+        } else {
+            setKeyState(keyCode, pressed);
+        }
     }
 
     // Helper method to update the state of movement keys based on keyCode
@@ -100,7 +159,11 @@ public class KeyHandler implements KeyListener {
                         leftPressed = true;                             // Sets leftPressed to true for moving player left
                 case KeyEvent.VK_D ->
                         rightPressed = true;                             // Sets rightPressed to true for moving player right
-                case KeyEvent.VK_T -> checkDrawTime = !checkDrawTime;   // Toggles the display of frame rendering times
+                case KeyEvent.VK_T -> gp.profiler.showOverlay =
+                        !gp.profiler.showOverlay;                       // Toggles the profiler overlay
+                case KeyEvent.VK_Y -> gp.profiler.exportCsvInBackground(); // Writes the profiler samples to a CSV file
+                case KeyEvent.VK_G -> gp.cChecker.useSpatialGrid =
+                        !gp.cChecker.useSpatialGrid;                    // Toggles spatial grid collision checks against the linear scan
                 case KeyEvent.VK_P -> gp.gameState = gp.pauseState;     // Switches game to pause state if P is pressed
                 case KeyEvent.VK_ENTER ->
                         enterPressed = true;                            // Tracks Enter key for dialogue and selection actions
@@ -211,6 +274,7 @@ public class KeyHandler implements KeyListener {
             gp.music.volumeScale = newVolume;              // Apply new volume
             gp.music.checkVolume();                        // Re-apply volume settings
             gp.playSE(9);                                  // Play sound effect to confirm change
+            gp.config.saveConfig();                        // Save the new volume
         }
     }
 
@@ -220,6 +284,7 @@ public class KeyHandler implements KeyListener {
         if (newVolume >= 0 && newVolume <= 5) {            // Ensure volume remains within valid range (0-5)
             gp.se.volumeScale = newVolume;                 // Apply new volume
             gp.playSE(9);                                  // Play sound effect to confirm change
+            gp.config.saveConfig();                        // Save the new volume
         }
     }
 
@@ -1,13 +1,25 @@
 package main;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 // Main class that serves as the entry point for the game application
 public class Main {
 
+    // Logger for the asset loading progress and errors.
+    private static final Logger logger = Logger.getLogger(Main.class.getName());
+
     public static JFrame window;
 
+    // Time the game was started, for reporting the time to the first frame. 0 when not started from main.
+    public static long startTime;
+
     public static void main(String[] args) {
+        startTime = System.nanoTime();
+
         // Create a new JFrame to serve as the main window of the game
         window = new JFrame();
 
@@ -19,7 +31,10 @@ public class Main {
 
         // Set the title of the window
         window.setTitle("2D Adventure");
-        
+
+        // Decode every sprite and sound in parallel before the GamePanel needs them
+        loadAssets();
+
         // Create an instance of GamePanel, which contains the game logic and rendering
         GamePanel gamePanel = new GamePanel();
 
@@ -47,7 +62,44 @@ public class Main {
         // Call the setup method to place objects in the game world
         gamePanel.setupGame();
 
+        // --record <file> records the session's input, saved when the game exits; --replay <file> plays one back.
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--record")) {
+                Path file = Path.of(args[i + 1]);
+                gamePanel.startRecording(System.nanoTime());
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        gamePanel.inputRecorder.save(file);
+                    } catch (IOException e) {
+                        logger.log(Level.WARNING, "Could not save the input recording!", e);
+                    }
+                }));
+            } else if (args[i].equals("--replay")) {
+                try {
+                    gamePanel.startReplay(InputReplay.load(Path.of(args[i + 1])));
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Could not load the input recording!", e);
+                }
+            }
+        }
+
         // Start the game loop in the GamePanel
         gamePanel.startGameThread();
     }
+
+    // Preloads the game's assets into the caches, falling back to loading them on demand if anything fails.
+    static void loadAssets() {
+        long start = System.nanoTime();
+        AssetLoader loader = new AssetLoader();
+        loader.addGameAssets();
+        loader.setProgress((done, total, task) ->
+                logger.log(Level.INFO, "Loading assets " + done + "/" + total + ": " + task));
+        try {
+            loader.run();
+            logger.log(Level.INFO, "Assets loaded in " + (System.nanoTime() - start) / 1000000 + " ms ("
+                    + String.join(", ", loader.report) + ")");
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Could not preload the assets!", e);
+        }
+    }
 }
@@ -0,0 +1,231 @@
+package main;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// The Profiler measures named scopes of the game loop (subsystem updates, draw passes, present) with System.nanoTime().
+// Each scope records its samples into a ring buffer written only by the game thread and published with an ordered store,
+// so readers (the overlay, or the CSV export running on its own thread) never take a lock.
+// Once per second the profiler computes the p50/p95/p99 of every scope and the histogram of the second that ended.
+public class Profiler {
+
+    // Logger for the CSV export.
+    private static final Logger logger = Logger.getLogger(Profiler.class.getName());
+
+    GamePanel gp; // Reference to the GamePanel, which provides the loop statistics shown by the overlay.
+
+    // SCOPES
+    public final int update = 0;          // Whole simulation tick
+    public final int updatePlayer = 1;    // Player update
+    public final int updateNpc = 2;       // NPC updates
+    public final int updateMonster = 3;   // Monster updates, drops included
+    public final int updateProjectile = 4; // Projectile updates
+    public final int updateParticle = 5;  // Particle updates
+    public final int updateITile = 6;     // Interactive tile updates
+    public final int updateEnvironment = 7; // Environment (lighting) update
+    public final int drawTiles = 8;       // Ground tiles and interactive tiles
+    public final int sortEntities = 9;    // Entity list sort
+    public final int drawEntities = 10;   // Entity draws
+    public final int drawLighting = 11;   // Environment (lighting) draw
+    public final int drawMiniMap = 12;    // Minimap draw
+    public final int drawUI = 13;         // UI draw
+    public final int present = 14;        // Showing the frame on the screen
+    public final int frame = 15;          // Whole frame, draw and present
+    public final int composeLights = 16;  // Composing the light mask, part of the lighting draw when lights changed
+    public final String[] scopeNames = {"update", "player", "npc", "monster", "projectile", "particle", "iTile",
+            "eManager", "tiles", "sort", "entities", "lighting", "minimap", "ui", "present", "frame", "lightmask"};
+
+    public boolean enabled = true;        // Records samples. Costs two nanoTime() calls per scope.
+    public boolean showOverlay = false;   // Draws the statistics over the game screen.
+
+    // Histogram buckets are powers of two in microseconds: <1, <2, <4, ... and the last one holds everything above.
+    public final int histogramBuckets = 16;
+
+    final Scope[] scopes = new Scope[scopeNames.length];
+    long secondStart = System.nanoTime(); // Start of the second the histograms are currently counting.
+    final long[] sorted = new long[Scope.capacity]; // Scratch buffer to compute percentiles.
+
+    // Samples and statistics of one scope.
+    static class Scope {
+        static final int capacity = 1024;         // Samples kept in the ring buffer, a power of two.
+
+        final long[] samples = new long[capacity]; // Durations in nanoseconds, written only by the game thread.
+        final AtomicLong written = new AtomicLong(); // Samples written since startup, published after each write.
+        long startTime;                           // Start of the measurement in progress.
+
+        int[] histogram;                          // Samples of the current second per bucket.
+        int[] lastHistogram;                      // Samples of the last full second per bucket.
+        long p50, p95, p99;                       // Percentiles of the ring buffer, refreshed every second.
+
+        Scope(int buckets) {
+            histogram = new int[buckets];
+            lastHistogram = new int[buckets];
+        }
+    }
+
+    // Constructor creates an empty ring buffer for every scope.
+    public Profiler(GamePanel gp) {
+        this.gp = gp;
+
+        for (int i = 0; i < scopes.length; i++) {
+            scopes[i] = new Scope(histogramBuckets);
+        }
+    }
+
+    // Starts measuring a scope. Must be called on the game thread.
+    public void start(int scope) {
+        if (enabled) {
+            scopes[scope].startTime = System.nanoTime();
+        }
+    }
+
+    // Stops measuring a scope and records its duration. Must be called on the game thread.
+    public void stop(int scope) {
+        if (enabled) {
+            record(scope, System.nanoTime() - scopes[scope].startTime);
+        }
+    }
+
+    // Records a duration in nanoseconds for a scope.
+    private void record(int scope, long nanos) {
+        Scope s = scopes[scope];
+        long index = s.written.get();
+        s.samples[(int) (index & (Scope.capacity - 1))] = nanos;
+        s.written.lazySet(index + 1); // Ordered store: readers seeing the new count also see the sample.
+
+        s.histogram[bucketOf(nanos)]++;
+    }
+
+    // Returns the histogram bucket of a duration.
+    private int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = micros == 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, histogramBuckets - 1);
+    }
+
+    // Called once per frame on the game thread. Rolls the per-second statistics over when a second has passed.
+    public void endFrame() {
+        long now = System.nanoTime();
+        if (now - secondStart < 1000000000L) {
+            return;
+        }
+        secondStart = now;
+
+        for (Scope s : scopes) {
+            // The current histogram becomes the last second's one, and the old one is reused.
+            int[] finished = s.histogram;
+            s.histogram = s.lastHistogram;
+            s.lastHistogram = finished;
+            Arrays.fill(s.histogram, 0);
+
+            // Percentiles of the samples in the ring buffer.
+            int count = copySamples(s, sorted);
+            if (count == 0) {
+                s.p50 = s.p95 = s.p99 = 0;
+                continue;
+            }
+            Arrays.sort(sorted, 0, count);
+            s.p50 = sorted[(count - 1) * 50 / 100];
+            s.p95 = sorted[(count - 1) * 95 / 100];
+            s.p99 = sorted[(count - 1) * 99 / 100];
+        }
+    }
+
+    // Copies the samples held by a scope's ring buffer, oldest first, and returns how many were copied.
+    private int copySamples(Scope s, long[] out) {
+        long written = s.written.get();
+        int count = (int) Math.min(written, Scope.capacity);
+        for (int i = 0; i < count; i++) {
+            out[i] = s.samples[(int) ((written - count + i) & (Scope.capacity - 1))];
+        }
+        return count;
+    }
+
+    // Draws the statistics of every scope with the histogram of the last second, plus the loop rates.
+    public void draw(Graphics2D g2) {
+        if (!showOverlay) {
+            return;
+        }
+
+        int x = 10;
+        int y = 20;
+        int lineHeight = 18;
+        int barsX = x + 330;
+
+        g2.setFont(RenderCache.font(g2.getFont(), Font.PLAIN, 16F));
+        g2.setColor(RenderCache.color(0, 0, 0, 170));
+        g2.fillRect(x - 5, y - 15, barsX + histogramBuckets * 4 + 10 - x, lineHeight * (scopes.length + 2) + 5);
+
+        g2.setColor(Color.white);
+        g2.drawString("TPS " + gp.ticksPerSecond + "  FPS " + gp.framesPerSecond
+                + "  CPU " + Math.round(gp.cpuUsage * 100) + "%", x, y);
+        y += lineHeight;
+        g2.drawString("scope          p50     p95     p99 (us)", x, y);
+
+        for (int i = 0; i < scopes.length; i++) {
+            y += lineHeight;
+            Scope s = scopes[i];
+
+            g2.setColor(Color.white);
+            g2.drawString(scopeNames[i], x, y);
+            g2.drawString(micros(s.p50), x + 110, y);
+            g2.drawString(micros(s.p95), x + 180, y);
+            g2.drawString(micros(s.p99), x + 250, y);
+
+            // Histogram of the last second, bar heights relative to the fullest bucket.
+            int max = 1;
+            for (int count : s.lastHistogram) {
+                max = Math.max(max, count);
+            }
+            g2.setColor(Color.green);
+            for (int b = 0; b < histogramBuckets; b++) {
+                int height = s.lastHistogram[b] * (lineHeight - 4) / max;
+                g2.fillRect(barsX + b * 4, y - height, 3, height);
+            }
+        }
+    }
+
+    // Formats a duration in nanoseconds as microseconds with one decimal.
+    private String micros(long nanos) {
+        return String.valueOf(Math.round(nanos / 100.0) / 10.0);
+    }
+
+    // Writes the samples of every scope to a CSV file (scope,sample,nanos), oldest sample first.
+    // Safe to call from any thread: the ring buffers are only read.
+    public void exportCsv(Path file) throws IOException {
+        long[] buffer = new long[Scope.capacity];
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("scope,sample,nanos");
+            for (int i = 0; i < scopes.length; i++) {
+                int count = copySamples(scopes[i], buffer);
+                for (int j = 0; j < count; j++) {
+                    out.println(scopeNames[i] + "," + j + "," + buffer[j]);
+                }
+            }
+        }
+    }
+
+    // Exports the samples on a background thread, so writing the file doesn't stall a frame.
+    public void exportCsvInBackground() {
+        Path file = Path.of("profile-" + System.currentTimeMillis() + ".csv");
+
+        Thread thread = new Thread(() -> {
+            try {
+                exportCsv(file);
+                logger.log(Level.INFO, "Profile written to " + file.toAbsolutePath());
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to write the profile to " + file.toAbsolutePath(), e);
+            }
+        }, "profiler-export");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,159 @@
+package main;
+
+import java.awt.*;
+import java.util.Arrays;
+
+// RenderCache hands out the AlphaComposite, Color, Font and BasicStroke instances the draw code needs every frame,
+// creating each of them once. Drawing a frame then allocates nothing of its own, instead of a steady stream of
+// short-lived objects per entity and per frame that ends up as GC pauses.
+// Methods are synchronized because frames can be drawn on the game thread or on the Swing thread.
+public final class RenderCache {
+
+    // Number of alpha levels. Frames are drawn with 8 bits per channel, so 256 levels are all the levels there are.
+    private static final int alphaLevels = 256;
+
+    // SRC_OVER composites by alpha level.
+    private static final AlphaComposite[] composites = new AlphaComposite[alphaLevels];
+
+    static {
+        for (int i = 0; i < alphaLevels; i++) {
+            composites[i] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, i / (float) (alphaLevels - 1));
+        }
+    }
+
+    // Colors by ARGB value, in an open addressing table (linear probing).
+    private static int[] colorKeys = new int[64];
+    private static boolean[] colorUsed = new boolean[64];
+    private static Color[] colors = new Color[64];
+    private static int colorCount;
+
+    // Derived fonts, looked up by base font, style and size. UI code only derives a handful of them.
+    private static Font[] fontBases = new Font[16];
+    private static int[] fontStyles = new int[16];
+    private static float[] fontSizes = new float[16];
+    private static Font[] fonts = new Font[16];
+    private static int fontCount;
+
+    // Strokes by width in whole pixels.
+    private static final BasicStroke[] strokes = new BasicStroke[16];
+
+    private RenderCache() {
+    }
+
+    // Returns the SRC_OVER composite with the given opacity, rounded to the nearest of the 256 levels.
+    public static AlphaComposite alpha(float alpha) {
+        if (!(alpha > 0f)) { // Also catches NaN.
+            return composites[0];
+        }
+        if (alpha >= 1f) {
+            return composites[alphaLevels - 1];
+        }
+        return composites[Math.round(alpha * (alphaLevels - 1))];
+    }
+
+    // Returns the opaque color with the given components.
+    public static Color color(int r, int g, int b) {
+        return color(r, g, b, 255);
+    }
+
+    // Returns the color with the given components, each between 0 and 255.
+    public static synchronized Color color(int r, int g, int b, int a) {
+        int argb = ((a & 0xFF) << 24) | ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | (b & 0xFF);
+
+        int mask = colorKeys.length - 1;
+        int slot = slotOf(argb) & mask;
+        while (colorUsed[slot]) {
+            if (colorKeys[slot] == argb) {
+                return colors[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        Color color = new Color(r, g, b, a);
+        colorKeys[slot] = argb;
+        colorUsed[slot] = true;
+        colors[slot] = color;
+        colorCount++;
+
+        // Keep the table at most half full so lookups stay short.
+        if (colorCount * 2 > colorKeys.length) {
+            growColors();
+        }
+        return color;
+    }
+
+    // Returns base.deriveFont(style, size).
+    public static synchronized Font font(Font base, int style, float size) {
+        // Deriving the font already set, as g2.getFont() often is, returns it instead of growing a chain of copies.
+        if (base.getStyle() == style && base.getSize2D() == size) {
+            return base;
+        }
+
+        for (int i = 0; i < fontCount; i++) {
+            if (fontBases[i] == base && fontStyles[i] == style && fontSizes[i] == size) {
+                return fonts[i];
+            }
+        }
+
+        if (fontCount == fonts.length) {
+            fontBases = Arrays.copyOf(fontBases, fontCount * 2);
+            fontStyles = Arrays.copyOf(fontStyles, fontCount * 2);
+            fontSizes = Arrays.copyOf(fontSizes, fontCount * 2);
+            fonts = Arrays.copyOf(fonts, fontCount * 2);
+        }
+
+        Font font = base.deriveFont(style, size);
+        fontBases[fontCount] = base;
+        fontStyles[fontCount] = style;
+        fontSizes[fontCount] = size;
+        fonts[fontCount] = font;
+        fontCount++;
+        return font;
+    }
+
+    // Returns base.deriveFont(size), which keeps the style of the base font.
+    public static Font font(Font base, float size) {
+        return font(base, base.getStyle(), size);
+    }
+
+    // Returns a solid stroke of the given width in pixels.
+    public static synchronized BasicStroke stroke(int width) {
+        if (width < 0 || width >= strokes.length) {
+            return new BasicStroke(width);
+        }
+        if (strokes[width] == null) {
+            strokes[width] = new BasicStroke(width);
+        }
+        return strokes[width];
+    }
+
+    // Doubles the color table and rehashes every color into it.
+    private static void growColors() {
+        int[] oldKeys = colorKeys;
+        boolean[] oldUsed = colorUsed;
+        Color[] oldColors = colors;
+
+        colorKeys = new int[oldKeys.length * 2];
+        colorUsed = new boolean[oldKeys.length * 2];
+        colors = new Color[oldKeys.length * 2];
+
+        int mask = colorKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slotOf(oldKeys[i]) & mask;
+                while (colorUsed[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                colorKeys[slot] = oldKeys[i];
+                colorUsed[slot] = true;
+                colors[slot] = oldColors[i];
+            }
+        }
+    }
+
+    // Spreads the bits of an ARGB value so similar colors land in different slots.
+    private static int slotOf(int argb) {
+        int h = argb * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
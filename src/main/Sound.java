@@ -4,7 +4,11 @@ import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
 import javax.sound.sampled.FloatControl;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,6 +17,9 @@ public class Sound {
     // Logger to handle any errors related to sound loading and playback.
     private static final Logger logger = Logger.getLogger(Sound.class.getName());
 
+    // Contents of the sound files by URL, read once per process so playing a sound doesn't read the disk.
+    private static final ConcurrentHashMap<String, byte[]> soundData = new ConcurrentHashMap<>();
+
     // Clip object to hold and control sound playback.
     Clip clip;
 
@@ -91,8 +98,8 @@ public class Sound {
     // Sets the sound file to play by its index in the soundURL array.
     public void setFile(int i) {
         try {
-            // Open the audio input stream from the specified URL.
-            AudioInputStream ais = AudioSystem.getAudioInputStream(soundURL[i]);
+            // Open the audio input stream from the contents of the specified URL.
+            AudioInputStream ais = AudioSystem.getAudioInputStream(new ByteArrayInputStream(getData(soundURL[i])));
             Clip newClip = AudioSystem.getClip(); // Get a new Clip instance.
             newClip.open(ais); // Open the audio stream in the new Clip.
 
@@ -107,6 +114,30 @@ public class Sound {
         }
     }
 
+    // Reads a sound resource (e.g. "/sound/coin.wav") into memory ahead of time. Called by the AssetLoader at startup.
+    public static void preload(String path) {
+        URL url = Sound.class.getResource(path);
+        if (url != null) {
+            try {
+                getData(url);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Sound not found!", e);
+            }
+        }
+    }
+
+    // Returns the contents of a sound file, reading it the first time.
+    private static byte[] getData(URL url) throws IOException {
+        byte[] data = soundData.get(url.toString());
+        if (data == null) {
+            try (InputStream is = url.openStream()) {
+                data = is.readAllBytes();
+            }
+            soundData.putIfAbsent(url.toString(), data);
+        }
+        return data;
+    }
+
     // Starts the playback of the selected sound.
     public void play() {
         clip.start();
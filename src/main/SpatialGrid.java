@@ -0,0 +1,140 @@
+package main;
+
+import entity.Entity;
+
+import java.util.Arrays;
+
+// The SpatialGrid class is a uniform spatial hash over the tiles of one map.
+// It buckets the slots of an entity array (objects, NPCs, monsters, ...) by the tile cell of their solid area,
+// so collision checks only have to look at the cells around a moving entity instead of every slot.
+public class SpatialGrid {
+
+    final int cellSize; // Size of one cell in pixels (one tile).
+    final int cols;     // Number of cell columns.
+    final int rows;     // Number of cell rows.
+
+    // Buckets are stored as intrusive doubly linked lists of slot indices to avoid any allocation per move.
+    final int[] head;      // First slot stored in each cell, or -1 if the cell is empty.
+    final int[] next;      // Next slot in the same cell, or -1.
+    final int[] prev;      // Previous slot in the same cell, or -1.
+    final int[] slotCell;  // Cell each slot is registered in, or -1 if the slot is not registered.
+    final Entity[] occupant; // Entity registered for each slot, used to detect replaced slots.
+
+    int map = -1;       // Map the grid was last filled from.
+    int maxExtent;      // Largest solid area width or height registered, used to widen queries.
+
+    // Constructor creates an empty grid for a map of the given size and an entity array with the given number of slots.
+    public SpatialGrid(int cellSize, int cols, int rows, int slots) {
+        this.cellSize = cellSize;
+        this.cols = cols;
+        this.rows = rows;
+
+        head = new int[cols * rows];
+        next = new int[slots];
+        prev = new int[slots];
+        slotCell = new int[slots];
+        occupant = new Entity[slots];
+        clear();
+    }
+
+    // Removes every slot from the grid.
+    public void clear() {
+        Arrays.fill(head, -1);
+        Arrays.fill(next, -1);
+        Arrays.fill(prev, -1);
+        Arrays.fill(slotCell, -1);
+        Arrays.fill(occupant, null);
+        maxExtent = cellSize;
+    }
+
+    // Synchronizes the grid with the slots of a map, re-bucketing only the slots that changed.
+    // Called once per tick, so its cost is linear in the number of slots instead of quadratic.
+    public void refresh(Entity[] slots, int map) {
+        if (this.map != map) {
+            clear(); // The map changed, every registration is stale.
+            this.map = map;
+        }
+
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null) {
+                move(i, slots[i]);
+            } else if (slotCell[i] != -1) {
+                remove(i);
+            }
+        }
+    }
+
+    // Registers an entity in a slot or moves it to the cell of its current position.
+    public void move(int slot, Entity entity) {
+        int cell = cellOf(entity.worldX + entity.solidAreaDefaultX, entity.worldY + entity.solidAreaDefaultY);
+
+        occupant[slot] = entity;
+        maxExtent = Math.max(maxExtent, Math.max(entity.solidArea.width, entity.solidArea.height));
+
+        if (slotCell[slot] == cell) {
+            return; // Still in the same cell, nothing to do.
+        }
+
+        remove(slot);
+
+        // Push the slot at the front of the cell's list.
+        next[slot] = head[cell];
+        prev[slot] = -1;
+        if (head[cell] != -1) {
+            prev[head[cell]] = slot;
+        }
+        head[cell] = slot;
+        slotCell[slot] = cell;
+    }
+
+    // Removes a slot from the grid if it is registered.
+    public void remove(int slot) {
+        int cell = slotCell[slot];
+        if (cell == -1) {
+            return;
+        }
+
+        // Unlink the slot from its cell's list.
+        if (prev[slot] != -1) {
+            next[prev[slot]] = next[slot];
+        } else {
+            head[cell] = next[slot];
+        }
+        if (next[slot] != -1) {
+            prev[next[slot]] = prev[slot];
+        }
+
+        next[slot] = -1;
+        prev[slot] = -1;
+        slotCell[slot] = -1;
+        occupant[slot] = null;
+    }
+
+    // Returns the cell index for a world position, clamping positions outside the map to the border cells.
+    public int cellOf(int worldX, int worldY) {
+        int col = Math.max(0, Math.min(cols - 1, Math.floorDiv(worldX, cellSize)));
+        int row = Math.max(0, Math.min(rows - 1, Math.floorDiv(worldY, cellSize)));
+        return row * cols + col;
+    }
+
+    // Collects the slots whose solid area may intersect the given world rectangle into out.
+    // Only the cells around the rectangle are visited (3x3 for an entity that fits in one tile).
+    // Returns the number of slots written.
+    public int query(int left, int top, int right, int bottom, int[] out) {
+        // A slot is bucketed by the top-left corner of its solid area, so widen the range up and left by the largest extent.
+        int colStart = Math.max(0, Math.floorDiv(left - maxExtent, cellSize));
+        int rowStart = Math.max(0, Math.floorDiv(top - maxExtent, cellSize));
+        int colEnd = Math.min(cols - 1, Math.floorDiv(right, cellSize));
+        int rowEnd = Math.min(rows - 1, Math.floorDiv(bottom, cellSize));
+
+        int count = 0;
+        for (int row = rowStart; row <= rowEnd; row++) {
+            for (int col = colStart; col <= colEnd; col++) {
+                for (int slot = head[row * cols + col]; slot != -1; slot = next[slot]) {
+                    out[count++] = slot;
+                }
+            }
+        }
+        return count;
+    }
+}
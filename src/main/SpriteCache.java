@@ -0,0 +1,125 @@
+package main;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// SpriteCache decodes and scales every sprite once per process. Entities and tiles ask it for an image by resource path
+// and size, and get the same shared instance every time, so dropping a coin, spawning a slime or loading a save
+// never reads a PNG again once the image was used.
+// Shared images must be treated as read-only: nothing may draw into an image returned by get().
+public final class SpriteCache {
+
+    // Logger for logging errors during image loading.
+    private static final Logger logger = Logger.getLogger(SpriteCache.class.getName());
+
+    // Scaled images by "path@widthxheight".
+    private static final ConcurrentHashMap<String, BufferedImage> sprites = new ConcurrentHashMap<>();
+
+    // Decoded, unscaled images by path, filled by preload() so scaling them later doesn't read the disk.
+    private static final ConcurrentHashMap<String, BufferedImage> originals = new ConcurrentHashMap<>();
+
+    // Statistics, reported by the headless runner.
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static final AtomicInteger loads = new AtomicInteger();
+
+    private SpriteCache() {
+    }
+
+    // Returns the image of a resource (e.g. "/monster/greenslime_down_1.png") scaled to width x height,
+    // loading it on the first request. Returns null, like a failed load always did, if the image can't be read.
+    public static BufferedImage get(String path, int width, int height) {
+        String key = path + '@' + width + 'x' + height;
+
+        BufferedImage image = sprites.get(key);
+        if (image != null) {
+            hits.incrementAndGet();
+            return image;
+        }
+
+        image = load(path, width, height);
+        if (image == null) {
+            return null; // Not cached, so a missing image is reported on every request like before.
+        }
+
+        // Two threads may load the same sprite at once, both then use the one stored first.
+        BufferedImage stored = sprites.putIfAbsent(key, image);
+        return stored != null ? stored : image;
+    }
+
+    // Decodes a resource ahead of time, so the first get() of any size only has to scale it.
+    // Safe to call from several threads at once, which is what the AssetLoader does at startup.
+    public static void preload(String path) {
+        if (!originals.containsKey(path)) {
+            BufferedImage original = decode(path);
+            if (original != null) {
+                originals.putIfAbsent(path, original);
+            }
+        }
+    }
+
+    // Returns the number of distinct images cached.
+    public static int size() {
+        return sprites.size();
+    }
+
+    // Returns the number of requests answered from the cache.
+    public static int hits() {
+        return hits.get();
+    }
+
+    // Returns the number of images decoded from the resources.
+    public static int loads() {
+        return loads.get();
+    }
+
+    // Scales a resource, decoded earlier by preload() or now, into an image in the screen's native format.
+    private static BufferedImage load(String path, int width, int height) {
+        BufferedImage original = originals.get(path);
+        if (original == null) {
+            original = decode(path);
+            if (original == null) {
+                return null;
+            }
+        }
+
+        BufferedImage scaled = createImage(original, width, height);
+        Graphics2D g2 = scaled.createGraphics();
+        g2.drawImage(original, 0, 0, width, height, null);
+        g2.dispose();
+        return scaled;
+    }
+
+    // Decodes a resource, returning null if it can't be read.
+    private static BufferedImage decode(String path) {
+        try (InputStream is = SpriteCache.class.getResourceAsStream(path)) {
+            if (is == null) {
+                logger.log(Level.WARNING, "Image not found: " + path);
+                return null;
+            }
+            BufferedImage image = ImageIO.read(is);
+            loads.incrementAndGet();
+            return image;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to load image " + path, e);
+            return null;
+        }
+    }
+
+    // Creates the image a sprite is scaled into. With a screen, it's compatible with the screen's pixel format so Java2D
+    // can keep it in video memory and draw it without converting pixels; headless, it keeps the format of the original.
+    private static BufferedImage createImage(BufferedImage original, int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return gc.createCompatibleImage(width, height, original.getColorModel().getTransparency());
+        }
+        return new BufferedImage(width, height, original.getType());
+    }
+}
@@ -153,10 +153,8 @@ public class UI {
         } else if (gp.gameState == gp.tradeState) {
             // Draw the trade screen when the game is in trade state.
             drawTradeScreen();
-        } else if (gp.gameState == gp.sleepState) {
-            // Draw the sleep screen when the game is in sleep state.
-            drawSleepScreen();
         }
+        // The sleep state has no screen of its own: updateSleep() fades the lighting filter, drawn by the environment.
     }
 
     // Draws the player's life status on the screen using heart images.
@@ -215,7 +213,7 @@ public class UI {
     public void drawMessage() {
         int messageX = gp.tileSize; // X coordinate for message drawing
         int messageY = gp.tileSize * 4; // Y coordinate for message drawing
-        g2.setFont(g2.getFont().deriveFont(Font.BOLD, 32F)); // Set the font for the messages
+        g2.setFont(RenderCache.font(g2.getFont(), Font.BOLD, 32F)); // Set the font for the messages
 
         // List to keep track of indices of messages that need to be removed
         ArrayList<Integer> indicesToRemove = new ArrayList<>();
@@ -252,7 +250,7 @@ public class UI {
     // Renders the title screen UI elements, including game title, main character image, and menu options.
     public void drawTitleScreen() {
         // Sets font for the title text.
-        g2.setFont(g2.getFont().deriveFont(Font.BOLD, 96f));
+        g2.setFont(RenderCache.font(g2.getFont(), Font.BOLD, 96f));
         String text = "Blue Boy Adventure";
 
         // Calculates position to center the title text and adds a shadow effect.
@@ -270,7 +268,7 @@ public class UI {
         g2.drawImage(gp.player.left2, x, y, gp.tileSize * 2, gp.tileSize * 2, null);
 
         // Sets font for menu options.
-        g2.setFont(g2.getFont().deriveFont(Font.BOLD, 48F));
+        g2.setFont(RenderCache.font(g2.getFont(), Font.BOLD, 48F));
 
         // Draws "NEW GAME" option with selection indicator.
         text = "NEW GAME";
@@ -304,7 +302,7 @@ public class UI {
     // Draws the "PAUSED" message on the screen when the game is in the pause state.
     public void drawPauseScreen() {
         // Set the font size for the pause message.
-        g2.setFont(g2.getFont().deriveFont(Font.PLAIN, 80));
+        g2.setFont(RenderCache.font(g2.getFont(), Font.PLAIN, 80));
         String text = "PAUSED";
 
         // Calculate the x and y positions for centering the text.
@@ -315,7 +313,7 @@ public class UI {
         g2.drawString(text, x, y);
     }
 
-    // Displays the dialogue window and handles the logic for showing text to the player.
+    // Displays the dialogue window with the text typed so far by updateDialogue().
     public void drawDialogueScreen() {
         // Define dimensions and position for the dialogue window.
         int x = gp.tileSize * 3; // Left padding.
@@ -326,19 +324,27 @@ public class UI {
         drawSubWindow(x, y, width, height); // Draw the dialogue background.
 
 
-        g2.setFont(g2.getFont().deriveFont(Font.PLAIN, 32)); // Set font for text.
+        g2.setFont(RenderCache.font(g2.getFont(), Font.PLAIN, 32)); // Set font for text.
         x += gp.tileSize; // Adjust x for inner padding.
         y += gp.tileSize; // Adjust y for inner padding.
 
-        // Check if the current dialogue line exists.
-        if (npc.dialogues[npc.dialogueSet][npc.dialogueIndex] != null) {
-            // Convert the dialogue line to a character array for letter-by-letter display.
-            char[] characters = npc.dialogues[npc.dialogueSet][npc.dialogueIndex].toCharArray();
+        // Render each line of the current dialogue, splitting by line breaks.
+        for (String line : currentDialogue.split("\n")) {
+            g2.drawString(line, x, y); // Draw the line at the specified position.
+            y += 40; // Adjust y position for the next line.
+        }
+    }
 
-            if (charIndex < characters.length) {
+    // Advances the dialogue by one tick: types the next character of the current line, moves to the next line when
+    // Enter is pressed, and returns to the play state after the last line.
+    // Like updateTransition(), it runs in the game update, so the dialogue plays the same at any frame rate.
+    public void updateDialogue() {
+        // Check if the current dialogue line exists.
+        String currentLine = npc.getDialogueLine(npc.dialogueSet, npc.dialogueIndex);
+        if (currentLine != null) {
+            if (charIndex < currentLine.length()) {
                 gp.playSE(17); // Play a sound effect for dialogue typing.
-                String s = String.valueOf(characters[charIndex]); // Get the current character.
-                combinedText += s; // Append the character to the displayed text.
+                combinedText += currentLine.charAt(charIndex); // Append the current character to the displayed text.
                 currentDialogue = combinedText; // Update the displayed dialogue text.
                 charIndex++; // Move to the next character.
             }
@@ -358,12 +364,6 @@ public class UI {
                 gp.gameState = gp.playState; // Return to gameplay state after dialogue.
             }
         }
-
-        // Render each line of the current dialogue, splitting by line breaks.
-        for (String line : currentDialogue.split("\n")) {
-            g2.drawString(line, x, y); // Draw the line at the specified position.
-            y += 40; // Adjust y position for the next line.
-        }
     }
 
     // Draws the character screen displaying the player's stats, including health, mana, and abilities.
@@ -380,7 +380,7 @@ public class UI {
 
         // Set the font and color for displaying text in the character screen.
         g2.setColor(Color.white);
-        g2.setFont(g2.getFont().deriveFont(32F));
+        g2.setFont(RenderCache.font(g2.getFont(), 32F));
 
         // Define the starting position for the text labels.
         int textX = x + 20;
@@ -519,7 +519,7 @@ public class UI {
         for (int i = 0; i < entity.inventory.size(); i++) {
             // Highlight equipped items (e.g., current weapon, shield or light)
             if (entity.inventory.get(i) == entity.currentWeapon || entity.inventory.get(i) == entity.currentShield || entity.inventory.get(i) == entity.currentLight) {
-                g2.setColor(new Color(240, 190, 90)); // Highlight color
+                g2.setColor(RenderCache.color(240, 190, 90)); // Highlight color
                 g2.fillRoundRect(slotX, slotY, gp.tileSize, gp.tileSize, 10, 10);
             }
 
@@ -527,14 +527,14 @@ public class UI {
 
 // Display the amount of the item if greater than 1.
             if (entity.inventory.get(i).amount > 1) {
-                g2.setFont(g2.getFont().deriveFont(32f)); // Set font size for the amount.
+                g2.setFont(RenderCache.font(g2.getFont(), 32f)); // Set font size for the amount.
 
                 // Calculate X and Y positions for the amount text.
                 int amountX = getXForAlignToRight(String.valueOf(entity.inventory.get(i).amount), slotX + 44);
                 int amountY = slotY + gp.tileSize;
 
                 // Draw a shadow for the text to enhance visibility.
-                g2.setColor(new Color(60, 60, 60));
+                g2.setColor(RenderCache.color(60, 60, 60));
                 g2.drawString(String.valueOf(entity.inventory.get(i).amount), amountX, amountY);
 
                 // Draw the amount in white to display it clearly.
@@ -561,7 +561,7 @@ public class UI {
 
             // Draw the cursor to indicate the selected item
             g2.setColor(Color.white); // Cursor color
-            g2.setStroke(new BasicStroke(3)); // Cursor stroke width
+            g2.setStroke(RenderCache.stroke(3)); // Cursor stroke width
             g2.drawRoundRect(cursorX, cursorY, cursorWidth, cursorHeight, 10, 10); // Draw cursor outline
 
             // Define description frame position and dimensions
@@ -571,7 +571,7 @@ public class UI {
             // Set text position and font for the description
             int textX = frameX + 20; // X position for the description text
             int textY = dFrameY + gp.tileSize; // Y position for the description text
-            g2.setFont(g2.getFont().deriveFont(28F)); // Font size for the description text
+            g2.setFont(RenderCache.font(g2.getFont(), 28F)); // Font size for the description text
 
             int itemIndex = getItemIndexOnSlot(slotCol, slotRow); // Get the index of the selected item
 
@@ -595,7 +595,7 @@ public class UI {
         g2.setColor(Color.white);
 
         // Set the font for the options screen text with a size of 32
-        g2.setFont(g2.getFont().deriveFont(32F));
+        g2.setFont(RenderCache.font(g2.getFont(), 32F));
 
         // Define dimensions for the options sub-window (position and size)
         int frameX = gp.tileSize * 6;       // X-position for the frame
@@ -613,6 +613,58 @@ public class UI {
             case 2 -> options_controls(frameX, frameY);              // Display control options
             case 3 -> options_endGameConfirmation(frameX, frameY);   // Display end-game confirmation
         }
+    }
+
+    // Acts on Enter in the options screen, depending on the sub-screen shown and the selected option.
+    // Like updateTransition(), it runs in the game update, so the options change on the tick Enter is pressed.
+    public void updateOptions() {
+        if (gp.keyH.enterPressed) {
+            switch (subState) {
+                case 0 -> {
+                    switch (commandNum) {
+                        case 0 -> {
+                            gp.fullScreenOn = !gp.fullScreenOn; // Toggles full screen
+                            subState = 1; // Show confirmation sub-window
+                            gp.config.saveConfig(); // Save game configuration settings.
+                        }
+                        case 3 -> {
+                            subState = 2; // Move to control configuration screen
+                            commandNum = 0; // Reset command index for the control menu
+                        }
+                        case 4 -> {
+                            subState = 3;   // Move to end game confirmation screen
+                            commandNum = 0; // Reset command index for the control menu
+                        }
+                        case 5 -> {
+                            gp.gameState = gp.playState; // Switch back to play state
+                            commandNum = 0;              // Reset command index for the control menu
+                        }
+                    }
+                }
+                case 1 -> {
+                    if (commandNum == 0) {
+                        subState = 0;  // Return to the main options menu
+                    }
+                }
+                case 2 -> {
+                    if (commandNum == 0) {
+                        subState = 0;  // Return to main options menu
+                        commandNum = 3;  // Reset the command number to default control option
+                    }
+                }
+                case 3 -> {
+                    if (commandNum == 0) {  // If "Yes" is selected
+                        subState = 0;  // Reset subState
+                        gp.gameState = gp.titleState;  // Change game state to title screen
+                        gp.resetGame(true); // Reset game
+                        gp.stopMusic(); // Stop music
+                    } else if (commandNum == 1) {  // If "No" is selected
+                        subState = 0;  // Reset subState
+                        commandNum = 4;  // Reset commandNum to a previous value (or default)
+                    }
+                }
+            }
+        }
 
         // Reset the enter key press flag after processing input on the options screen
         gp.keyH.enterPressed = false;
@@ -638,10 +690,6 @@ public class UI {
         g2.drawString("Full Screen", textX, textY);
         if (commandNum == 0) {
             g2.drawString(">", textX - 25, textY); // Draws a pointer indicating selection
-            if (gp.keyH.enterPressed) {
-                gp.fullScreenOn = !gp.fullScreenOn; // Toggles full screen
-                subState = 1; // Show confirmation sub-window
-            }
         }
 
         // Draw "Music" volume control option
@@ -663,10 +711,6 @@ public class UI {
         g2.drawString("Control", textX, textY);
         if (commandNum == 3) {
             g2.drawString(">", textX - 25, textY); // Pointer for control option
-            if (gp.keyH.enterPressed) {
-                subState = 2; // Move to control configuration screen
-                commandNum = 0; // Reset command index for the control menu
-            }
         }
 
         // Draw "End Game" option to confirm ending the current game
@@ -674,10 +718,6 @@ public class UI {
         g2.drawString("End Game", textX, textY);
         if (commandNum == 4) {
             g2.drawString(">", textX - 25, textY); // Pointer for end game selection
-            if (gp.keyH.enterPressed) {
-                subState = 3;   // Move to end game confirmation screen
-                commandNum = 0; // Reset command index for the control menu
-            }
         }
 
         // Draw "Back" option to exit options menu and return to game
@@ -685,16 +725,12 @@ public class UI {
         g2.drawString("Back", textX, textY);
         if (commandNum == 5) {
             g2.drawString(">", textX - 25, textY); // Pointer for back option
-            if (gp.keyH.enterPressed) {
-                gp.gameState = gp.playState; // Switch back to play state
-                commandNum = 0;              // Reset command index for the control menu
-            }
         }
 
         // Draw full screen checkbox to indicate current full screen state
         textX = (int) (frameX + gp.tileSize * 4.5);
         textY = frameY + gp.tileSize * 2 + 24;
-        g2.setStroke(new BasicStroke(3));
+        g2.setStroke(RenderCache.stroke(3));
         g2.drawRect(textX, textY, 24, 24); // Checkbox outline
         if (gp.fullScreenOn) {
             g2.fillRect(textX, textY, 24, 24); // Filled if full screen is enabled
@@ -711,9 +747,6 @@ public class UI {
         g2.drawRect(textX, textY, 120, 24); // Outline of SE volume bar
         volumeWidth = 24 * gp.se.volumeScale; // Width based on SE volume scale
         g2.fillRect(textX, textY, volumeWidth, 24); // Fill based on current volume
-
-        // Save game configuration settings.
-        gp.config.saveConfig();
     }
 
     // Displays a notification informing the player that the full screen change
@@ -724,11 +757,11 @@ public class UI {
         int textY = frameY + gp.tileSize * 3;
 
         // The message that will inform the player about the full screen change
-        currentDialogue = "The change will take \neffect after restarting \nthe game.";
+        String message = "The change will take \neffect after restarting \nthe game.";
 
-        // Loop through each line of the current dialogue and draw it at the appropriate position
+        // Loop through each line of the message and draw it at the appropriate position
         // Split the message into multiple lines if there is a newline character
-        for (String line : currentDialogue.split("\n")) {
+        for (String line : message.split("\n")) {
             g2.drawString(line, textX, textY);  // Draw the text at the calculated position
             textY += 40;  // Increase the Y position to leave space for the next line
         }
@@ -740,9 +773,6 @@ public class UI {
         // If the "Back" option is selected (commandNum == 0), highlight it with a ">" symbol
         if (commandNum == 0) {
             g2.drawString(">", textX - 25, textY); // Indicate the selected option with a pointer
-            if (gp.keyH.enterPressed) {  // Check if the enter key is pressed
-                subState = 0;  // Change the subState to return to the main options menu
-            }
         }
     }
 
@@ -810,10 +840,6 @@ public class UI {
         // If the "Back" option is selected (commandNum == 0), highlight it with a ">" symbol
         if (commandNum == 0) {
             g2.drawString(">", textX - 25, textY);  // Indicate the selected option with a pointer
-            if (gp.keyH.enterPressed) {  // Check if the enter key is pressed
-                subState = 0;  // Return to main options menu
-                commandNum = 3;  // Reset the command number to default control option
-            }
         }
     }
 
@@ -823,48 +849,38 @@ public class UI {
         int textX = frameX + gp.tileSize;
         int textY = frameY + gp.tileSize * 3;
 
-        // Dialogue for confirmation
-        currentDialogue = "Quit the game and return \nto the title screen?";
+        // Message for confirmation
+        String message = "Quit the game and return \nto the title screen?";
 
-        // Split the current dialogue into lines and draw each line at the specified position
-        for (String line : currentDialogue.split("\n")) {
+        // Split the message into lines and draw each line at the specified position
+        for (String line : message.split("\n")) {
             g2.drawString(line, textX, textY);  // Draw each line of the dialogue
             textY += 40;  // Move Y position down for the next line
         }
 
-        // Draw "Yes" option and handle input to quit the game
+        // Draw "Yes" option to quit the game
         String text = "Yes";
         textX = getXForCenteredText(text);  // Center the text
         textY += gp.tileSize * 3;  // Position below the dialogue text
         g2.drawString(text, textX, textY);  // Draw the "Yes" option
         if (commandNum == 0) {  // If "Yes" is selected
             g2.drawString(">", textX - 25, textY);  // Highlight the selected option
-            if (gp.keyH.enterPressed) {  // Check if the enter key is pressed
-                subState = 0;  // Reset subState
-                gp.gameState = gp.titleState;  // Change game state to title screen
-                gp.resetGame(true); // Reset game
-                gp.stopMusic(); // Stop music
-            }
         }
 
-        // Draw "No" option and handle input to cancel quitting
+        // Draw "No" option to cancel quitting
         text = "No";
         textX = getXForCenteredText(text);  // Center the "No" text
         textY += gp.tileSize;  // Position below the "Yes" option
         g2.drawString(text, textX, textY);  // Draw the "No" option
         if (commandNum == 1) {  // If "No" is selected
             g2.drawString(">", textX - 25, textY);  // Highlight the selected option
-            if (gp.keyH.enterPressed) {  // Check if the enter key is pressed
-                subState = 0;  // Reset subState
-                commandNum = 4;  // Reset commandNum to a previous value (or default)
-            }
         }
     }
 
     // Draws the game over screen with an option to retry or quit to the title screen.
     public void drawGameOverScreen() {
         // Draw a semi-transparent black overlay to dim the screen during the game over state.
-        g2.setColor(new Color(0, 0, 0, 150));
+        g2.setColor(RenderCache.color(0, 0, 0, 150));
         g2.fillRect(0, 0, gp.screenWidth, gp.screenHeight);
 
         int x;
@@ -872,7 +888,7 @@ public class UI {
         String text;
 
         // Set the font and size for the game over text.
-        g2.setFont(g2.getFont().deriveFont(Font.BOLD, 110f));
+        g2.setFont(RenderCache.font(g2.getFont(), Font.BOLD, 110f));
 
         text = "Game Over"; // Game over message text
         // Shadow effect for the "Game Over" text
@@ -885,7 +901,7 @@ public class UI {
         g2.drawString(text, x - 4, y - 4); // Draw the main "Game Over" text slightly offset to create a shadow effect
 
         // Set the font and size for the retry option.
-        g2.setFont(g2.getFont().deriveFont(50f));
+        g2.setFont(RenderCache.font(g2.getFont(), 50f));
         text = "Retry"; // Retry option text
         x = getXForCenteredText(text); // Center the retry option text
         y += gp.tileSize * 4; // Set the Y position below the "Game Over" text
@@ -906,15 +922,20 @@ public class UI {
         }
     }
 
-    // This method handles the screen transition effect when changing game states.
+    // This method draws the screen transition effect when changing game states.
     public void drawTransition() {
-
-        counter++; // Increment the transition counter to track the fade-in effect progress
-
         // Set the color for the transition screen (black), with an alpha value that increases as the counter grows.
         // This creates a fade-in effect, starting from fully transparent to fully opaque.
-        g2.setColor(new Color(0, 0, 0, counter * 5));
+        g2.setColor(RenderCache.color(0, 0, 0, counter * 5));
         g2.fillRect(0, 0, gp.screenWidth, gp.screenHeight); // Draw a full-screen rectangle to cover the entire screen with the transition color
+    }
+
+    // This method advances the screen transition by one tick, and moves the player to the new map once it's complete.
+    // It runs in the game update rather than in drawTransition(), so the transition lasts the same number of ticks
+    // whatever the frame rate is, and runs even when nothing is drawn (headless runs, replays).
+    public void updateTransition() {
+
+        counter++; // Increment the transition counter to track the fade-in effect progress
 
         // Once the counter reaches 50 (indicating the transition effect is complete)
         if (counter == 50) {
@@ -926,6 +947,9 @@ public class UI {
             // Set the current map to the temporary map stored in the event handler (usually used for state changes like teleportation)
             gp.currentMap = gp.eHandler.tempMap;
 
+            // Remove the particles of the previous map, so they aren't drawn over the new one
+            gp.particles.clear();
+
             // Set the player's position based on the temporary column and row provided by the event handler
             gp.player.worldX = gp.tileSize * gp.eHandler.tempCol;
             gp.player.worldY = gp.tileSize * gp.eHandler.tempRow;
@@ -948,16 +972,97 @@ public class UI {
             case 1 -> trade_buy();    // Display the buying screen
             case 2 -> trade_sell();   // Display the selling screen
         }
+    }
+
+    // Acts on Enter in the trade screen, depending on the current subState (Buy, Sell, or Select).
+    // Like updateTransition(), it runs in the game update, so a trade happens on the tick Enter is pressed.
+    public void updateTrade() {
+
+        switch (subState) {
+            case 0 -> updateTradeSelect();
+            case 1 -> updateTradeBuy();
+            case 2 -> updateTradeSell();
+        }
 
         // Reset the 'enterPressed' flag after the screen update
         gp.keyH.enterPressed = false;
     }
 
-    // This method draws the trade selection menu (Buy, Sell, Leave)
-    public void trade_select() {
+    // Types the trade greeting and opens the selected option (Buy, Sell, Leave) when Enter is pressed.
+    private void updateTradeSelect() {
 
         npc.dialogueSet = 0;
 
+        updateDialogue(); // Type the greeting shown behind the trade selection window
+
+        if (gp.keyH.enterPressed) {
+            switch (commandNum) {
+                case 0 -> subState = 1; // Buy
+                case 1 -> subState = 2; // Sell
+                case 2 -> { // Exit the trade and return to dialogue state
+                    commandNum = 0;
+                    npc.startDialogue(npc, 1);
+                }
+            }
+        }
+    }
+
+    // Buys the selected item of the NPC's inventory when Enter is pressed.
+    private void updateTradeBuy() {
+
+        // Get the index of the item selected for purchase in the NPC's inventory
+        int itemIndex = getItemIndexOnSlot(npcSlotCol, npcSlotRow);
+
+        // If Enter is pressed on a valid item, attempt to buy it
+        if (gp.keyH.enterPressed && itemIndex < npc.inventory.size()) {
+            // Check if the player has enough coins
+            if (npc.inventory.get(itemIndex).price > gp.player.coin) {
+                subState = 0;
+                npc.startDialogue(npc, 2); // Not enough coins
+            } else {
+
+                if (gp.player.canObtainItem(npc.inventory.get(itemIndex))) {
+                    gp.player.coin -= npc.inventory.get(itemIndex).price; // Deduct the price from player's coins
+                } else {
+                    subState = 0;
+                    npc.startDialogue(npc, 3); // Inventory is full
+                }
+
+            }
+        }
+    }
+
+    // Sells the selected item of the player's inventory when Enter is pressed.
+    private void updateTradeSell() {
+
+        // Get the index of the item selected for sale in the player's inventory
+        int itemIndex = getItemIndexOnSlot(playerSlotCol, playerSlotRow);
+
+        // If Enter is pressed on a valid item, attempt to sell it
+        if (gp.keyH.enterPressed && itemIndex < gp.player.inventory.size()) {
+            // Calculate the price for selling the item (half of the original price)
+            int price = gp.player.inventory.get(itemIndex).price / 2;
+
+            // Check if the player is trying to sell an equipped item (weapon or shield)
+            if (gp.player.currentWeapon == gp.player.inventory.get(itemIndex) || gp.player.currentShield == gp.player.inventory.get(itemIndex)) {
+                commandNum = 0;
+                subState = 0;
+                npc.startDialogue(npc, 4);  // Show message for equipped items
+            } else {
+                // Remove the item from the player's inventory and add its price to the player's coins
+                if (gp.player.inventory.get(itemIndex).amount > 1) {
+                    gp.player.inventory.get(itemIndex).amount--;
+                } else {
+                    gp.player.inventory.remove(itemIndex);
+                    gp.player.coin += price; // Player gains coins from selling the item
+                }
+            }
+        }
+    }
+
+    // This method draws the trade selection menu (Buy, Sell, Leave)
+    public void trade_select() {
+
         drawDialogueScreen(); // Draw the dialogue screen as the background
 
         // Set up the trade selection window's position and size
@@ -976,9 +1081,6 @@ public class UI {
         g2.drawString("Buy", x, y);
         if (commandNum == 0) {
             g2.drawString(">", x - 24, y); // Show a cursor to indicate selection
-            if (gp.keyH.enterPressed) { // If Enter is pressed, change subState to Buy
-                subState = 1;
-            }
         }
 
         // Draw the "Sell" option and highlight it if it's the selected option
@@ -986,20 +1088,13 @@ public class UI {
         g2.drawString("Sell", x, y);
         if (commandNum == 1) {
             g2.drawString(">", x - 24, y); // Show a cursor to indicate selection
-            if (gp.keyH.enterPressed) { // If Enter is pressed, change subState to Sell
-                subState = 2;
-            }
         }
 
-        // Draw the "Leave" option and handle the logic for exiting the trade screen
+        // Draw the "Leave" option
         y += gp.tileSize;
         g2.drawString("Leave", x, y);
         if (commandNum == 2) {
             g2.drawString(">", x - 24, y); // Show a cursor to indicate selection
-            if (gp.keyH.enterPressed) { // If Enter is pressed, exit the trade and return to dialogue state
-                commandNum = 0;
-                npc.startDialogue(npc, 1);
-            }
         }
     }
 
@@ -1043,25 +1138,6 @@ public class UI {
             // Draw the price text aligned to the right
             x = getXForAlignToRight(text, gp.tileSize * 8 - 20);
             g2.drawString(text, x, y + 34);
-
-            // If Enter is pressed, attempt to buy the item
-            if (gp.keyH.enterPressed) {
-                // Check if the player has enough coins
-                if (npc.inventory.get(itemIndex).price > gp.player.coin) {
-                    subState = 0;
-                    npc.startDialogue(npc, 2); // Not enough coins
-                } else {
-
-                    if (gp.player.canObtainItem(npc.inventory.get(itemIndex))) {
-                        gp.player.coin -= npc.inventory.get(itemIndex).price; // Deduct the price from player's coins
-                    } else {
-                        subState = 0;
-                        npc.startDialogue(npc, 3); // Inventory is full
-                    }
-
-                }
-
-            }
         }
     }
 
@@ -1104,33 +1180,16 @@ public class UI {
             // Draw the price text aligned to the right
             x = getXForAlignToRight(text, gp.tileSize * 18 - 20);
             g2.drawString(text, x, y + 34);
-
-            // If Enter is pressed, attempt to sell the item
-            if (gp.keyH.enterPressed) {
-                // Check if the player is trying to sell an equipped item (weapon or shield)
-                if (gp.player.currentWeapon == gp.player.inventory.get(itemIndex) || gp.player.currentShield == gp.player.inventory.get(itemIndex)) {
-                    commandNum = 0;
-                    subState = 0;
-                    npc.startDialogue(npc, 4);  // Show message for equipped items
-                } else {
-                    // Remove the item from the player's inventory and add its price to the player's coins
-                    if (gp.player.inventory.get(itemIndex).amount > 1) {
-                        gp.player.inventory.get(itemIndex).amount--;
-                    } else {
-                        gp.player.inventory.remove(itemIndex);
-                        gp.player.coin += price; // Player gains coins from selling the item
-                    }
-                }
-            }
         }
     }
 
-    // Draw the sleep screen transition effect by gradually adjusting the lighting filter's transparency.
-    public void drawSleepScreen() {
+    // Advance the sleep screen transition effect by one tick, gradually adjusting the lighting filter's transparency.
+    // Like updateTransition(), it runs in the game update so sleeping lasts the same number of ticks at any frame rate.
+    public void updateSleep() {
         // Increment the transition counter.
         counter++;
 
-        // Gradually darken the screen during the first 120 frames.
+        // Gradually darken the screen during the first 120 ticks.
         if (counter < 120) {
             gp.eManager.lighting.filterAlpha += 0.01f;
             if (gp.eManager.lighting.filterAlpha > 1f) {
@@ -1138,14 +1197,13 @@ public class UI {
             }
         }
 
-        // Gradually brighten the screen after 120 frames.
+        // Gradually brighten the screen after 120 ticks.
         if (counter >= 120) {
             gp.eManager.lighting.filterAlpha -= 0.01f;
             if (gp.eManager.lighting.filterAlpha < 0f) {
                 gp.eManager.lighting.filterAlpha = 0f; // Reset the alpha value to 0 (fully bright).
                 counter = 0; // Reset the counter for the next transition.
-                gp.eManager.lighting.dayState = gp.eManager.lighting.day; // Reset to daytime state.
-                gp.eManager.lighting.dayCounter = 0; // Reset the day counter.
+                gp.eManager.lighting.resetDay(); // Wake up at the start of the day.
                 gp.gameState = gp.playState; // Return to the play state.
                 gp.player.getImage(); // Reload the player's regular images.
             }
@@ -1159,15 +1217,15 @@ public class UI {
 
     // Draws a rounded rectangle sub-window for displaying UI elements.
     public void drawSubWindow(int x, int y, int width, int height) {
-        Color c = new Color(0, 0, 0, 220); // Semi-transparent black for the window background.
+        Color c = RenderCache.color(0, 0, 0, 220); // Semi-transparent black for the window background.
 
         g2.setColor(c);
         // Fill the rounded rectangle to create the window background.
         g2.fillRoundRect(x, y, width, height, 35, 35);
 
-        c = new Color(255, 255, 255); // White color for the window border.
+        c = RenderCache.color(255, 255, 255); // White color for the window border.
         g2.setColor(c);
-        g2.setStroke(new BasicStroke(5)); // Set the stroke for the border.
+        g2.setStroke(RenderCache.stroke(5)); // Set the stroke for the border.
 
         // Draw the rounded rectangle border around the window.
         g2.drawRoundRect(x + 5, y + 5, width - 10, height - 10, 25, 25);
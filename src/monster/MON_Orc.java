@@ -6,7 +6,7 @@ import object.OBJ_CoinBronze;
 import object.OBJ_Heart;
 import object.OBJ_ManaCrystal;
 
-import java.util.Random;
+import java.awt.*;
 
 // MON_Orc represents an orc monster entity within the game, inheriting
 // properties and behaviors from the Entity class. This monster type
@@ -33,6 +33,7 @@ public class MON_Orc extends Entity {
         defense = 2;                            // Defense level of the orc.
         exp = 10;                               // Experience points granted when defeated.
         knockBackPower = 5;                     // Knockback power determines the force with which the target is pushed back.
+        useFlowField = true;                    // Chases the player through the shared flow field.
 
         // Defines the solid area for collision detection.
         solidArea.x = 4;
@@ -43,6 +44,7 @@ public class MON_Orc extends Entity {
         solidAreaDefaultY = solidArea.y;
 
         // Attack area dimensions for melee attacks.
+        attackArea = new Rectangle();
         attackArea.width = 48;
         attackArea.height = 48;
 
@@ -71,14 +73,15 @@ public class MON_Orc extends Entity {
 
     // Loads the orc's attack images for different directions.
     public void getAttackImage() {
-        attackUp1 = setup("/monster/orc_attack_up_1", gp.tileSize, gp.tileSize * 2);
-        attackUp2 = setup("/monster/orc_attack_up_2", gp.tileSize, gp.tileSize * 2);
-        attackDown1 = setup("/monster/orc_attack_down_1", gp.tileSize, gp.tileSize * 2);
-        attackDown2 = setup("/monster/orc_attack_down_2", gp.tileSize, gp.tileSize * 2);
-        attackLeft1 = setup("/monster/orc_attack_left_1", gp.tileSize * 2, gp.tileSize);
-        attackLeft2 = setup("/monster/orc_attack_left_2", gp.tileSize * 2, gp.tileSize);
-        attackRight1 = setup("/monster/orc_attack_right_1", gp.tileSize * 2, gp.tileSize);
-        attackRight2 = setup("/monster/orc_attack_right_2", gp.tileSize * 2, gp.tileSize);
+        attackSprites = new AttackSprites();
+        attackSprites.up1 = setup("/monster/orc_attack_up_1", gp.tileSize, gp.tileSize * 2);
+        attackSprites.up2 = setup("/monster/orc_attack_up_2", gp.tileSize, gp.tileSize * 2);
+        attackSprites.down1 = setup("/monster/orc_attack_down_1", gp.tileSize, gp.tileSize * 2);
+        attackSprites.down2 = setup("/monster/orc_attack_down_2", gp.tileSize, gp.tileSize * 2);
+        attackSprites.left1 = setup("/monster/orc_attack_left_1", gp.tileSize * 2, gp.tileSize);
+        attackSprites.left2 = setup("/monster/orc_attack_left_2", gp.tileSize * 2, gp.tileSize);
+        attackSprites.right1 = setup("/monster/orc_attack_right_1", gp.tileSize * 2, gp.tileSize);
+        attackSprites.right2 = setup("/monster/orc_attack_right_2", gp.tileSize * 2, gp.tileSize);
     }
 
     @Override
@@ -121,7 +124,7 @@ public class MON_Orc extends Entity {
     public void checkDrop() {
         super.checkDrop();
 
-        int i = new Random().nextInt(100) + 1; // Random number between 1 and 100.
+        int i = gp.random.nextInt(100) + 1; // Random number between 1 and 100.
 
         if (i <= 50) {
             dropItem(new OBJ_CoinBronze(gp)); // 50% chance for a bronze coin.
@@ -7,8 +7,6 @@ import object.OBJ_Heart;
 import object.OBJ_ManaCrystal;
 import object.OBJ_Rock;
 
-import java.util.Random;
-
 // MON_RedSlime represents a red slime monster entity within the game,
 // inheriting properties and behaviors from the Entity class. This monster
 // type has unique attributes such as life, speed, and movement animations.
@@ -36,6 +34,7 @@ public class MON_RedSlime extends Entity {
         defense = 0;                            // Sets the defense level of the slime.
         exp = 5;                                // Experience points awarded to the player when this monster is defeated.
         projectile = new OBJ_Rock(gp);         // Initializes a Rock projectile that the slime can shoot.
+        useFlowField = true;                    // Chases the player through the shared flow field.
         // Defines the solid area for collision detection, setting its position
         // and size, which helps prevent the entity from moving through obstacles.
         solidArea.x = 3;
@@ -112,7 +111,7 @@ public class MON_RedSlime extends Entity {
         super.checkDrop();
 
         // Generate a random number between 1 and 100 (inclusive) to determine the drop item.
-        int i = new Random().nextInt(100) + 1;
+        int i = gp.random.nextInt(100) + 1;
 
         // Determine the item to drop based on the random number:
         // - If i is between 1 and 50, the drop will be a bronze coin (50% chance).
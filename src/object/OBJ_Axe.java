@@ -3,6 +3,8 @@ package object;
 import entity.Entity;
 import main.GamePanel;
 
+import java.awt.*;
+
 // OBJ_Axe defines an axe object in the game, providing moderate attack power and the ability to cut trees.
 // When equipped by an entity, it increases the entity's attack value.
 public class OBJ_Axe extends Entity {
@@ -26,6 +28,9 @@ public class OBJ_Axe extends Entity {
         // Attack value added when this axe is equipped.
         attackValue = 2;
 
+        // Area hit by the axe when attacking.
+        attackArea = new Rectangle();
+
         // Define the width of the axe's attack collision area.
         attackArea.width = 30;
 
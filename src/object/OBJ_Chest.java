@@ -55,9 +55,9 @@ public class OBJ_Chest extends Entity {
 
     // Sets the series of dialogues for this chest, which will display sequentially when interact to.
     public void setDialogues() {
-        dialogues[0][0] = "You open the chest and find a " + loot.name + "!\n...But you cannot carry any more!";
-        dialogues[1][0] = "You open the chest and find a " + loot.name + "!\nYou obtain the " + loot.name + "!";
-        dialogues[2][0] = "It's empty.";
+        setDialogueLine(0, 0, "You open the chest and find a " + loot.name + "!\n...But you cannot carry any more!");
+        setDialogueLine(1, 0, "You open the chest and find a " + loot.name + "!\nYou obtain the " + loot.name + "!");
+        setDialogueLine(2, 0, "It's empty.");
     }
 
     // Handles interaction with the chest when the player interacts with it.
@@ -34,7 +34,7 @@ public class OBJ_Door extends Entity {
 
     // Sets the series of dialogues for this door, which will display sequentially when interact to.
     public void setDialogue() {
-        dialogues[0][0] = "You need a key to open this";
+        setDialogueLine(0, 0, "You need a key to open this");
     }
 
     // Handles the interaction logic for the door object.
@@ -3,6 +3,7 @@ package object;
 import entity.Entity;
 import entity.Projectile;
 import main.GamePanel;
+import main.RenderCache;
 
 import java.awt.*;
 
@@ -41,6 +42,9 @@ public class OBJ_Fireball extends Projectile {
         // Sets the strength of the knockback effect when hitting an enemy, pushing them away.
         knockBackPower = 0;
 
+        // Lights up the darkness around it while it flies.
+        lightRadius = 100;
+
         // Set the mana cost to cast this fireball.
         useCost = 1;
 
@@ -80,7 +84,7 @@ public class OBJ_Fireball extends Projectile {
 
     // Return the particle color when the fireball is used.
     public Color getParticleColor() {
-        return new Color(240, 50, 0); // A fiery orange-red color for the fireball particles.
+        return RenderCache.color(240, 50, 0); // A fiery orange-red color for the fireball particles.
     }
 
     // Return the particle size when the fireball is used.
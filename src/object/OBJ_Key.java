@@ -41,9 +41,9 @@ public class OBJ_Key extends Entity {
 
     // Sets the series of dialogues for this Key, which will display sequentially when interact to.
     public void setDialogue() {
-        dialogues[0][0] = "You use the " + name + " and open the door.";
+        setDialogueLine(0, 0, "You use the " + name + " and open the door.");
 
-        dialogues[1][0] = "Nothing happened.";
+        setDialogueLine(1, 0, "Nothing happened.");
     }
 
     // Handles the logic for using the key.
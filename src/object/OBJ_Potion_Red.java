@@ -47,7 +47,7 @@ public class OBJ_Potion_Red extends Entity {
 
     // Sets the series of dialogues for this item, which will display sequentially when interact to.
     public void setDialogue() {
-        dialogues[0][0] = "You drink the " + name + "!\nYour life has been recovered by " + value + ".";
+        setDialogueLine(0, 0, "You drink the " + name + "!\nYour life has been recovered by " + value + ".");
     }
 
     @Override
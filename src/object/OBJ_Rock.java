@@ -3,6 +3,7 @@ package object;
 import entity.Entity;
 import entity.Projectile;
 import main.GamePanel;
+import main.RenderCache;
 
 import java.awt.*;
 
@@ -77,7 +78,7 @@ public class OBJ_Rock extends Projectile {
 
     // Return the particle color when the rock is used.
     public Color getParticleColor() {
-        return new Color(40, 50, 0); // A dull, earthy color for the rock particles.
+        return RenderCache.color(40, 50, 0); // A dull, earthy color for the rock particles.
     }
 
     // Return the particle size when the rock is used.
@@ -3,6 +3,8 @@ package object;
 import entity.Entity;
 import main.GamePanel;
 
+import java.awt.*;
+
 // OBJ_Sword_Normal defines a basic sword object in the game, providing standard attack power.
 // When equipped by an entity, it increases the entity's attack value.
 public class OBJ_Sword_Normal extends Entity {
@@ -26,6 +28,9 @@ public class OBJ_Sword_Normal extends Entity {
         // Set the attack value that this sword provides.
         attackValue = 1;
 
+        // Area hit by the sword when attacking.
+        attackArea = new Rectangle();
+
         // Width of the sword attack collision area.
         attackArea.width = 36;
 
@@ -1,95 +1,307 @@
 package tile;
 
+import entity.Entity;
 import main.GamePanel;
+import main.RenderCache;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 
 // The Map class is responsible for managing and rendering the full game map and minimap.
-public class Map extends TileManager {
+// It reads the tiles of the game's TileManager and renders each map once per view, at the size the view displays it,
+// so drawing a map is a single unscaled blit. After that, only the tiles that change or get explored are drawn again.
+// Tiles the player hasn't come near yet stay hidden (fog of war), which is tracked per map in the explored bitsets.
+public class Map {
 
     // Reference to the GamePanel, providing access to game-related configurations and data.
     GamePanel gp;
 
-    // Stores the map image for each level in the game.
-    BufferedImage[] worldMap;
+    // A way of showing the map, with its own size and images.
+    final class View {
+        final int id;                  // Index of the view in views
+        final int size;                // Size of the view's map images in pixels
+        final BufferedImage[] images;  // Rendered image of each map, null if not rendered or dropped
+        final int[] versions;          // TileManager.mapVersion of each map when its image was rendered
+        final BufferedImage[] tiles;   // Tile images scaled to a cell of this view, scaled on first use
+        final HashMap<BufferedImage, BufferedImage> icons = new HashMap<>(); // Player sprites scaled for this view
+
+        View(int id, int size) {
+            this.id = id;
+            this.size = size;
+            images = new BufferedImage[gp.maxMap];
+            versions = new int[gp.maxMap];
+            tiles = new BufferedImage[gp.tileM.tiles.length];
+        }
+
+        // Returns the position in pixels of a column (or row) in this view's images.
+        int cell(int col) {
+            return col * size / gp.maxWorldCol;
+        }
+    }
+
+    // Views of the full map screen and the minimap.
+    final View fullMap;
+    final View miniMap;
+    final View[] views;
+
+    // Maximum number of bytes the rendered map images may use. The least recently shown images are dropped
+    // (and rendered again when shown) when a new image would go over it.
+    final long memoryLimit;
+
+    // Rendered map images by view.id * maxMap + map, least recently shown first.
+    final LinkedHashMap<Integer, BufferedImage> rendered = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Tiles the player has explored on each map, one bit per tile (bit index = row * maxWorldCol + col).
+    public long[][] explored;
+
+    // Radius in tiles around the player that gets explored.
+    public int exploreRadius = 6;
+
+    // Tile and map the player was on when the map was last explored, to explore again only after moving.
+    int exploredCol = -1;
+    int exploredRow = -1;
+    int exploredMap = -1;
 
     // Determines whether the minimap is currently visible.
     public boolean miniMapOn = false;
 
-    // Constructor initializes the Map object and generates the world map images.
+    // Constructor renders the full map at 500x500 pixels and the minimap at 200x200 pixels, keeping at most 4 MB
+    // of rendered images (all four maps in both views).
     public Map(GamePanel gp) {
-        super(gp);
+        this(gp, 500, 200, 4L << 20);
+    }
+
+    // Constructor with the sizes of the full map and the minimap and the memory limit of the rendered images in bytes.
+    public Map(GamePanel gp, int fullMapSize, int miniMapSize, long memoryLimit) {
         this.gp = gp;
-        createWordMap();
-    }
-
-    // Creates a full world map for each level, rendering the tiles into an image.
-    public void createWordMap() {
-        worldMap = new BufferedImage[gp.maxMap];
-        int wordMapWidth = gp.tileSize * gp.maxWorldCol;
-        int wordMapHeight = gp.tileSize * gp.maxWorldRow;
-
-        for (int i = 0; i < gp.maxMap; i++) {
-            // Create a blank image for the map and get its graphics context.
-            worldMap[i] = new BufferedImage(wordMapWidth, wordMapHeight, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2 = worldMap[i].createGraphics();
-
-            int col = 0;
-            int row = 0;
-
-            // Loop through all tiles in the map and draw them onto the image.
-            while (col < gp.maxWorldCol && row < gp.maxWorldRow) {
-                int tileNum = mapTileNum[i][col][row];
-                int x = gp.tileSize * col;
-                int y = gp.tileSize * row;
-                g2.drawImage(tiles[tileNum].image, x, y, null);
-                col++;
-
-                if (col == gp.maxWorldCol) {
-                    col = 0;
-                    row++;
+        this.memoryLimit = memoryLimit;
+        fullMap = new View(0, fullMapSize);
+        miniMap = new View(1, miniMapSize);
+        views = new View[]{fullMap, miniMap};
+        explored = new long[gp.maxMap][(gp.maxWorldCol * gp.maxWorldRow + 63) >>> 6];
+    }
+
+    // Explores the tiles around the player. Called every tick of the play state.
+    public void update() {
+        int col = (gp.player.worldX + gp.tileSize / 2) / gp.tileSize;
+        int row = (gp.player.worldY + gp.tileSize / 2) / gp.tileSize;
+        if (col == exploredCol && row == exploredRow && gp.currentMap == exploredMap) {
+            return;
+        }
+        exploredCol = col;
+        exploredRow = row;
+        exploredMap = gp.currentMap;
+
+        int map = gp.currentMap;
+        int radius = exploreRadius;
+        for (int r = Math.max(0, row - radius); r <= Math.min(gp.maxWorldRow - 1, row + radius); r++) {
+            for (int c = Math.max(0, col - radius); c <= Math.min(gp.maxWorldCol - 1, col + radius); c++) {
+                int dc = c - col;
+                int dr = r - row;
+                if (dc * dc + dr * dr <= radius * radius && !isExplored(map, c, r)) {
+                    int bit = r * gp.maxWorldCol + c;
+                    explored[map][bit >>> 6] |= 1L << bit;
+                    drawTile(map, c, r); // Reveal the tile in the images already rendered.
                 }
             }
+        }
+    }
 
-            // Release resources.
-            g2.dispose();
+    // Returns whether the player has explored a tile.
+    public boolean isExplored(int map, int col, int row) {
+        int bit = row * gp.maxWorldCol + col;
+        return (explored[map][bit >>> 6] & 1L << bit) != 0;
+    }
+
+    // Hides every map again, for a new game.
+    public void resetExplored() {
+        for (long[] words : explored) {
+            Arrays.fill(words, 0L);
+        }
+        exploredMap = -1;
+
+        for (View view : views) {
+            Arrays.fill(view.images, null);
         }
+        rendered.clear();
     }
 
-    // Draws the full map on the screen in a central position, including the player's location.
-    public void drawFullMapScreen(Graphics2D g2) {
-        // Fill the background with black.
-        g2.setColor(Color.black);
-        g2.fillRect(0, 0, gp.screenWidth, gp.screenHeight);
+    // Draws a tile again in the rendered images after it changed. Called by TileManager.setTile.
+    public void invalidateTile(int map, int col, int row) {
+        if (isExplored(map, col, row)) {
+            drawTile(map, col, row);
+        }
+    }
 
-        // Draw the current map level in the center of the screen.
-        int width = 500;
-        int height = 500;
-        int x = gp.screenWidth / 2 - width / 2;
-        int y = gp.screenHeight / 2 - height / 2;
-        g2.drawImage(worldMap[gp.currentMap], x, y, width, height, null);
+    // Draws one tile into the rendered images of a map that are up to date.
+    void drawTile(int map, int col, int row) {
+        for (View view : views) {
+            BufferedImage image = view.images[map];
+            if (image != null && view.versions[map] == gp.tileM.mapVersion[map]) {
+                Graphics2D g2 = image.createGraphics();
+                drawTile(g2, view, map, col, row);
+                g2.dispose();
+            }
+        }
+    }
+
+    // Draws one tile into a view's image, using the tile image scaled to the view's cell size when the cell has it.
+    void drawTile(Graphics2D g2, View view, int map, int col, int row) {
+        int x = view.cell(col);
+        int y = view.cell(row);
+        int width = view.cell(col + 1) - x;
+        int height = view.cell(row + 1) - y;
+
+        int tileNum = gp.tileM.mapTileNum[map][col][row];
+        BufferedImage tile = view.tiles[tileNum];
+        if (tile == null) {
+            int cellSize = Math.max(1, view.size / gp.maxWorldCol);
+            tile = new BufferedImage(cellSize, cellSize, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D tg = tile.createGraphics();
+            tg.drawImage(gp.tileM.tiles[tileNum].image, 0, 0, cellSize, cellSize, null);
+            tg.dispose();
+            view.tiles[tileNum] = tile;
+        }
+
+        if (tile.getWidth() == width && tile.getHeight() == height) {
+            g2.drawImage(tile, x, y, null);
+        } else {
+            g2.drawImage(gp.tileM.tiles[tileNum].image, x, y, width, height, null);
+        }
+    }
+
+    // Returns a view's image of a map, rendering it if it was never rendered, was dropped or the map was loaded again
+    // since. Returns null for maps that were never loaded.
+    BufferedImage getImage(View view, int map) {
+        if (gp.tileM.mapVersion[map] == 0) {
+            return null;
+        }
+
+        BufferedImage image = view.images[map];
+        if (image == null) {
+            dropImagesOverLimit(view.size * view.size * 4L);
+            image = new BufferedImage(view.size, view.size, BufferedImage.TYPE_INT_ARGB);
+            view.images[map] = image;
+            view.versions[map] = 0;
+        }
+        rendered.put(view.id * gp.maxMap + map, image); // Also marks it as the most recently shown.
+
+        if (view.versions[map] != gp.tileM.mapVersion[map]) {
+            render(view, map, image);
+            view.versions[map] = gp.tileM.mapVersion[map];
+        }
+        return image;
+    }
+
+    // Drops the least recently shown images until an image of the given size fits under the memory limit.
+    void dropImagesOverLimit(long newBytes) {
+        long bytes = newBytes;
+        for (BufferedImage image : rendered.values()) {
+            bytes += image.getWidth() * image.getHeight() * 4L;
+        }
+
+        Iterator<java.util.Map.Entry<Integer, BufferedImage>> iterator = rendered.entrySet().iterator();
+        while (bytes > memoryLimit && iterator.hasNext()) {
+            java.util.Map.Entry<Integer, BufferedImage> entry = iterator.next();
+            bytes -= entry.getValue().getWidth() * entry.getValue().getHeight() * 4L;
+            views[entry.getKey() / gp.maxMap].images[entry.getKey() % gp.maxMap] = null;
+            iterator.remove();
+        }
+    }
+
+    // Renders the explored tiles of a map into a view's image. Unexplored tiles stay transparent.
+    void render(View view, int map, BufferedImage image) {
+        Graphics2D g2 = image.createGraphics();
+        g2.setComposite(AlphaComposite.Clear);
+        g2.fillRect(0, 0, view.size, view.size);
+        g2.setComposite(AlphaComposite.SrcOver);
+
+        for (int row = 0; row < gp.maxWorldRow; row++) {
+            for (int col = 0; col < gp.maxWorldCol; col++) {
+                if (isExplored(map, col, row)) {
+                    drawTile(g2, view, map, col, row);
+                }
+            }
+        }
+
+        // Release resources.
+        g2.dispose();
+    }
+
+    // Draws a view of the current map at a position, with markers for the NPCs and monsters on explored tiles
+    // and the player's icon.
+    void drawView(Graphics2D g2, View view, int x, int y, int playerSize) {
+        g2.drawImage(getImage(view, gp.currentMap), x, y, null);
+
+        int markerSize = Math.max(2, view.cell(1));
+        drawMarkers(g2, view, gp.npc[gp.currentMap], x, y, markerSize, RenderCache.color(255, 220, 60));
+        drawMarkers(g2, view, gp.monster[gp.currentMap], x, y, markerSize, RenderCache.color(220, 40, 40));
 
         // Calculate and draw the player's position on the map.
-        double scale = (double) (gp.tileSize * gp.maxWorldCol) / width;
+        double scale = (double) (gp.tileSize * gp.maxWorldCol) / view.size;
         int playerX = (int) (x + gp.player.worldX / scale);
         int playerY = (int) (y + gp.player.worldY / scale);
-        int playerSize = (int) (gp.tileSize / scale);
 
         BufferedImage player;
 
         // Determine which image to use based on the player's direction.
         switch (gp.player.direction) {
-            case "down" -> player = gp.player.down1;
-            case "up" -> player = gp.player.up1;
-            case "left" -> player = gp.player.left1;
+            case down -> player = gp.player.down1;
+            case up -> player = gp.player.up1;
+            case left -> player = gp.player.left1;
             default -> player = gp.player.right1;
         }
 
-        g2.drawImage(player, playerX, playerY, playerSize, playerSize, null);
+        // Draw the player's icon slightly offset so it's centered on the player's tile.
+        int offset = (playerSize - view.cell(1)) / 2;
+        g2.drawImage(getIcon(view, player, playerSize), playerX - offset, playerY - offset, null);
+    }
+
+    // Draws a marker for every entity of an array that stands on an explored tile.
+    void drawMarkers(Graphics2D g2, View view, Entity[] entities, int x, int y, int size, Color color) {
+        g2.setColor(color);
+        for (Entity entity : entities) {
+            if (entity != null) {
+                int col = (entity.worldX + gp.tileSize / 2) / gp.tileSize;
+                int row = (entity.worldY + gp.tileSize / 2) / gp.tileSize;
+                if (col >= 0 && row >= 0 && col < gp.maxWorldCol && row < gp.maxWorldRow
+                        && isExplored(gp.currentMap, col, row)) {
+                    g2.fillRect(x + view.cell(col), y + view.cell(row), size, size);
+                }
+            }
+        }
+    }
+
+    // Returns a player sprite scaled for a view, scaling it on first use.
+    BufferedImage getIcon(View view, BufferedImage sprite, int size) {
+        BufferedImage icon = view.icons.get(sprite);
+        if (icon == null || icon.getWidth() != size) {
+            icon = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2 = icon.createGraphics();
+            g2.drawImage(sprite, 0, 0, size, size, null);
+            g2.dispose();
+            view.icons.put(sprite, icon);
+        }
+        return icon;
+    }
+
+    // Draws the full map on the screen in a central position, including the player's location.
+    public void drawFullMapScreen(Graphics2D g2) {
+        // Fill the background with black.
+        g2.setColor(Color.black);
+        g2.fillRect(0, 0, gp.screenWidth, gp.screenHeight);
+
+        // Draw the current map level in the center of the screen.
+        int x = gp.screenWidth / 2 - fullMap.size / 2;
+        int y = gp.screenHeight / 2 - fullMap.size / 2;
+        drawView(g2, fullMap, x, y, fullMap.cell(1));
 
         // Display a hint message for closing the map.
-        g2.setFont(gp.ui.pixelOperator.deriveFont(32f));
+        g2.setFont(RenderCache.font(gp.ui.pixelOperator, 32f));
         g2.setColor(Color.white);
         g2.drawString("Press M to close", 750, 550);
     }
@@ -97,37 +309,16 @@ public class Map extends TileManager {
     // Draws a minimap in the corner of the screen, showing the player's location.
     public void drawMiniMap(Graphics2D g2) {
         if (miniMapOn) {
-            // Set the minimap dimensions and position.
-            int width = 200;
-            int height = 200;
-            int x = gp.screenWidth - width - 50;
+            // Set the minimap position.
+            int x = gp.screenWidth - miniMap.size - 50;
             int y = 50;
 
             // Make the minimap slightly transparent.
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.8f));
-            g2.drawImage(worldMap[gp.currentMap], x, y, width, height, null);
-
-            // Calculate and draw the player's position on the minimap.
-            double scale = (double) (gp.tileSize * gp.maxWorldCol) / width;
-            int playerX = (int) (x + gp.player.worldX / scale);
-            int playerY = (int) (y + gp.player.worldY / scale);
-            int playerSize = gp.tileSize / 4;
-
-            BufferedImage player;
-
-            // Determine which image to use based on the player's direction.
-            switch (gp.player.direction) {
-                case "down" -> player = gp.player.down1;
-                case "up" -> player = gp.player.up1;
-                case "left" -> player = gp.player.left1;
-                default -> player = gp.player.right1;
-            }
-
-            // Draw the player's icon slightly offset to align better with the map.
-            g2.drawImage(player, playerX - 6, playerY - 6, playerSize, playerSize, null);
+            g2.setComposite(RenderCache.alpha(0.8f));
+            drawView(g2, miniMap, x, y, gp.tileSize / 4);
 
             // Reset the transparency.
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f));
+            g2.setComposite(RenderCache.alpha(1f));
         }
     }
-}
\ No newline at end of file
+}
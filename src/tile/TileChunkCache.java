@@ -0,0 +1,161 @@
+package tile;
+
+import main.GamePanel;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// The TileChunkCache pre-renders the ground layer into chunk images of chunkSize x chunkSize tiles,
+// so a frame only blits the few chunks overlapping the screen instead of one image per tile.
+// Chunks are built lazily the first time they are visible and the least recently used ones are evicted
+// once more than maxChunks are held, which bounds the memory used by the cache.
+public class TileChunkCache {
+
+    GamePanel gp;          // Reference to the GamePanel, which holds the game state and properties.
+    TileManager tileM;     // Tile manager providing the tiles and map layout to render.
+
+    public final int chunkSize;   // Width and height of a chunk in tiles.
+    public int maxChunks;         // Maximum number of chunk images kept in memory.
+
+    final int chunkCols;          // Number of chunk columns in a map.
+    final int chunkRows;          // Number of chunk rows in a map.
+    final BufferedImage[][] chunks; // Rendered chunks of each map, null if not built or evicted.
+    final long[][] lastUsed;      // Frame each chunk was last drawn in, used to pick the chunk to evict.
+    int chunkCount;               // Number of chunk images currently held.
+    long frame;                   // Frame counter, incremented on every draw.
+
+    // Counters
+    public int builds;            // Chunks rendered since startup.
+    public int evictions;         // Chunks evicted to stay under maxChunks.
+    public int blitsLastFrame;    // Chunk images drawn during the last frame.
+
+    // Constructor creates an empty cache for the maps of the tile manager.
+    public TileChunkCache(GamePanel gp, TileManager tileM, int chunkSize, int maxChunks) {
+        this.gp = gp;
+        this.tileM = tileM;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+
+        chunkCols = (gp.maxWorldCol + chunkSize - 1) / chunkSize;
+        chunkRows = (gp.maxWorldRow + chunkSize - 1) / chunkSize;
+        chunks = new BufferedImage[gp.maxMap][chunkCols * chunkRows];
+        lastUsed = new long[gp.maxMap][chunkCols * chunkRows];
+    }
+
+    // Draws the chunks overlapping the screen for the given camera position (world position of the screen's top-left corner).
+    public void draw(Graphics2D g2, int cameraX, int cameraY) {
+        frame++;
+        blitsLastFrame = 0;
+
+        int chunkPixels = chunkSize * gp.tileSize;
+
+        // Range of chunks visible on the screen, clamped to the map.
+        int cxStart = Math.max(0, Math.floorDiv(cameraX, chunkPixels));
+        int cyStart = Math.max(0, Math.floorDiv(cameraY, chunkPixels));
+        int cxEnd = Math.min(chunkCols - 1, Math.floorDiv(cameraX + gp.screenWidth - 1, chunkPixels));
+        int cyEnd = Math.min(chunkRows - 1, Math.floorDiv(cameraY + gp.screenHeight - 1, chunkPixels));
+
+        for (int cy = cyStart; cy <= cyEnd; cy++) {
+            for (int cx = cxStart; cx <= cxEnd; cx++) {
+                BufferedImage chunk = getChunk(gp.currentMap, cx, cy);
+                g2.drawImage(chunk, cx * chunkPixels - cameraX, cy * chunkPixels - cameraY, null);
+                blitsLastFrame++;
+            }
+        }
+    }
+
+    // Returns the image of a chunk, rendering it first if it isn't cached.
+    private BufferedImage getChunk(int map, int cx, int cy) {
+        int index = cy * chunkCols + cx;
+
+        if (chunks[map][index] == null) {
+            if (chunkCount >= maxChunks) {
+                evictLeastRecentlyUsed();
+            }
+            chunks[map][index] = render(map, cx, cy);
+            chunkCount++;
+            builds++;
+        }
+
+        lastUsed[map][index] = frame;
+        return chunks[map][index];
+    }
+
+    // Renders the tiles of a chunk into a new image.
+    private BufferedImage render(int map, int cx, int cy) {
+        int colStart = cx * chunkSize;
+        int rowStart = cy * chunkSize;
+        int colEnd = Math.min(gp.maxWorldCol, colStart + chunkSize);
+        int rowEnd = Math.min(gp.maxWorldRow, rowStart + chunkSize);
+
+        BufferedImage image = createChunkImage((colEnd - colStart) * gp.tileSize, (rowEnd - rowStart) * gp.tileSize);
+        Graphics2D g2 = image.createGraphics();
+
+        for (int row = rowStart; row < rowEnd; row++) {
+            for (int col = colStart; col < colEnd; col++) {
+                int tileNum = tileM.mapTileNum[map][col][row];
+                g2.drawImage(tileM.tiles[tileNum].image, (col - colStart) * gp.tileSize, (row - rowStart) * gp.tileSize, null);
+            }
+        }
+
+        g2.dispose(); // Release resources.
+        return image;
+    }
+
+    // Creates an opaque image in the screen's native format so blitting it can be accelerated,
+    // falling back to a plain RGB image when there is no screen (headless runs).
+    private BufferedImage createChunkImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return gc.createCompatibleImage(width, height, Transparency.OPAQUE);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    // Drops the chunk that was drawn the longest time ago.
+    private void evictLeastRecentlyUsed() {
+        int oldestMap = -1;
+        int oldestIndex = -1;
+        long oldest = Long.MAX_VALUE;
+
+        for (int map = 0; map < chunks.length; map++) {
+            for (int i = 0; i < chunks[map].length; i++) {
+                if (chunks[map][i] != null && lastUsed[map][i] < oldest) {
+                    oldest = lastUsed[map][i];
+                    oldestMap = map;
+                    oldestIndex = i;
+                }
+            }
+        }
+
+        if (oldestMap != -1) {
+            chunks[oldestMap][oldestIndex] = null;
+            chunkCount--;
+            evictions++;
+        }
+    }
+
+    // Drops the chunk containing a tile so it's rendered again with the map's current tiles.
+    public void invalidateTile(int map, int col, int row) {
+        if (col < 0 || row < 0 || col >= gp.maxWorldCol || row >= gp.maxWorldRow) {
+            return;
+        }
+
+        int index = (row / chunkSize) * chunkCols + col / chunkSize;
+        if (chunks[map][index] != null) {
+            chunks[map][index] = null;
+            chunkCount--;
+        }
+    }
+
+    // Drops every chunk of a map, e.g. after the map was loaded again.
+    public void invalidateMap(int map) {
+        for (int i = 0; i < chunks[map].length; i++) {
+            if (chunks[map][i] != null) {
+                chunks[map][i] = null;
+                chunkCount--;
+            }
+        }
+    }
+}
@@ -1,16 +1,16 @@
 package tile;
 
 import main.GamePanel;
-import main.UtilityTool;
+import main.SpriteCache;
+import tile_interactive.InteractiveTile;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.Objects;
+import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,6 +29,25 @@ public class TileManager {
     // 2D array representing the map layout, where each element corresponds to a tile type.
     public int[][][] mapTileNum;
 
+    // Collision layer of each map with one bit per tile (bit index = row * maxWorldCol + col).
+    // Built once per map in loadMap so collision and pathfinding don't have to look up tiles every time.
+    public long[][] collisionLayer;
+
+    // Destructible interactive tiles of each map, using the same bit layout as the collision layer.
+    // Updated incrementally when interactive tiles are placed, destroyed or replaced.
+    public long[][] interactiveLayer;
+
+    // Incremented every time a map is loaded, so images rendered from a map know when to render it again.
+    // 0 for maps that were never loaded.
+    public int[] mapVersion;
+
+    // Incremented every time a collision or interactive layer changes, so caches built from them know when to rebuild.
+    public int layerVersion;
+
+    // Pre-rendered ground chunks, drawn instead of individual tiles when useChunkCache is on.
+    public TileChunkCache chunkCache;
+    public boolean useChunkCache = true;
+
     // List of file names for the tile images.
     ArrayList<String> fileNames = new ArrayList<>();
     // List of collision statuses corresponding to the tiles.
@@ -76,6 +95,12 @@ public class TileManager {
 
             // Initialize the map array with the dimensions and map layers.
             mapTileNum = new int[gp.maxMap][gp.maxWorldCol][gp.maxWorldRow];
+            mapVersion = new int[gp.maxMap];
+
+            // Initialize the collision bitmaps, one bit per tile of each map.
+            int words = (gp.maxWorldCol * gp.maxWorldRow + 63) >>> 6;
+            collisionLayer = new long[gp.maxMap][words];
+            interactiveLayer = new long[gp.maxMap][words];
 
             br.close();
         } catch (IOException e) {
@@ -87,6 +112,9 @@ public class TileManager {
         loadMap("/maps/indoor01.txt", 1); // Load merchant hunt layout.
         loadMap("/maps/dungeon01.txt", 2); // Load dungeon B1 layout.
         loadMap("/maps/dungeon02.txt", 3); // Load dungeon B2 layout.
+
+        // Cache the ground in chunks of 16x16 tiles, keeping at most 12 chunks (enough for a screen and its neighbours).
+        chunkCache = new TileChunkCache(gp, this, 16, 12);
     }
 
     // Loads tile images and sets their collision properties based on data.
@@ -100,26 +128,14 @@ public class TileManager {
     }
 
 
-    // The setup method initializes a tile at a specific index and loads its image.
+    // The setup method initializes a tile at a specific index and loads its image from the sprite cache.
     public void setup(int index, String imageName, boolean collision) {
-        UtilityTool uTool = new UtilityTool(); // Create an instance of UtilityTool for image scaling.
-
-        try {
-            // Initialize the tile object at the specified index.
-            tiles[index] = new Tile();
-            // Load the image from the resources and scale it to the desired size.
-            tiles[index].image = ImageIO.read(Objects.requireNonNull(getClass().getResourceAsStream("/tiles/" + imageName)));
-            tiles[index].image = uTool.scaleImage(tiles[index].image, gp.tileSize, gp.tileSize);
-            // Set the collision property for this tile.
-            tiles[index].collision = collision;
-
-        } catch (IOException e) {
-            // Log an error if image loading fails.
-            logger.log(Level.SEVERE, "Failed to load tile image", e);
-        } catch (NullPointerException e) {
-            // Log a warning if an image file is missing or not found.
-            logger.log(Level.WARNING, "Image not found for tile!", e);
-        }
+        // Initialize the tile object at the specified index.
+        tiles[index] = new Tile();
+        // Load the image from the resources, scaled to the desired size.
+        tiles[index].image = SpriteCache.get("/tiles/" + imageName, gp.tileSize, gp.tileSize);
+        // Set the collision property for this tile.
+        tiles[index].collision = collision;
     }
 
     // The loadMap method reads a map layout from a specified text file.
@@ -138,9 +154,9 @@ public class TileManager {
             while (col < gp.maxWorldCol && row < gp.maxWorldRow) {
                 String line = br.readLine(); // Read a line from the map file.
 
-                while (col < gp.maxWorldCol) {
-                    String[] numbers = line.split(" "); // Split the line into individual tile indices.
+                String[] numbers = line.split(" "); // Split the line into individual tile indices, once per row.
 
+                while (col < gp.maxWorldCol) {
                     int num = Integer.parseInt(numbers[col]); // Parse the tile index as an integer.
 
                     mapTileNum[map][col][row] = num; // Store the tile index in the map array.
@@ -160,38 +176,138 @@ public class TileManager {
             // Log a warning if the map file cannot be found or read.
             logger.log(Level.WARNING, "Map not found!", e);
         }
+
+        buildCollisionLayer(map); // Cache the solidity of the loaded tiles.
+        mapVersion[map]++;
+
+        // Drop the chunks rendered from the previous layout of this map.
+        if (chunkCache != null) {
+            chunkCache.invalidateMap(map);
+        }
+    }
+
+    // Changes the tile at a position, keeping the collision layer and the chunk cache in sync.
+    public void setTile(int map, int col, int row, int tileNum) {
+        mapTileNum[map][col][row] = tileNum;
+
+        int bit = row * gp.maxWorldCol + col;
+        if (tiles[tileNum].collision) {
+            collisionLayer[map][bit >>> 6] |= 1L << bit;
+        } else {
+            collisionLayer[map][bit >>> 6] &= ~(1L << bit);
+        }
+        layerVersion++;
+
+        chunkCache.invalidateTile(map, col, row);
+        if (gp.map != null) {
+            gp.map.invalidateTile(map, col, row); // Redraw the tile on the full map and the minimap.
+        }
+    }
+
+    // Rebuilds the collision layer of a map from its tile numbers and the tiles' collision flags.
+    public void buildCollisionLayer(int map) {
+        long[] layer = collisionLayer[map];
+        Arrays.fill(layer, 0L);
+        layerVersion++;
+
+        for (int row = 0; row < gp.maxWorldRow; row++) {
+            for (int col = 0; col < gp.maxWorldCol; col++) {
+                if (tiles[mapTileNum[map][col][row]].collision) {
+                    int bit = row * gp.maxWorldCol + col;
+                    layer[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+    }
+
+    // Rebuilds the interactive layer of a map from the destructible interactive tiles placed on it.
+    public void rebuildInteractiveLayer(int map) {
+        Arrays.fill(interactiveLayer[map], 0L);
+        layerVersion++;
+
+        for (InteractiveTile iTile : gp.iTile[map]) {
+            updateInteractiveTile(map, null, iTile);
+        }
+    }
+
+    // Updates the interactive layer of a map after an interactive tile was replaced (e.g., by its destroyed variant).
+    // Either tile may be null when a tile is only removed or only added.
+    public void updateInteractiveTile(int map, InteractiveTile oldTile, InteractiveTile newTile) {
+        if (oldTile != null) {
+            setInteractiveBit(map, oldTile.worldX / gp.tileSize, oldTile.worldY / gp.tileSize, false);
+        }
+        if (newTile != null && newTile.destructible) {
+            setInteractiveBit(map, newTile.worldX / gp.tileSize, newTile.worldY / gp.tileSize, true);
+        }
+    }
+
+    // Sets or clears the interactive layer bit of a tile.
+    private void setInteractiveBit(int map, int col, int row, boolean blocked) {
+        if (col < 0 || row < 0 || col >= gp.maxWorldCol || row >= gp.maxWorldRow) {
+            return;
+        }
+        layerVersion++;
+
+        int bit = row * gp.maxWorldCol + col;
+        if (blocked) {
+            interactiveLayer[map][bit >>> 6] |= 1L << bit;
+        } else {
+            interactiveLayer[map][bit >>> 6] &= ~(1L << bit);
+        }
+    }
+
+    // Returns true if the tile at the given position has collision. Positions outside the map count as solid.
+    public boolean isCollision(int map, int col, int row) {
+        if (col < 0 || row < 0 || col >= gp.maxWorldCol || row >= gp.maxWorldRow) {
+            return true;
+        }
+
+        int bit = row * gp.maxWorldCol + col;
+        return (collisionLayer[map][bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    // Returns true if the tile at the given position can't be walked through by pathfinding,
+    // either because the tile has collision or because a destructible interactive tile stands on it.
+    public boolean isBlocked(int map, int col, int row) {
+        if (isCollision(map, col, row)) {
+            return true;
+        }
+
+        int bit = row * gp.maxWorldCol + col;
+        return (interactiveLayer[map][bit >>> 6] & (1L << bit)) != 0;
     }
 
     // The draw method renders the tiles onto the screen based on the map layout.
+    // Only the window of tiles overlapping the screen is visited, so the cost doesn't grow with the size of the map.
     public void draw(Graphics2D g2) {
-        int worldCol = 0; // Current column in the map.
-        int worldRow = 0; // Current row in the map.
-
-        // Loop through the mapTileNum array and draw each tile.
-        while (worldCol < gp.maxWorldCol && worldRow < gp.maxWorldRow) {
-            int tileNum = mapTileNum[gp.currentMap][worldCol][worldRow]; // Get the tile index for the current position.
-
-            // Calculate the world and screen coordinates for drawing the tile.
-            int worldX = worldCol * gp.tileSize;
-            int worldY = worldRow * gp.tileSize;
-            int screenX = worldX - gp.player.worldX + gp.player.screenX;
-            int screenY = worldY - gp.player.worldY + gp.player.screenY;
-
-            // Check if the tile is within the player's visible area before drawing.
-            if (worldX + gp.tileSize > gp.player.worldX - gp.player.screenX &&
-                    worldX - gp.tileSize < gp.player.worldX + gp.player.screenX &&
-                    worldY + gp.tileSize > gp.player.worldY - gp.player.screenY &&
-                    worldY - gp.tileSize < gp.player.worldY + gp.player.screenY) {
-                // Draw the tile image at the calculated position.
-                g2.drawImage(tiles[tileNum].image, screenX, screenY, null);
-            }
+        // World position of the screen's top-left corner, the player is kept at (screenX, screenY) on screen.
+        int cameraX = gp.player.worldX - gp.player.screenX;
+        int cameraY = gp.player.worldY - gp.player.screenY;
+
+        // Blit the pre-rendered chunks overlapping the screen (4 to 9 images) instead of every tile.
+        if (useChunkCache) {
+            chunkCache.draw(g2, cameraX, cameraY);
+            return;
+        }
+
+        // Range of columns and rows visible on the screen, clamped to the map.
+        int colStart = Math.max(0, Math.floorDiv(cameraX, gp.tileSize));
+        int rowStart = Math.max(0, Math.floorDiv(cameraY, gp.tileSize));
+        int colEnd = Math.min(gp.maxWorldCol - 1, Math.floorDiv(cameraX + gp.screenWidth, gp.tileSize));
+        int rowEnd = Math.min(gp.maxWorldRow - 1, Math.floorDiv(cameraY + gp.screenHeight, gp.tileSize));
+
+        int[][] map = mapTileNum[gp.currentMap];
 
-            worldCol++; // Move to the next column.
+        // Loop through the visible window of the mapTileNum array and draw each tile.
+        for (int worldRow = rowStart; worldRow <= rowEnd; worldRow++) {
+            int screenY = worldRow * gp.tileSize - cameraY;
 
-            // If the current row is fully populated, move to the next row.
-            if (worldCol == gp.maxWorldCol) {
-                worldCol = 0; // Reset column index.
-                worldRow++; // Move to the next row.
+            for (int worldCol = colStart; worldCol <= colEnd; worldCol++) {
+                int tileNum = map[worldCol][worldRow]; // Get the tile index for the current position.
+                int screenX = worldCol * gp.tileSize - cameraX;
+
+                // Draw the tile image at the calculated position.
+                g2.drawImage(tiles[tileNum].image, screenX, screenY, null);
             }
         }
     }
@@ -2,6 +2,7 @@ package tile_interactive;
 
 import entity.Entity;
 import main.GamePanel;
+import main.RenderCache;
 
 import java.awt.*;
 
@@ -47,7 +48,7 @@ public class IT_DryTree extends InteractiveTile {
 
     // Return the particle color when the tree is interacted with (e.g., chopped).
     public Color getParticleColor() {
-        return new Color(65, 50, 30); // A brown color for the dry tree's particles.
+        return RenderCache.color(65, 50, 30); // A brown color for the dry tree's particles.
     }
 
     // Return the particle size when the tree is interacted with.